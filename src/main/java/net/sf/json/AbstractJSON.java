@@ -17,8 +17,11 @@
 package net.sf.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.lang.ref.SoftReference;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -27,6 +30,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import net.sf.json.util.JSONUtils;
 import net.sf.json.util.JsonEventListener;
+import net.sf.json.util.StringBuilderWriter;
 
 /**
  * Base class for JSONObject and JSONArray.
@@ -52,6 +56,8 @@ abstract class AbstractJSON implements JSON {
 
     private static CycleSet cycleSet = new CycleSet();
 
+    private static final String SPACES = "                                ";
+
     private static final Logger logger = Logger.getLogger(AbstractJSON.class.getName());
 
     /**
@@ -65,6 +71,14 @@ abstract class AbstractJSON implements JSON {
         return getCycleSet().add(instance);
     }
 
+    /**
+     * Returns true if an instance is being converted by the current thread,
+     * without adding it.
+     */
+    protected static boolean hasInstance(Object instance) {
+        return getCycleSet().contains(instance);
+    }
+
     /**
      * Fires an end of array event.
      */
@@ -253,6 +267,36 @@ abstract class AbstractJSON implements JSON {
         return writer;
     }
 
+    @Override
+    public final Writer write(Writer writer, int indentFactor) throws IOException {
+        write(writer, indentFactor, 0);
+        return writer;
+    }
+
+    @Override
+    public final OutputStream write(OutputStream out) throws IOException {
+        Utf8Writer writer = new Utf8Writer(out);
+        write(writer, NORMAL);
+        writer.finish();
+        return out;
+    }
+
+    @Override
+    public final ByteBuffer writeTo(ByteBuffer buffer) {
+        int position = buffer.position();
+        Utf8Writer writer = new Utf8Writer(buffer);
+        try {
+            write(writer, NORMAL);
+            writer.finish();
+        } catch (BufferOverflowException boe) {
+            buffer.position(position);
+            throw boe;
+        } catch (IOException ioe) {
+            throw new JSONException(ioe);
+        }
+        return buffer;
+    }
+
     @Override
     public final Writer writeCanonical(Writer writer) throws IOException {
         write(writer, CANONICAL);
@@ -261,6 +305,48 @@ abstract class AbstractJSON implements JSON {
 
     protected abstract void write(Writer w, WritingVisitor v) throws IOException;
 
+    /**
+     * Writes the text of toString(indentFactor, indent).
+     */
+    abstract void write(Writer writer, int indentFactor, int indent) throws IOException;
+
+    /**
+     * Returns the text of toString(indentFactor, indent), for indentFactor
+     * other than 0.
+     */
+    final String toPrettyString(int indentFactor, int indent) {
+        StringBuilderWriter writer = new StringBuilderWriter();
+        try {
+            write(writer, indentFactor, indent);
+        } catch (IOException ioe) {
+            throw new JSONException(ioe);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes a member of a prettyprinted JSONObject or JSONArray, the text of
+     * JSONUtils.valueToString(value, indentFactor, indent).
+     */
+    static void writeValue(Object value, Writer writer, int indentFactor, int indent) throws IOException {
+        if (value instanceof AbstractJSON && !JSONUtils.isNull(value)) {
+            ((AbstractJSON) value).write(writer, indentFactor, indent);
+        } else {
+            JSONUtils.writeValue(value, writer);
+        }
+    }
+
+    /**
+     * Writes count spaces.
+     */
+    static void writeIndent(Writer writer, int count) throws IOException {
+        while (count > 0) {
+            int n = Math.min(count, SPACES.length());
+            writer.write(SPACES, 0, n);
+            count -= n;
+        }
+    }
+
     interface WritingVisitor {
         Collection keySet(JSONObject o);
 
@@ -282,7 +368,11 @@ abstract class AbstractJSON implements JSON {
 
         @Override
         public void on(Object value, Writer w) throws IOException {
-            w.write(JSONUtils.valueToString(value));
+            if (value instanceof LazyJSON) {
+                ((LazyJSON) value).write(w);
+            } else {
+                JSONUtils.writeValue(value, w);
+            }
         }
     };
 
@@ -299,7 +389,12 @@ abstract class AbstractJSON implements JSON {
 
         @Override
         public void on(Object value, Writer w) throws IOException {
-            w.write(JSONUtils.valueToCanonicalString(value));
+            if (value instanceof LazyJSON) {
+                // the source text is neither sorted nor canonical
+                ((LazyJSON) value).materialize().writeCanonical(w);
+            } else {
+                JSONUtils.writeCanonicalValue(value, w);
+            }
         }
     };
 }
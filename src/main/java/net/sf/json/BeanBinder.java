@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.sf.json.processors.PropertyNameProcessor;
+import net.sf.json.util.JSONUtils;
+
+/**
+ * Binds the keys of JSONObjects to the properties of a bean class, for
+ * JSONObject.toBean(): the Java identifier and the PropertyNameProcessor
+ * applied to a key, and the field, property or Map entry it is set through,
+ * are worked out the first time the key is seen and kept for the next
+ * objects.<br>
+ * Binders are built by {@link JsonConfig#getBeanBinder(Class)}, which keeps
+ * them until the configuration changes. A binder keeps at most
+ * {@link #MAX_BINDINGS} keys, so that objects with arbitrary keys, such as
+ * those bound to Maps, do not make it grow without bounds.
+ *
+ * @author JSON.org
+ */
+final class BeanBinder {
+    static final int MAX_BINDINGS = 1024;
+
+    private final Class<?> beanClass;
+    private final Map<String, Binding> bindings = new ConcurrentHashMap<>();
+
+    BeanBinder(Class<?> beanClass) {
+        this.beanClass = beanClass;
+    }
+
+    /**
+     * Returns the binding of a key of a JSONObject.
+     */
+    Binding bind(String name, JsonConfig jsonConfig) {
+        Binding binding = bindings.get(name);
+        if (binding == null) {
+            binding = new Binding(beanClass, name, jsonConfig);
+            if (bindings.size() < MAX_BINDINGS) {
+                bindings.put(name, binding);
+            }
+        }
+        return binding;
+    }
+
+    /**
+     * A key of a JSONObject and where it is set on a bean.
+     */
+    static final class Binding {
+        /** the name of the property, after the PropertyNameProcessor */
+        final String key;
+
+        /** where the value is set, or null if the bean has no such property */
+        final JSONObject.Property property;
+
+        Binding(Class<?> beanClass, String name, JsonConfig jsonConfig) {
+            String key =
+                    Map.class.isAssignableFrom(beanClass) && jsonConfig.isSkipJavaIdentifierTransformationInMapKeys()
+                            ? name
+                            : JSONUtils.convertToJavaIdentifier(name, jsonConfig);
+            PropertyNameProcessor propertyNameProcessor = jsonConfig.findJavaPropertyNameProcessor(beanClass);
+            if (propertyNameProcessor != null) {
+                key = propertyNameProcessor.processPropertyName(beanClass, key);
+            }
+            this.key = key;
+            this.property = JSONObject.getProperty(beanClass, key, jsonConfig);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.sf.json.processors.JsonValueProcessor;
+import net.sf.json.processors.PropertyNameProcessor;
+import net.sf.json.util.PropertyAccessor;
+import org.apache.commons.beanutils.PropertyUtils;
+
+/**
+ * The properties and public fields of a bean class that are serialized with a
+ * JsonConfig, in order, with everything that does not depend on the bean
+ * instance already decided: exclusions, transient checks, the
+ * JsonValueProcessor of each property and the key written for it by the
+ * PropertyNameProcessor.<br>
+ * What does depend on the instance, the values and the JsonPropertyFilter, is
+ * left to JSONObject and BeanWriter. Plans are built by
+ * {@link JsonConfig#getBeanPlan(Class)}, which keeps them until the
+ * configuration changes.
+ *
+ * @author JSON.org
+ */
+final class BeanPlan {
+    private static final Property[] EMPTY = new Property[0];
+    private static final Logger logger = Logger.getLogger(BeanPlan.class.getName());
+
+    /** true if two properties or fields are written with the same key */
+    final boolean duplicateKeys;
+
+    /** the public fields to read, unless they are ignored */
+    final Property[] fields;
+
+    /** the properties to read, and those with no read method */
+    final Property[] properties;
+
+    BeanPlan(Class<?> beanClass, JsonConfig jsonConfig) {
+        PropertyNameProcessor propertyNameProcessor = jsonConfig.findJsonPropertyNameProcessor(beanClass);
+        Collection<String> exclusions = jsonConfig.getMergedExcludes(beanClass);
+        Set<String> keys = new HashSet<>();
+        boolean duplicates = false;
+
+        List<Property> list = new ArrayList<>();
+        for (PropertyDescriptor pd : PropertyUtils.getPropertyDescriptors(beanClass)) {
+            String name = pd.getName();
+            if (exclusions.contains(name)) {
+                continue;
+            }
+            if (jsonConfig.isIgnoreTransientFields() && JSONObject.isTransientField(name, beanClass, jsonConfig)) {
+                continue;
+            }
+            Method readMethod;
+            try {
+                readMethod = pd.getReadMethod();
+            } catch (Exception e) {
+                // bug 2565295
+                readMethod = null;
+            }
+            if (readMethod == null) {
+                list.add(new Property(
+                        name, "Property '" + name + "' of " + beanClass + " has no read method. SKIPPED"));
+                continue;
+            }
+            if (JSONObject.isTransient(readMethod, jsonConfig)) {
+                continue;
+            }
+            Property property = new Property(beanClass, name, pd.getPropertyType(),
+                    PropertyAccessor.forProperty(beanClass, name), jsonConfig, propertyNameProcessor);
+            duplicates |= !keys.add(property.key);
+            list.add(property);
+        }
+        this.properties = list.toArray(EMPTY);
+
+        list.clear();
+        try {
+            if (!jsonConfig.isIgnorePublicFields()) {
+                for (Field field : beanClass.getFields()) {
+                    String name = field.getName();
+                    if (exclusions.contains(name) || Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    if (jsonConfig.isIgnoreTransientFields() && JSONObject.isTransientField(field, jsonConfig)) {
+                        continue;
+                    }
+                    Property property = new Property(beanClass, name, field.getType(),
+                            PropertyAccessor.forField(beanClass, name), jsonConfig, propertyNameProcessor);
+                    duplicates |= !keys.add(property.key);
+                    list.add(property);
+                }
+            }
+        } catch (Exception e) {
+            // public fields may not be readable under a SecurityManager
+            logger.log(Level.FINEST, "Couldn't read public fields.", e);
+        }
+        this.fields = list.toArray(EMPTY);
+        this.duplicateKeys = duplicates;
+    }
+
+    /**
+     * A property or public field of a bean class.
+     */
+    static final class Property {
+        /** reads the property or field, null if it is skipped */
+        final PropertyAccessor accessor;
+
+        /** the key written, after the PropertyNameProcessor */
+        final String key;
+
+        /** the name of the property or field */
+        final String name;
+
+        /** the JsonValueProcessor registered for the property, or null */
+        final JsonValueProcessor processor;
+
+        final Class<?> type;
+
+        /** why the property is skipped, or null if it is read */
+        final String warning;
+
+        Property(
+                Class<?> beanClass,
+                String name,
+                Class<?> type,
+                PropertyAccessor accessor,
+                JsonConfig jsonConfig,
+                PropertyNameProcessor propertyNameProcessor) {
+            this.name = name;
+            this.type = type;
+            this.accessor = accessor;
+            this.processor = jsonConfig.findJsonValueProcessor(beanClass, type, name);
+            this.key = propertyNameProcessor != null
+                    ? propertyNameProcessor.processPropertyName(beanClass, name)
+                    : name;
+            this.warning = null;
+        }
+
+        Property(String name, String warning) {
+            this.name = name;
+            this.key = name;
+            this.type = null;
+            this.accessor = null;
+            this.processor = null;
+            this.warning = warning;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.sf.json.processors.JsonBeanProcessor;
+import net.sf.json.processors.JsonValueProcessor;
+import net.sf.json.processors.JsonVerifier;
+import net.sf.json.util.CycleDetectionStrategy;
+import net.sf.json.util.JSONTokener;
+import net.sf.json.util.JSONUtils;
+import net.sf.json.util.PropertyFilter;
+import org.apache.commons.beanutils.DynaBean;
+
+/**
+ * Writes beans, Maps, Collections and object arrays as JSON text while it walks
+ * them, without building the JSONObject and JSONArray tree that
+ * JSONSerializer.toJSON() returns.<br>
+ * It makes the same decisions as the tree builders, in the same order:
+ * excludes, transient fields, property filters, JsonValueProcessors,
+ * JsonBeanProcessors, PropertyNameProcessors, default values and the
+ * CycleDetectionStrategy; beans are read with the same BeanPlan as
+ * JSONObject uses. Values it does not walk itself (JSONStrings,
+ * DynaBeans, primitive arrays, values of a JsonBeanProcessor...) are converted
+ * as toJSON() converts them and written from the result. A bean whose keys
+ * may collide, through a PropertyNameProcessor or a public field named after a
+ * property, is built as a JSONObject, since colliding keys are accumulated
+ * into an array.<br>
+ * Events are not fired; with events enabled JSONSerializer builds the tree.
+ * Text already written can not be taken back, so an error raised while a
+ * public field is written is not ignored as it is when the tree is built.
+ *
+ * @author JSON.org
+ */
+final class BeanWriter {
+    private static final Logger logger = Logger.getLogger(BeanWriter.class.getName());
+
+    /**
+     * Returns true if the top level value of object is one BeanWriter walks:
+     * a bean, a Map, a Collection or an object array.
+     */
+    static boolean isWalkable(Object object) {
+        if (object == null
+                || object instanceof JSON
+                || object instanceof JSONString
+                || object instanceof JSONTokener
+                || object instanceof DynaBean
+                || object instanceof Enum
+                || object instanceof Annotation
+                || object.getClass().isAnnotation()
+                || JSONUtils.isString(object)
+                || JSONUtils.isNumber(object)
+                || JSONUtils.isBoolean(object)) {
+            return false;
+        }
+        if (object.getClass().isArray()) {
+            return !object.getClass().getComponentType().isPrimitive();
+        }
+        return !(object instanceof Path);
+    }
+
+    private final JsonConfig jsonConfig;
+    private final Writer writer;
+
+    BeanWriter(Writer writer, JsonConfig jsonConfig) {
+        this.writer = writer;
+        this.jsonConfig = jsonConfig;
+    }
+
+    /**
+     * Writes a value accepted by {@link #isWalkable(Object)}.
+     */
+    void writeWalkable(Object object) throws IOException {
+        if (!AbstractJSON.addInstance(object)) {
+            // callers check hasInstance() first
+            throw new JSONException("There is a cycle in the hierarchy!");
+        }
+        try {
+            if (object instanceof Map) {
+                writeMap((Map) object);
+            } else if (object instanceof Collection) {
+                writeElements(((Collection) object).iterator());
+            } else if (object.getClass().isArray()) {
+                writeElements(Arrays.asList((Object[]) object).iterator());
+            } else {
+                writeBean(object);
+            }
+        } catch (JSONException | IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JSONException(e);
+        } finally {
+            AbstractJSON.removeInstance(object);
+        }
+    }
+
+    /**
+     * Converts a value the way AbstractJSON._processValue() does, except for the
+     * beans, Maps, Collections and object arrays that are not already being
+     * written: those are returned as they are, to be walked.
+     *
+     * @param element true for an element of an array, false for the value of
+     *        a key
+     */
+    private Object prepare(Object value, boolean element) {
+        if (value instanceof JSONTokener) {
+            return JSONSerializer.toJSON(value, jsonConfig);
+        } else if (value != null && Enum.class.isAssignableFrom(value.getClass())) {
+            return ((Enum) value).name();
+        } else if (element && (value instanceof Annotation || (value != null && value.getClass().isAnnotation()))) {
+            throw new JSONException("Unsupported type");
+        } else if (JSONNull.getInstance().equals(value)) {
+            return JSONNull.getInstance();
+        } else if (value instanceof Class) {
+            return ((Class) value).getName();
+        } else if (value instanceof JSONString || value instanceof JSON) {
+            return JSONSerializer.toJSON(value, jsonConfig);
+        } else if (JSONUtils.isArray(value)) {
+            if (value instanceof Collection || !value.getClass().getComponentType().isPrimitive()) {
+                if (AbstractJSON.hasInstance(value)) {
+                    return repeatedReference(value, true);
+                }
+                return value;
+            }
+            return JSONArray.fromObject(value, jsonConfig);
+        } else if (JSONUtils.isString(value)) {
+            return value.toString();
+        } else if (JSONUtils.isNumber(value)) {
+            JSONUtils.testValidity(value);
+            return JSONUtils.transformNumber((Number) value);
+        } else if (JSONUtils.isBoolean(value)) {
+            return value;
+        } else if (value instanceof Annotation || value.getClass().isAnnotation()) {
+            throw new JSONException("'object' is an Annotation.");
+        } else if (value instanceof DynaBean) {
+            JSONObject jsonObject = JSONObject.fromObject(value, jsonConfig);
+            return jsonObject.isNullObject() ? JSONNull.getInstance() : jsonObject;
+        } else if (AbstractJSON.hasInstance(value)) {
+            return repeatedReference(value, false);
+        }
+        return value;
+    }
+
+    /**
+     * Asks the CycleDetectionStrategy what to write for a value that is being
+     * written already.
+     */
+    private Object repeatedReference(Object value, boolean array) {
+        CycleDetectionStrategy cycleDetectionStrategy = jsonConfig.getCycleDetectionStrategy();
+        try {
+            if (array) {
+                return cycleDetectionStrategy.handleRepeatedReferenceAsArray(value);
+            }
+            JSONObject jsonObject = cycleDetectionStrategy.handleRepeatedReferenceAsObject(value);
+            return jsonObject.isNullObject() ? JSONNull.getInstance() : jsonObject;
+        } catch (JSONException jsone) {
+            throw jsone;
+        } catch (RuntimeException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    private void writeBean(Object bean) throws Exception {
+        Class<?> beanClass = bean.getClass();
+        JsonBeanProcessor processor = jsonConfig.findJsonBeanProcessor(beanClass);
+        if (processor != null) {
+            JSONObject json = processor.processBean(bean, jsonConfig);
+            if (json == null) {
+                json = (JSONObject) jsonConfig.findDefaultValueProcessor(beanClass).getDefaultValue(beanClass);
+                if (json == null) {
+                    json = new JSONObject(true);
+                }
+            }
+            json.write(writer);
+            return;
+        }
+
+        BeanPlan plan = jsonConfig.getBeanPlan(beanClass);
+        if (plan.duplicateKeys) {
+            JSONObject.defaultBeanProcessing(bean, jsonConfig).write(writer);
+            return;
+        }
+
+        PropertyFilter jsonPropertyFilter = jsonConfig.getJsonPropertyFilter();
+        boolean first = true;
+        writer.write('{');
+        for (BeanPlan.Property property : plan.properties) {
+            if (property.warning != null) {
+                logger.log(Level.INFO, property.warning);
+                continue;
+            }
+            Object value = property.accessor.get(bean);
+            if (jsonPropertyFilter != null && jsonPropertyFilter.apply(bean, property.name, value)) {
+                continue;
+            }
+            first &= !writeProperty(property, value, first);
+        }
+        for (BeanPlan.Property property : plan.fields) {
+            Object value;
+            try {
+                value = property.accessor.get(bean);
+            } catch (Exception e) {
+                // as when building the tree, public fields are read on a best effort basis
+                logger.log(Level.FINEST, "Couldn't read public fields.", e);
+                break;
+            }
+            if (jsonPropertyFilter != null && jsonPropertyFilter.apply(bean, property.name, value)) {
+                continue;
+            }
+            first &= !writeProperty(property, value, first);
+        }
+        writer.write('}');
+    }
+
+    /**
+     * Writes a bean property or public field, through its JsonValueProcessor
+     * if it has one.
+     */
+    private boolean writeProperty(BeanPlan.Property property, Object value, boolean first) throws IOException {
+        if (property.processor != null) {
+            value = verify(property.processor.processObjectValue(property.name, value, jsonConfig));
+            return writeMember(property.key, value, property.type, true, first);
+        }
+        return writeMember(property.key, value, property.type, false, first);
+    }
+
+    /**
+     * Writes the elements of a Collection or an object array.
+     */
+    private void writeElements(Iterator<?> elements) throws IOException {
+        writer.write('[');
+        boolean first = true;
+        while (elements.hasNext()) {
+            Object value = elements.next();
+            if (value != null) {
+                JsonValueProcessor jsonValueProcessor = jsonConfig.findJsonValueProcessor(value.getClass());
+                if (jsonValueProcessor != null) {
+                    value = verify(jsonValueProcessor.processArrayValue(value, jsonConfig));
+                }
+            }
+            value = prepare(value, true);
+            if (!first) {
+                writer.write(',');
+            }
+            writeValue(value);
+            first = false;
+        }
+        writer.write(']');
+    }
+
+    private void writeMap(Map<?, ?> map) throws IOException {
+        if (jsonConfig.isAllowNonStringKeys()) {
+            // "1" and 1 would be the same key
+            AbstractJSON.removeInstance(map);
+            try {
+                JSONObject.fromObject(map, jsonConfig).write(writer);
+            } finally {
+                AbstractJSON.addInstance(map);
+            }
+            return;
+        }
+        Collection<String> exclusions = jsonConfig.getMergedExcludes();
+        PropertyFilter jsonPropertyFilter = jsonConfig.getJsonPropertyFilter();
+        boolean first = true;
+        writer.write('{');
+        for (Entry<?, ?> entry : map.entrySet()) {
+            Object k = entry.getKey();
+            if (k == null) {
+                throw new JSONException("JSON keys cannot be null.");
+            }
+            if (!(k instanceof String)) {
+                throw new ClassCastException("JSON keys must be strings.");
+            }
+            String key = (String) k;
+            if ("null".equals(key)) {
+                throw new NullPointerException("JSON keys must not be null nor the 'null' string.");
+            }
+            if (exclusions.contains(key)) {
+                continue;
+            }
+            Object value = entry.getValue();
+            if (jsonPropertyFilter != null && jsonPropertyFilter.apply(map, key, value)) {
+                continue;
+            }
+            if (value == null) {
+                first &= !writeMember(key, JSONNull.getInstance(), JSONNull.class, true, first);
+                continue;
+            }
+            boolean bypass = false;
+            JsonValueProcessor jsonValueProcessor = jsonConfig.findJsonValueProcessor(value.getClass(), key);
+            if (jsonValueProcessor != null) {
+                value = verify(jsonValueProcessor.processObjectValue(key, value, jsonConfig));
+                bypass = true;
+            }
+            first &= !writeMember(key, value, value.getClass(), bypass, first);
+        }
+        writer.write('}');
+    }
+
+    /**
+     * Writes a key and its value, the way JSONObject.setValue() stores them.
+     *
+     * @return false if the CycleDetectionStrategy asked to leave the key out
+     */
+    private boolean writeMember(String key, Object value, Class<?> type, boolean bypass, boolean first)
+            throws IOException {
+        if (key == null) {
+            throw new JSONException("Null key.");
+        }
+        if (value == null) {
+            value = verify(jsonConfig.findDefaultValueProcessor(type).getDefaultValue(type));
+        }
+        if (!bypass && !String.class.isAssignableFrom(type)) {
+            if (value != null) {
+                JsonValueProcessor processor = jsonConfig.findJsonValueProcessor(value.getClass(), key);
+                if (processor != null) {
+                    value = verify(processor.processObjectValue(null, value, jsonConfig));
+                }
+            }
+            value = prepare(value, false);
+            if (value == CycleDetectionStrategy.IGNORE_PROPERTY_OBJ
+                    || value == CycleDetectionStrategy.IGNORE_PROPERTY_ARR) {
+                return false;
+            }
+        }
+        if (!first) {
+            writer.write(',');
+        }
+        JSONUtils.quote(key, writer);
+        writer.write(':');
+        writeValue(value);
+        return true;
+    }
+
+    /**
+     * Writes a value returned by prepare(), or stored as it is.
+     */
+    private void writeValue(Object value) throws IOException {
+        if (value == null
+                || value instanceof JSON
+                || value instanceof JSONString
+                || value instanceof String
+                || value instanceof Number
+                || value instanceof Boolean) {
+            JSONUtils.writeValue(value, writer);
+        } else {
+            writeWalkable(value);
+        }
+    }
+
+    private static Object verify(Object value) {
+        if (!JsonVerifier.isValidJsonValue(value)) {
+            throw new JSONException("Value is not a valid JSON value. " + value);
+        }
+        return value;
+    }
+}
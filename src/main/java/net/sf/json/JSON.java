@@ -16,8 +16,11 @@
 package net.sf.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 
 /**
  * Marker interface, identifies a valid JSON value.<br>
@@ -88,6 +91,80 @@ public interface JSON extends Serializable {
      */
     Writer write(Writer writer) throws IOException;
 
+    /**
+     * Write the contents as a prettyprinted JSON text to a writer, the text
+     * that toString(indentFactor) returns. The indentation is written as the
+     * text is, in a single pass.
+     * <p>
+     * Warning: This method assumes that the data structure is acyclical.
+     * <p>
+     * The default implementation writes what toString(indentFactor) returns,
+     * for implementations written before this method was added.
+     *
+     * @param indentFactor The number of spaces to add to each level of
+     *        indentation; 0 writes the compact form.
+     * @return The writer.
+     * @throws JSONException If the object contains an invalid number.
+     */
+    default Writer write(Writer writer, int indentFactor) throws IOException {
+        if (indentFactor == 0) {
+            return write(writer);
+        }
+        writer.write(toString(indentFactor));
+        return writer;
+    }
+
+    /**
+     * Write the contents as JSON text to a stream, encoded in UTF-8. For
+     * compactness, no whitespace is added. The text is encoded as it is
+     * written, through a buffer that is written to the stream before this
+     * method returns; the stream is neither flushed nor closed.
+     * <p>
+     * Warning: This method assumes that the data structure is acyclical.
+     *
+     * <p>
+     * The default implementation encodes what write(Writer) writes.
+     *
+     * @return The stream.
+     * @throws JSONException
+     */
+    default OutputStream write(OutputStream out) throws IOException {
+        Utf8Writer writer = new Utf8Writer(out);
+        write(writer);
+        writer.finish();
+        return out;
+    }
+
+    /**
+     * Write the contents as JSON text into a buffer, encoded in UTF-8, from
+     * its position. For compactness, no whitespace is added.
+     * <p>
+     * Warning: This method assumes that the data structure is acyclical.
+     *
+     * <p>
+     * The default implementation encodes what write(Writer) writes.
+     *
+     * @return The buffer, its position moved past the text.
+     * @throws BufferOverflowException if the text does not fit between the
+     *         position and the limit of the buffer, whose position is then
+     *         left unchanged
+     * @throws JSONException
+     */
+    default ByteBuffer writeTo(ByteBuffer buffer) {
+        int position = buffer.position();
+        Utf8Writer writer = new Utf8Writer(buffer);
+        try {
+            write(writer);
+            writer.finish();
+        } catch (BufferOverflowException boe) {
+            buffer.position(position);
+            throw boe;
+        } catch (IOException ioe) {
+            throw new JSONException(ioe);
+        }
+        return buffer;
+    }
+
     /**
      * Writes the canonicalized form of this JSON object.
      */
@@ -18,12 +18,14 @@ package net.sf.json;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.beans.PropertyDescriptor;
 import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.ConcurrentModificationException;
@@ -40,6 +42,7 @@ import net.sf.json.processors.JsonValueProcessor;
 import net.sf.json.processors.JsonVerifier;
 import net.sf.json.util.JSONTokener;
 import net.sf.json.util.JSONUtils;
+import net.sf.json.util.StringBuilderWriter;
 
 /**
  * A JSONArray is an ordered sequence of values. Its external text form is a
@@ -176,6 +179,33 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
         }
     }
 
+    /**
+     * Creates a JSONArray from an UTF-8 encoded file.<br>
+     * The file is memory-mapped and parsed straight from the mapped bytes,
+     * without reading it into a String.
+     *
+     * @param path the file to parse
+     * @throws JSONException if the file can not be read or does not contain a
+     *         valid JSONArray text
+     */
+    public static JSONArray fromFile(Path path) {
+        return fromFile(path, new JsonConfig());
+    }
+
+    /**
+     * Creates a JSONArray from an UTF-8 encoded file.<br>
+     * The file is memory-mapped and parsed straight from the mapped bytes,
+     * without reading it into a String.
+     *
+     * @param path the file to parse
+     * @param jsonConfig additional configuration
+     * @throws JSONException if the file can not be read or does not contain a
+     *         valid JSONArray text
+     */
+    public static JSONArray fromFile(Path path, JsonConfig jsonConfig) {
+        return JSONSerializer.parseFile(path, tokener -> _fromJSONTokener(tokener, jsonConfig));
+    }
+
     /**
      * Get the collection type from a getter or setter, or null if no type was
      * found.
@@ -272,9 +302,15 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
      * Creates a java array from a JSONArray.<br>
      */
     public static Object toArray(JSONArray jsonArray, JsonConfig jsonConfig) {
-        Class objectClass = jsonConfig.getRootClass();
-        Map classMap = jsonConfig.getClassMap();
+        return toArray(jsonArray, jsonConfig.getRootClass(), jsonConfig.getClassMap(), jsonConfig);
+    }
 
+    /**
+     * Creates a java array of objectClass from a JSONArray, using classMap in
+     * place of the root class and class map of jsonConfig, so that nested
+     * arrays are converted without copying the configuration.
+     */
+    static Object toArray(JSONArray jsonArray, Class objectClass, Map<String, Class> classMap, JsonConfig jsonConfig) {
         if (jsonArray.size() == 0) {
             return Array.newInstance(objectClass == null ? Object.class : objectClass, 0);
         }
@@ -310,10 +346,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
                     }
                 } else {
                     if (objectClass != null) {
-                        JsonConfig jsc = jsonConfig.copy();
-                        jsc.setRootClass(objectClass);
-                        jsc.setClassMap(classMap);
-                        Array.set(array, i, JSONObject.toBean((JSONObject) value, jsc));
+                        Array.set(array, i, JSONObject.toBean((JSONObject) value, objectClass, classMap, jsonConfig));
                     } else {
                         Array.set(array, i, JSONObject.toBean((JSONObject) value));
                     }
@@ -388,8 +421,23 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
      * <p>Contributed by [Matt Small @ WaveMaker].
      */
     public static Collection toCollection(JSONArray jsonArray, JsonConfig jsonConfig) {
+        return toCollection(
+                jsonArray,
+                jsonConfig.getRootClass(),
+                jsonConfig.getClassMap(),
+                jsonConfig.getCollectionType(),
+                jsonConfig);
+    }
+
+    /**
+     * Returns a collectionType of objectClass elements from a JSONArray, using
+     * classMap in place of the root class, class map and collection type of
+     * jsonConfig, so that nested collections are converted without copying the
+     * configuration.
+     */
+    static Collection toCollection(JSONArray jsonArray, Class objectClass, Map<String, Class> classMap,
+            Class collectionType, JsonConfig jsonConfig) {
         Collection collection = null;
-        Class collectionType = jsonConfig.getCollectionType();
 
         if (collectionType.isInterface()) {
             if (collectionType.equals(List.class)) {
@@ -407,16 +455,13 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
             }
         }
 
-        Class objectClass = jsonConfig.getRootClass();
-        Map classMap = jsonConfig.getClassMap();
-
         for (Object value : jsonArray) {
             if (JSONUtils.isNull(value)) {
                 collection.add(null);
             } else {
                 Class type = value.getClass();
                 if (JSONArray.class.isAssignableFrom(value.getClass())) {
-                    collection.add(toCollection((JSONArray) value, jsonConfig));
+                    collection.add(toCollection((JSONArray) value, objectClass, classMap, collectionType, jsonConfig));
                 } else if (String.class.isAssignableFrom(type)
                         || Boolean.class.isAssignableFrom(type)
                         || JSONUtils.isNumber(type)
@@ -428,10 +473,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
                     collection.add(value);
                 } else {
                     if (objectClass != null) {
-                        JsonConfig jsc = jsonConfig.copy();
-                        jsc.setRootClass(objectClass);
-                        jsc.setClassMap(classMap);
-                        collection.add(JSONObject.toBean((JSONObject) value, jsc));
+                        collection.add(JSONObject.toBean((JSONObject) value, objectClass, classMap, jsonConfig));
                     } else {
                         collection.add(JSONObject.toBean((JSONObject) value));
                     }
@@ -500,7 +542,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
         }
 
         Class objectClass = jsonConfig.getRootClass();
-        Map classMap = jsonConfig.getClassMap();
+        Map<String, Class> classMap = jsonConfig.getClassMap();
 
         List list = new ArrayList();
         for (Object value : jsonArray) {
@@ -520,10 +562,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
                     list.add(value);
                 } else {
                     if (objectClass != null) {
-                        JsonConfig jsc = jsonConfig.copy();
-                        jsc.setRootClass(objectClass);
-                        jsc.setClassMap(classMap);
-                        list.add(JSONObject.toBean((JSONObject) value, jsc));
+                        list.add(JSONObject.toBean((JSONObject) value, objectClass, classMap, jsonConfig));
                     } else {
                         list.add(JSONObject.toBean((JSONObject) value));
                     }
@@ -994,59 +1033,15 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
     }
 
     private static JSONArray _fromJSONString(JSONString string, JsonConfig jsonConfig) {
-        return _fromJSONTokener(new JSONTokener(string.toJSONString()), jsonConfig);
+        return _fromJSONTokener(new JSONTokener(string.toJSONString(), jsonConfig), jsonConfig);
     }
 
     private static JSONArray _fromJSONTokener(JSONTokener tokener, JsonConfig jsonConfig) {
-
-        JSONArray jsonArray = new JSONArray();
-        int index = 0;
-
-        try {
-            if (tokener.nextClean() != '[') {
-                throw tokener.syntaxError("A JSONArray text must start with '['");
-            }
-            fireArrayStartEvent(jsonConfig);
-            if (tokener.nextClean() == ']') {
-                fireArrayEndEvent(jsonConfig);
-                return jsonArray;
-            }
-            tokener.back();
-            for (; ; ) {
-                if (tokener.nextClean() == ',') {
-                    tokener.back();
-                    jsonArray.elements.add(JSONNull.getInstance());
-                    fireElementAddedEvent(index, jsonArray.get(index++), jsonConfig);
-                } else {
-                    tokener.back();
-                    Object v = tokener.nextValue(jsonConfig);
-                    jsonArray.addValue(v, jsonConfig);
-                    fireElementAddedEvent(index, jsonArray.get(index++), jsonConfig);
-                }
-                switch (tokener.nextClean()) {
-                    case ';':
-                    case ',':
-                        if (tokener.nextClean() == ']') {
-                            fireArrayEndEvent(jsonConfig);
-                            return jsonArray;
-                        }
-                        tokener.back();
-                        break;
-                    case ']':
-                        fireArrayEndEvent(jsonConfig);
-                        return jsonArray;
-                    default:
-                        throw tokener.syntaxError("Expected a ',' or ']'");
-                }
-            }
-        } catch (JSONException jsone) {
-            fireErrorEvent(jsone, jsonConfig);
-            throw jsone;
-        }
+        return JSONTreeParser.parseArray(tokener, jsonConfig);
     }
 
     private static JSONArray _fromString(String string, JsonConfig jsonConfig) {
-        return _fromJSONTokener(new JSONTokener(string), jsonConfig);
+        return JSONTreeParser.parseArray(string, jsonConfig);
     }
 
     private static void processArrayDimensions(JSONArray jsonArray, List dims, int index) {
@@ -1077,6 +1072,11 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
      */
     private boolean expandElements;
 
+    /**
+     * Whether some elements may still be LazyJSON ranges of the source.
+     */
+    private boolean lazyElements;
+
     /**
      * Construct an empty JSONArray.
      */
@@ -1162,6 +1162,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
     }
 
     public boolean contains(Object o, JsonConfig jsonConfig) {
+        materializeAll();
         return elements.contains(processValue(o, jsonConfig));
     }
 
@@ -1171,6 +1172,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
     }
 
     public boolean containsAll(Collection collection, JsonConfig jsonConfig) {
+        materializeAll();
         return elements.containsAll(fromObject(collection, jsonConfig));
     }
 
@@ -1192,6 +1194,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
      * @return this.
      */
     public JSONArray discard(Object o) {
+        materializeAll();
         elements.remove(o);
         return this;
     }
@@ -1723,7 +1726,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
          * Object o = opt( index ); if( o == null ){ throw new JSONException(
          * "JSONArray[" + index + "] not found." ); } return o;
          */
-        return this.elements.get(index);
+        return materialize(index);
     }
 
     /**
@@ -1853,6 +1856,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
     public int hashCode() {
         int hashcode = 29;
 
+        materializeAll();
         for (Object element : elements) {
             hashcode += JSONUtils.hashCode(element);
         }
@@ -1861,6 +1865,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
 
     @Override
     public int indexOf(Object o) {
+        materializeAll();
         return elements.indexOf(o);
     }
 
@@ -1909,21 +1914,39 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
      * @throws JSONException If the array contains an invalid number.
      */
     public String join(String separator, boolean stripQuotes) {
-        int len = size();
-        StringBuilder sb = new StringBuilder();
+        StringBuilderWriter writer = new StringBuilderWriter();
+        try {
+            join(separator, stripQuotes, writer);
+        } catch (IOException ioe) {
+            throw new JSONException(ioe);
+        }
+        return writer.toString();
+    }
 
+    /**
+     * Writes the elements of this JSONArray, with the <code>separator</code>
+     * string between each element, straight to a writer.
+     */
+    private void join(String separator, boolean stripQuotes, Writer writer) throws IOException {
+        int len = size();
         for (int i = 0; i < len; i += 1) {
             if (i > 0) {
-                sb.append(separator);
+                writer.write(separator);
+            }
+            Object value = this.elements.get(i);
+            if (stripQuotes) {
+                writer.write(JSONUtils.stripQuotes(JSONUtils.valueToString(value)));
+            } else if (value instanceof LazyJSON) {
+                ((LazyJSON) value).write(writer);
+            } else {
+                JSONUtils.writeValue(value, writer);
             }
-            String value = JSONUtils.valueToString(this.elements.get(i));
-            sb.append(stripQuotes ? JSONUtils.stripQuotes(value) : value);
         }
-        return sb.toString();
     }
 
     @Override
     public int lastIndexOf(Object o) {
+        materializeAll();
         return elements.lastIndexOf(o);
     }
 
@@ -1948,7 +1971,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
      * @return An object value, or null if there is no object at that index.
      */
     public Object opt(int index) {
-        return (index < 0 || index >= size()) ? null : this.elements.get(index);
+        return (index < 0 || index >= size()) ? null : materialize(index);
     }
 
     /**
@@ -2119,11 +2142,13 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
 
     @Override
     public Object remove(int index) {
-        return elements.remove(index);
+        Object value = elements.remove(index);
+        return value instanceof LazyJSON ? ((LazyJSON) value).materialize() : value;
     }
 
     @Override
     public boolean remove(Object o) {
+        materializeAll();
         return elements.remove(o);
     }
 
@@ -2133,6 +2158,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
     }
 
     public boolean removeAll(Collection collection, JsonConfig jsonConfig) {
+        materializeAll();
         return elements.removeAll(fromObject(collection, jsonConfig));
     }
 
@@ -2142,6 +2168,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
     }
 
     public boolean retainAll(Collection collection, JsonConfig jsonConfig) {
+        materializeAll();
         return elements.retainAll(fromObject(collection, jsonConfig));
     }
 
@@ -2172,6 +2199,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
 
     @Override
     public List subList(int fromIndex, int toIndex) {
+        materializeAll();
         return elements.subList(fromIndex, toIndex);
     }
 
@@ -2180,11 +2208,13 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
      */
     @Override
     public Object[] toArray() {
+        materializeAll();
         return this.elements.toArray();
     }
 
     @Override
     public Object[] toArray(Object[] array) {
+        materializeAll();
         return elements.toArray(array);
     }
 
@@ -2223,7 +2253,7 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
     @Override
     public String toString() {
         try {
-            return '[' + join(",") + ']';
+            return write(new StringBuilderWriter()).toString();
         } catch (Exception e) {
             return null;
         }
@@ -2262,39 +2292,46 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
      */
     @Override
     public String toString(int indentFactor, int indent) {
-        int len = size();
-        if (len == 0) {
+        if (size() == 0) {
             return "[]";
         }
         if (indentFactor == 0) {
             return this.toString();
         }
-        int i;
-        StringBuilder sb = new StringBuilder("[");
+        return toPrettyString(indentFactor, indent);
+    }
+
+    @Override
+    void write(Writer writer, int indentFactor, int indent) throws IOException {
+        int len = size();
+        if (len == 0) {
+            writer.write("[]");
+            return;
+        }
+        if (indentFactor == 0) {
+            write(writer);
+            return;
+        }
+        materializeAll();
         if (len == 1) {
-            sb.append(JSONUtils.valueToString(this.elements.get(0), indentFactor, indent));
-        } else {
-            int newindent = indent + indentFactor;
-            sb.append('\n');
-            for (i = 0; i < len; i += 1) {
-                if (i > 0) {
-                    sb.append(",\n");
-                }
-                for (int j = 0; j < newindent; j += 1) {
-                    sb.append(' ');
-                }
-                sb.append(JSONUtils.valueToString(this.elements.get(i), indentFactor, newindent));
-            }
-            sb.append('\n');
-            for (i = 0; i < indent; i += 1) {
-                sb.append(' ');
-            }
-            for (i = 0; i < indent; i += 1) {
-                sb.insert(0, ' ');
+            writer.write('[');
+            writeValue(this.elements.get(0), writer, indentFactor, indent);
+            writer.write(']');
+            return;
+        }
+        int newindent = indent + indentFactor;
+        writeIndent(writer, indent);
+        writer.write("[\n");
+        for (int i = 0; i < len; i += 1) {
+            if (i > 0) {
+                writer.write(",\n");
             }
+            writeIndent(writer, newindent);
+            writeValue(this.elements.get(i), writer, indentFactor, newindent);
         }
-        sb.append(']');
-        return sb.toString();
+        writer.write('\n');
+        writeIndent(writer, indent);
+        writer.write(']');
     }
 
     @Override
@@ -2363,10 +2400,68 @@ public final class JSONArray extends AbstractJSON implements JSON, List<Object>,
      *        JSONString or the JSONNull object.
      * @return this.
      */
-    private JSONArray addValue(Object value, JsonConfig jsonConfig) {
+    JSONArray addValue(Object value, JsonConfig jsonConfig) {
         return _addValue(processValue(value, jsonConfig), jsonConfig);
     }
 
+    /**
+     * Appends a value read from JSON text as is: JSONNull for an empty element
+     * such as the second one in [1,,3], or a JSONObject or JSONArray that was
+     * just built from the same text and needs no copy.
+     */
+    void addParsed(Object value) {
+        elements.add(value);
+    }
+
+    /**
+     * Appends the elements of an array that was parsed from a part of the same
+     * text, as they are.
+     */
+    void addAllParsed(JSONArray jsonArray) {
+        elements.addAll(jsonArray.elements);
+        lazyElements |= jsonArray.lazyElements;
+    }
+
+    /**
+     * Appends a nested object or array that is left unparsed until it is read.
+     */
+    void addLazy(LazyJSON value) {
+        elements.add(value);
+        lazyElements = true;
+    }
+
+    /**
+     * Returns the element at index, parsing it first if it is a LazyJSON.
+     */
+    private Object materialize(int index) {
+        Object value = elements.get(index);
+        if (value instanceof LazyJSON) {
+            value = ((LazyJSON) value).materialize();
+            elements.set(index, value);
+        }
+        return value;
+    }
+
+    /**
+     * Parses every element that is still a LazyJSON.
+     */
+    private void materializeAll() {
+        if (lazyElements) {
+            for (ListIterator<Object> i = elements.listIterator(); i.hasNext(); ) {
+                Object value = i.next();
+                if (value instanceof LazyJSON) {
+                    i.set(((LazyJSON) value).materialize());
+                }
+            }
+            lazyElements = false;
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        materializeAll();
+        out.defaultWriteObject();
+    }
+
     private Object processValue(Object value, JsonConfig jsonConfig) {
         if (value != null) {
             JsonValueProcessor jsonValueProcessor = jsonConfig.findJsonValueProcessor(value.getClass());
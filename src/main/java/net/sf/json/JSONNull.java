@@ -18,7 +18,9 @@ package net.sf.json;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.ByteBuffer;
 
 /**
  * JSONNull is equivalent to the value that JavaScript calls null, whilst Java's
@@ -27,6 +29,8 @@ import java.io.Writer;
  * @author JSON.org
  */
 public final class JSONNull implements JSON {
+    private static final byte[] NULL_BYTES = {'n', 'u', 'l', 'l'};
+
     /** singleton instance */
     private static JSONNull instance;
 
@@ -110,6 +114,22 @@ public final class JSONNull implements JSON {
         return writer;
     }
 
+    @Override
+    public Writer write(Writer writer, int indentFactor) throws IOException {
+        return write(writer);
+    }
+
+    @Override
+    public OutputStream write(OutputStream out) throws IOException {
+        out.write(NULL_BYTES);
+        return out;
+    }
+
+    @Override
+    public ByteBuffer writeTo(ByteBuffer buffer) {
+        return buffer.put(NULL_BYTES);
+    }
+
     @Override
     public Writer writeCanonical(Writer w) throws IOException {
         return write(w);
@@ -15,8 +15,8 @@
  */
 package net.sf.json;
 
-import java.beans.PropertyDescriptor;
 import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
@@ -24,6 +24,7 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -44,16 +45,16 @@ import net.sf.ezmorph.object.IdentityObjectMorpher;
 import net.sf.json.processors.JsonBeanProcessor;
 import net.sf.json.processors.JsonValueProcessor;
 import net.sf.json.processors.JsonVerifier;
-import net.sf.json.processors.PropertyNameProcessor;
 import net.sf.json.util.CycleDetectionStrategy;
 import net.sf.json.util.EnumMorpher;
 import net.sf.json.util.JSONTokener;
 import net.sf.json.util.JSONUtils;
+import net.sf.json.util.PropertyAccessor;
 import net.sf.json.util.PropertyFilter;
 import net.sf.json.util.PropertySetStrategy;
+import net.sf.json.util.StringBuilderWriter;
 import org.apache.commons.beanutils.DynaBean;
 import org.apache.commons.beanutils.DynaProperty;
-import org.apache.commons.beanutils.PropertyUtils;
 
 /**
  * A JSONObject is an unordered collection of name/value pairs. Its external
@@ -164,6 +165,33 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
         }
     }
 
+    /**
+     * Creates a JSONObject from an UTF-8 encoded file.<br>
+     * The file is memory-mapped and parsed straight from the mapped bytes,
+     * without reading it into a String.
+     *
+     * @param path the file to parse
+     * @throws JSONException if the file can not be read or does not contain a
+     *         valid JSONObject text
+     */
+    public static JSONObject fromFile(Path path) {
+        return fromFile(path, new JsonConfig());
+    }
+
+    /**
+     * Creates a JSONObject from an UTF-8 encoded file.<br>
+     * The file is memory-mapped and parsed straight from the mapped bytes,
+     * without reading it into a String.
+     *
+     * @param path the file to parse
+     * @param jsonConfig additional configuration
+     * @throws JSONException if the file can not be read or does not contain a
+     *         valid JSONObject text
+     */
+    public static JSONObject fromFile(Path path, JsonConfig jsonConfig) {
+        return JSONSerializer.parseFile(path, tokener -> _fromJSONTokener(tokener, jsonConfig));
+    }
+
     /**
      * Creates a JSONDynaBean from a JSONObject.
      */
@@ -249,7 +277,7 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
         return toBean(jsonObject, jsonConfig);
     }
 
-    private interface Property {
+    interface Property {
         boolean isWritable();
 
         Class getPropertyType();
@@ -289,39 +317,39 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
     }
 
     private static class MethodProperty implements Property {
-        private final PropertyDescriptor pd;
+        private final PropertyAccessor accessor;
 
-        private MethodProperty(PropertyDescriptor pd) {
-            this.pd = pd;
+        private MethodProperty(PropertyAccessor accessor) {
+            this.accessor = accessor;
         }
 
         @Override
         public boolean isWritable() {
-            return pd.getWriteMethod() != null;
+            return accessor.isWritable();
         }
 
         @Override
         public String name() {
-            return pd.getName();
+            return accessor.getName();
         }
 
         @Override
         public Class getPropertyType() {
-            return pd.getPropertyType();
+            return accessor.getType();
         }
 
         @Override
         public void set(Object bean, Object value, JsonConfig jsonConfig)
                 throws InvocationTargetException, NoSuchMethodException, IllegalAccessException {
-            PropertyUtils.setSimpleProperty(bean, pd.getName(), value);
+            accessor.set(bean, value);
         }
     }
 
     private static class FieldProperty implements Property {
-        private final Field f;
+        private final PropertyAccessor accessor;
 
-        private FieldProperty(Field f) {
-            this.f = f;
+        private FieldProperty(PropertyAccessor accessor) {
+            this.accessor = accessor;
         }
 
         @Override
@@ -331,18 +359,18 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
 
         @Override
         public Class getPropertyType() {
-            return f.getType();
+            return accessor.getType();
         }
 
         @Override
         public String name() {
-            return f.getName();
+            return accessor.getName();
         }
 
         @Override
         public void set(Object bean, Object value, JsonConfig jsonConfig)
                 throws InvocationTargetException, NoSuchMethodException, IllegalAccessException {
-            f.set(bean, value);
+            accessor.set(bean, value);
         }
     }
 
@@ -381,14 +409,30 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
     }
 
     /**
-     * Creates a bean from a JSONObject, with the specific configuration.
+     * Creates a bean from a JSONObject, with the specific configuration.<br>
+     * Nested beans, arrays and collections are converted with the same
+     * jsonConfig, so strategies, filters and processors called for them see
+     * the root class and class map of this call. Their own target class is
+     * passed to NewBeanInstanceStrategy, and the bean being populated to
+     * PropertySetStrategy and the java property filter. Earlier versions
+     * passed them a copy of the configuration whose root class and class map
+     * were those of the nested target; code that relied on that should use
+     * the class of the bean it is given instead.
      */
     public static Object toBean(JSONObject jsonObject, JsonConfig jsonConfig) {
+        return toBean(jsonObject, jsonConfig.getRootClass(), jsonConfig.getClassMap(), jsonConfig);
+    }
+
+    /**
+     * Creates a bean of beanClass from a JSONObject, using classMap in place of
+     * the root class and class map of jsonConfig, so that nested beans are
+     * created without copying the configuration.
+     */
+    static Object toBean(JSONObject jsonObject, Class beanClass, Map<String, Class> classMap, JsonConfig jsonConfig) {
         if (jsonObject == null || jsonObject.isNullObject()) {
             return null;
         }
 
-        Class beanClass = jsonConfig.getRootClass();
         if (beanClass == null) {
             return toBean(jsonObject);
         }
@@ -410,52 +454,61 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
             throw new JSONException(e);
         }
 
-        return toBean(jsonObject, bean, jsonConfig);
+        return toBean(jsonObject, bean, classMap, jsonConfig);
     }
 
-    private static Property getProperty(Class beanClass, Object bean, String key, JsonConfig jsonConfig)
-            throws IllegalAccessException, InvocationTargetException, NoSuchMethodException {
+    /**
+     * Finds the field, property or Map entry a key of a JSONObject is set
+     * through, decorated with the PropertySetStrategy of jsonConfig if there
+     * is one.
+     */
+    static Property getProperty(Class beanClass, String key, JsonConfig jsonConfig) {
         key = jsonConfig.isSkipJavaIdentifierTransformationInMapKeys()
                 ? key
                 : JSONUtils.convertToJavaIdentifier(key, jsonConfig);
 
-        try {
-            if (!jsonConfig.isIgnorePublicFields()) {
-                return new FieldProperty(bean.getClass().getField(key));
+        Property property = null;
+        if (!jsonConfig.isIgnorePublicFields()) {
+            PropertyAccessor field = PropertyAccessor.forField(beanClass, key);
+            if (field != null) {
+                property = new FieldProperty(field);
             }
-        } catch (NoSuchFieldException e) {
-            // fall through
         }
-
-        PropertyDescriptor pd = PropertyUtils.getPropertyDescriptor(bean, key);
-        if (pd != null) {
-            return new MethodProperty(pd);
+        if (property == null) {
+            PropertyAccessor accessor = PropertyAccessor.forProperty(beanClass, key);
+            if (accessor != null) {
+                property = new MethodProperty(accessor);
+            } else if (Map.class.isAssignableFrom(beanClass)) {
+                property = new PropertyOnMap(key);
+            }
         }
-
-        if (Map.class.isAssignableFrom(beanClass)) {
-            return new PropertyOnMap(key);
+        if (property != null && jsonConfig.getPropertySetStrategy() != null) {
+            property = new PropertySetterStrategyDecorator(property, jsonConfig.getPropertySetStrategy());
         }
-
-        return null;
+        return property;
     }
 
     /**
      * Creates a bean from a JSONObject, with the specific configuration.
      */
     public static Object toBean(JSONObject jsonObject, Object bean, JsonConfig jsonConfig) {
+        return toBean(jsonObject, bean, jsonConfig.getClassMap(), jsonConfig);
+    }
+
+    private static Object toBean(
+            JSONObject jsonObject, Object bean, Map<String, Class> classMap, JsonConfig jsonConfig) {
         if (jsonObject == null || jsonObject.isNullObject() || bean == null) {
             return bean;
         }
 
-        Class rootClass = bean.getClass();
-        Class beanClass = rootClass;
-        Map classMap = jsonConfig.getClassMap();
+        Class beanClass = bean.getClass();
         if (classMap == null) {
-            classMap = Collections.EMPTY_MAP;
+            classMap = Collections.emptyMap();
         }
 
         Map props = JSONUtils.getProperties(jsonObject);
         PropertyFilter javaPropertyFilter = jsonConfig.getJavaPropertyFilter();
+        BeanBinder binder = jsonConfig.getBeanBinder(beanClass);
         for (Object o : jsonObject.names(jsonConfig)) {
             String name = (String) o;
             Class type = (Class) props.get(name);
@@ -463,16 +516,10 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
             if (javaPropertyFilter != null && javaPropertyFilter.apply(bean, name, value)) {
                 continue;
             }
-            String key =
-                    Map.class.isAssignableFrom(beanClass) && jsonConfig.isSkipJavaIdentifierTransformationInMapKeys()
-                            ? name
-                            : JSONUtils.convertToJavaIdentifier(name, jsonConfig);
-            PropertyNameProcessor propertyNameProcessor = jsonConfig.findJavaPropertyNameProcessor(beanClass);
-            if (propertyNameProcessor != null) {
-                key = propertyNameProcessor.processPropertyName(beanClass, key);
-            }
+            BeanBinder.Binding binding = binder.bind(name, jsonConfig);
+            String key = binding.key;
             try {
-                Property pd = getProperty(rootClass, bean, key, jsonConfig);
+                Property pd = binding.property;
                 if (pd != null) {
                     if (!pd.isWritable()) {
                         logger.log(
@@ -480,9 +527,6 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
                                 "Property '" + key + "' of " + bean.getClass() + " has no write method. SKIPPED.");
                         continue;
                     }
-                    if (jsonConfig.getPropertySetStrategy() != null) {
-                        pd = new PropertySetterStrategyDecorator(pd, jsonConfig.getPropertySetStrategy());
-                    }
 
                     Class targetType = pd.getPropertyType();
                     if (!JSONUtils.isNull(value)) {
@@ -529,19 +573,25 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
                             if (jsonConfig.isHandleJettisonSingleElementArray()) {
                                 JSONArray array = new JSONArray().element(value, jsonConfig);
                                 Class newTargetClass = resolveClass(classMap, key, name, type);
-                                JsonConfig jsc = jsonConfig.copy();
-                                jsc.setRootClass(newTargetClass);
-                                jsc.setClassMap(classMap);
                                 if (targetType.isArray()) {
-                                    pd.set(bean, JSONArray.toArray(array, jsc), jsonConfig);
+                                    pd.set(
+                                            bean,
+                                            JSONArray.toArray(array, newTargetClass, classMap, jsonConfig),
+                                            jsonConfig);
                                 } else if (JSONArray.class.isAssignableFrom(targetType)) {
                                     pd.set(bean, array, jsonConfig);
                                 } else if (List.class.isAssignableFrom(targetType)
                                         || Set.class.isAssignableFrom(targetType)) {
-                                    jsc.setCollectionType(targetType);
-                                    pd.set(bean, JSONArray.toCollection(array, jsc), jsonConfig);
+                                    pd.set(
+                                            bean,
+                                            JSONArray.toCollection(
+                                                    array, newTargetClass, classMap, targetType, jsonConfig),
+                                            jsonConfig);
                                 } else {
-                                    pd.set(bean, toBean((JSONObject) value, jsc), jsonConfig);
+                                    pd.set(
+                                            bean,
+                                            toBean((JSONObject) value, newTargetClass, classMap, jsonConfig),
+                                            jsonConfig);
                                 }
                             } else {
                                 if (targetType == Object.class || targetType.isInterface()) {
@@ -552,10 +602,7 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
                                             ? targetTypeCopy
                                             : targetType;
                                 }
-                                JsonConfig jsc = jsonConfig.copy();
-                                jsc.setRootClass(targetType);
-                                jsc.setClassMap(classMap);
-                                pd.set(bean, toBean((JSONObject) value, jsc), jsonConfig);
+                                pd.set(bean, toBean((JSONObject) value, targetType, classMap, jsonConfig), jsonConfig);
                             }
                         }
                     } else {
@@ -594,10 +641,11 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
                         } else {
                             if (jsonConfig.isHandleJettisonSingleElementArray()) {
                                 Class newTargetClass = resolveClass(classMap, key, name, type);
-                                JsonConfig jsc = jsonConfig.copy();
-                                jsc.setRootClass(newTargetClass);
-                                jsc.setClassMap(classMap);
-                                setProperty(bean, name, toBean((JSONObject) value, jsc), jsonConfig);
+                                setProperty(
+                                        bean,
+                                        name,
+                                        toBean((JSONObject) value, newTargetClass, classMap, jsonConfig),
+                                        jsonConfig);
                             } else {
                                 setProperty(bean, name, value, jsonConfig);
                             }
@@ -682,114 +730,33 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
         return jsonObject;
     }
 
-    private static JSONObject defaultBeanProcessing(Object bean, JsonConfig jsonConfig) {
+    static JSONObject defaultBeanProcessing(Object bean, JsonConfig jsonConfig) {
         Class beanClass = bean.getClass();
-        PropertyNameProcessor propertyNameProcessor = jsonConfig.findJsonPropertyNameProcessor(beanClass);
-        Collection exclusions = jsonConfig.getMergedExcludes(beanClass);
         JSONObject jsonObject = new JSONObject();
         try {
-            PropertyDescriptor[] pds = PropertyUtils.getPropertyDescriptors(bean);
+            BeanPlan plan = jsonConfig.getBeanPlan(beanClass);
             PropertyFilter jsonPropertyFilter = jsonConfig.getJsonPropertyFilter();
-            for (PropertyDescriptor pd : pds) {
-                boolean bypass = false;
-                String key = pd.getName();
-                if (exclusions.contains(key)) {
-                    continue;
-                }
-
-                if (jsonConfig.isIgnoreTransientFields() && isTransientField(key, beanClass, jsonConfig)) {
+            for (BeanPlan.Property property : plan.properties) {
+                if (property.warning != null) {
+                    fireWarnEvent(property.warning, jsonConfig);
+                    logger.log(Level.INFO, property.warning);
                     continue;
                 }
-
-                Class type = pd.getPropertyType();
-                try {
-                    pd.getReadMethod();
-                } catch (Exception e) {
-                    // bug 2565295
-                    String warning = "Property '" + key + "' of " + beanClass + " has no read method. SKIPPED";
-                    fireWarnEvent(warning, jsonConfig);
-                    logger.log(Level.INFO, warning);
+                Object value = property.accessor.get(bean);
+                if (jsonPropertyFilter != null && jsonPropertyFilter.apply(bean, property.name, value)) {
                     continue;
                 }
-                if (pd.getReadMethod() != null) {
-                    /*
-                    if( jsonConfig.isIgnoreJPATransient() ){
-                       try{
-                          Class transientClass = Class.forName( "javax.persistence.Transient" );
-                          if( pds[i].getReadMethod()
-                                .getAnnotation( transientClass ) != null ){
-                             continue;
-                          }
-                       }catch( ClassNotFoundException cnfe ){
-                          // ignore
-                       }
-                    }
-                    */
-                    if (isTransient(pd.getReadMethod(), jsonConfig)) {
-                        continue;
-                    }
-
-                    Object value = PropertyUtils.getProperty(bean, key);
-                    if (jsonPropertyFilter != null && jsonPropertyFilter.apply(bean, key, value)) {
-                        continue;
-                    }
-                    JsonValueProcessor jsonValueProcessor = jsonConfig.findJsonValueProcessor(beanClass, type, key);
-                    if (jsonValueProcessor != null) {
-                        value = jsonValueProcessor.processObjectValue(key, value, jsonConfig);
-                        bypass = true;
-                        if (!JsonVerifier.isValidJsonValue(value)) {
-                            throw new JSONException("Value is not a valid JSON value. " + value);
-                        }
-                    }
-                    if (propertyNameProcessor != null) {
-                        key = propertyNameProcessor.processPropertyName(beanClass, key);
-                    }
-                    setValue(jsonObject, key, value, type, jsonConfig, bypass);
-                } else {
-                    String warning = "Property '" + key + "' of " + beanClass + " has no read method. SKIPPED";
-                    fireWarnEvent(warning, jsonConfig);
-                    logger.log(Level.INFO, warning);
-                }
+                setBeanValue(jsonObject, property, value, jsonConfig);
             }
             // inspect public fields, this operation may fail under
             // a SecurityManager so we will eat all exceptions
             try {
-                if (!jsonConfig.isIgnorePublicFields()) {
-                    Field[] fields = beanClass.getFields();
-                    for (Field item : fields) {
-                        boolean bypass = false;
-                        Field field = item;
-                        String key = field.getName();
-                        if (exclusions.contains(key)) {
-                            continue;
-                        }
-
-                        if (Modifier.isStatic(field.getModifiers())) {
-                            continue;
-                        }
-
-                        if (jsonConfig.isIgnoreTransientFields() && isTransientField(field, jsonConfig)) {
-                            continue;
-                        }
-
-                        Class type = field.getType();
-                        Object value = field.get(bean);
-                        if (jsonPropertyFilter != null && jsonPropertyFilter.apply(bean, key, value)) {
-                            continue;
-                        }
-                        JsonValueProcessor jsonValueProcessor = jsonConfig.findJsonValueProcessor(beanClass, type, key);
-                        if (jsonValueProcessor != null) {
-                            value = jsonValueProcessor.processObjectValue(key, value, jsonConfig);
-                            bypass = true;
-                            if (!JsonVerifier.isValidJsonValue(value)) {
-                                throw new JSONException("Value is not a valid JSON value. " + value);
-                            }
-                        }
-                        if (propertyNameProcessor != null) {
-                            key = propertyNameProcessor.processPropertyName(beanClass, key);
-                        }
-                        setValue(jsonObject, key, value, type, jsonConfig, bypass);
+                for (BeanPlan.Property property : plan.fields) {
+                    Object value = property.accessor.get(bean);
+                    if (jsonPropertyFilter != null && jsonPropertyFilter.apply(bean, property.name, value)) {
+                        continue;
                     }
+                    setBeanValue(jsonObject, property, value, jsonConfig);
                 }
             } catch (Exception e) {
                 logger.log(Level.FINEST, "Couldn't read public fields.", e);
@@ -933,109 +900,11 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
     }
 
     private static JSONObject _fromJSONString(JSONString string, JsonConfig jsonConfig) {
-        return _fromJSONTokener(new JSONTokener(string.toJSONString()), jsonConfig);
+        return _fromJSONTokener(new JSONTokener(string.toJSONString(), jsonConfig), jsonConfig);
     }
 
     private static JSONObject _fromJSONTokener(JSONTokener tokener, JsonConfig jsonConfig) {
-
-        try {
-            char c;
-            String key;
-            Object value;
-
-            if (tokener.startsWith("null")) {
-                fireObjectStartEvent(jsonConfig);
-                fireObjectEndEvent(jsonConfig);
-                return new JSONObject(true);
-            }
-
-            if (tokener.nextClean() != '{') {
-                throw tokener.syntaxError("A JSONObject text must begin with '{'");
-            }
-            fireObjectStartEvent(jsonConfig);
-
-            Collection exclusions = jsonConfig.getMergedExcludes();
-            PropertyFilter jsonPropertyFilter = jsonConfig.getJsonPropertyFilter();
-            JSONObject jsonObject = new JSONObject();
-            for (; ; ) {
-                c = tokener.nextClean();
-                switch (c) {
-                    case 0:
-                        throw tokener.syntaxError("A JSONObject text must end with '}'");
-                    case '}':
-                        fireObjectEndEvent(jsonConfig);
-                        return jsonObject;
-                    default:
-                        tokener.back();
-                        key = tokener.nextValue(jsonConfig).toString();
-                }
-
-                /*
-                 * The key is followed by ':'. We will also tolerate '=' or '=>'.
-                 */
-
-                c = tokener.nextClean();
-                if (c == '=') {
-                    if (tokener.next() != '>') {
-                        tokener.back();
-                    }
-                } else if (c != ':') {
-                    throw tokener.syntaxError("Expected a ':' after a key");
-                }
-
-                Object v = tokener.nextValue(jsonConfig);
-                if (exclusions.contains(key)) {
-                    switch (tokener.nextClean()) {
-                        case ';':
-                        case ',':
-                            if (tokener.nextClean() == '}') {
-                                fireObjectEndEvent(jsonConfig);
-                                return jsonObject;
-                            }
-                            tokener.back();
-                            break;
-                        case '}':
-                            fireObjectEndEvent(jsonConfig);
-                            return jsonObject;
-                        default:
-                            throw tokener.syntaxError("Expected a ',' or '}'");
-                    }
-                    continue;
-                }
-                if (jsonPropertyFilter == null || !jsonPropertyFilter.apply(tokener, key, v)) {
-                    if (jsonObject.properties.containsKey(key)) {
-                        jsonObject.accumulate(key, v, jsonConfig);
-                        firePropertySetEvent(key, v, true, jsonConfig);
-                    } else {
-                        jsonObject.element(key, v, jsonConfig);
-                        firePropertySetEvent(key, v, false, jsonConfig);
-                    }
-                }
-
-                /*
-                 * Pairs are separated by ','. We will also tolerate ';'.
-                 */
-
-                switch (tokener.nextClean()) {
-                    case ';':
-                    case ',':
-                        if (tokener.nextClean() == '}') {
-                            fireObjectEndEvent(jsonConfig);
-                            return jsonObject;
-                        }
-                        tokener.back();
-                        break;
-                    case '}':
-                        fireObjectEndEvent(jsonConfig);
-                        return jsonObject;
-                    default:
-                        throw tokener.syntaxError("Expected a ',' or '}'");
-                }
-            }
-        } catch (JSONException jsone) {
-            fireErrorEvent(jsone, jsonConfig);
-            throw jsone;
-        }
+        return JSONTreeParser.parseObject(tokener, jsonConfig);
     }
 
     private static JSONObject _fromMap(Map map, JsonConfig jsonConfig) {
@@ -1128,20 +997,17 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
             fireObjectEndEvent(jsonConfig);
             return new JSONObject(true);
         }
-        return _fromJSONTokener(new JSONTokener(str), jsonConfig);
+        return JSONTreeParser.parseObject(str, jsonConfig);
     }
 
     private static Object convertPropertyValueToArray(
-            String key, Object value, Class targetType, JsonConfig jsonConfig, Map classMap) {
+            String key, Object value, Class targetType, JsonConfig jsonConfig, Map<String, Class> classMap) {
         Class innerType = JSONUtils.getInnerComponentType(targetType);
         Class targetInnerType = findTargetClass(key, classMap);
         if (innerType.equals(Object.class) && targetInnerType != null && !targetInnerType.equals(Object.class)) {
             innerType = targetInnerType;
         }
-        JsonConfig jsc = jsonConfig.copy();
-        jsc.setRootClass(innerType);
-        jsc.setClassMap(classMap);
-        Object array = JSONArray.toArray((JSONArray) value, jsc);
+        Object array = JSONArray.toArray((JSONArray) value, innerType, classMap, jsonConfig);
         if (innerType.isPrimitive()
                 || JSONUtils.isNumber(innerType)
                 || Boolean.class.isAssignableFrom(innerType)
@@ -1165,28 +1031,22 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
     }
 
     private static List convertPropertyValueToList(
-            String key, Object value, JsonConfig jsonConfig, String name, Map classMap) {
+            String key, Object value, JsonConfig jsonConfig, String name, Map<String, Class> classMap) {
         Class targetClass = findTargetClass(key, classMap);
         targetClass = targetClass == null ? findTargetClass(name, classMap) : targetClass;
-        JsonConfig jsc = jsonConfig.copy();
-        jsc.setRootClass(targetClass);
-        jsc.setClassMap(classMap);
-        List list = (List) JSONArray.toCollection((JSONArray) value, jsc);
+        List list = (List) JSONArray.toCollection(
+                (JSONArray) value, targetClass, classMap, jsonConfig.getCollectionType(), jsonConfig);
         return list;
     }
 
-    private static Collection convertPropertyValueToCollection(
-            String key, Object value, JsonConfig jsonConfig, String name, Map classMap, Class collectionType) {
+    private static Collection convertPropertyValueToCollection(String key, Object value, JsonConfig jsonConfig,
+            String name, Map<String, Class> classMap, Class collectionType) {
         Class targetClass = findTargetClass(key, classMap);
         targetClass = targetClass == null ? findTargetClass(name, classMap) : targetClass;
-        JsonConfig jsc = jsonConfig.copy();
-        jsc.setRootClass(targetClass);
-        jsc.setClassMap(classMap);
-        jsc.setCollectionType(collectionType);
-        return JSONArray.toCollection((JSONArray) value, jsc);
+        return JSONArray.toCollection((JSONArray) value, targetClass, classMap, collectionType, jsonConfig);
     }
 
-    private static Class resolveClass(Map classMap, String key, String name, Class type) {
+    private static Class resolveClass(Map<String, Class> classMap, String key, String name, Class type) {
         Class targetClass = findTargetClass(key, classMap);
         if (targetClass == null) {
             targetClass = findTargetClass(name, classMap);
@@ -1227,7 +1087,7 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
         return targetClass;
     }
 
-    private static boolean isTransientField(String name, Class beanClass, JsonConfig jsonConfig) {
+    static boolean isTransientField(String name, Class beanClass, JsonConfig jsonConfig) {
         try {
             return isTransientField(beanClass.getDeclaredField(name), jsonConfig);
         } catch (Exception e) {
@@ -1237,7 +1097,7 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
         return false;
     }
 
-    private static boolean isTransientField(Field field, JsonConfig jsonConfig) {
+    static boolean isTransientField(Field field, JsonConfig jsonConfig) {
         try {
             if ((field.getModifiers() & Modifier.TRANSIENT) == Modifier.TRANSIENT) {
                 return true;
@@ -1249,7 +1109,7 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
         return false;
     }
 
-    private static boolean isTransient(AnnotatedElement element, JsonConfig jsonConfig) {
+    static boolean isTransient(AnnotatedElement element, JsonConfig jsonConfig) {
         for (Iterator annotations = jsonConfig.getIgnoreFieldAnnotations().iterator(); annotations.hasNext(); ) {
             try {
                 String annotationClassName = (String) annotations.next();
@@ -1293,6 +1153,23 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
         propertySetStrategy.setProperty(bean, key, value, jsonConfig);
     }
 
+    /**
+     * Sets the value of a bean property or public field, through its
+     * JsonValueProcessor if it has one.
+     */
+    private static void setBeanValue(
+            JSONObject jsonObject, BeanPlan.Property property, Object value, JsonConfig jsonConfig) {
+        boolean bypass = false;
+        if (property.processor != null) {
+            value = property.processor.processObjectValue(property.name, value, jsonConfig);
+            bypass = true;
+            if (!JsonVerifier.isValidJsonValue(value)) {
+                throw new JSONException("Value is not a valid JSON value. " + value);
+            }
+        }
+        setValue(jsonObject, property.key, value, property.type, jsonConfig, bypass);
+    }
+
     private static void setValue(
             JSONObject jsonObject, String key, Object value, Class type, JsonConfig jsonConfig, boolean bypass) {
         boolean accumulated = false;
@@ -1332,13 +1209,18 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
 
     // ------------------------------------------------------
 
+    /**
+     * Whether some values may still be LazyJSON ranges of the source.
+     */
+    private boolean lazyValues;
+
     /** identifies this object as null */
     private boolean nullObject;
 
     /**
      * The Map where the JSONObject's properties are kept.
      */
-    private Map properties;
+    private Map<String, Object> properties;
 
     /**
      * Construct an empty JSONObject.
@@ -1517,6 +1399,7 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
         } catch (JSONException e) {
             return false;
         }
+        materializeAll();
         return properties.containsValue(value);
     }
 
@@ -1726,6 +1609,7 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
 
     @Override
     public Set entrySet() {
+        materializeAll();
         return Collections.unmodifiableSet(properties.entrySet());
     }
 
@@ -1756,6 +1640,8 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
             return false;
         }
 
+        materializeAll();
+        other.materializeAll();
         for (Object o : properties.keySet()) {
             String key = (String) o;
             if (!other.properties.containsKey(key)) {
@@ -1834,7 +1720,7 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
      */
     public Object get(String key) {
         verifyIsNull();
-        return this.properties.get(key);
+        return materialize(key, this.properties.get(key));
     }
 
     /**
@@ -1984,6 +1870,7 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
         if (isNullObject()) {
             return hashcode + JSONNull.getInstance().hashCode();
         }
+        materializeAll();
         for (Object o : properties.entrySet()) {
             Entry entry = (Entry) o;
             Object key = entry.getKey();
@@ -2068,7 +1955,7 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
      */
     public Object opt(String key) {
         verifyIsNull();
-        return key == null ? null : this.properties.get(key);
+        return key == null ? null : materialize(key, this.properties.get(key));
     }
 
     /**
@@ -2253,7 +2140,7 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
         if (key == null) {
             throw new IllegalArgumentException("key is null.");
         }
-        Object previous = properties.get(key);
+        Object previous = materialize(key, properties.get(key));
         element(String.valueOf(key), value);
         return previous;
     }
@@ -2283,7 +2170,8 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
 
     @Override
     public Object remove(Object key) {
-        return properties.remove(key);
+        Object value = properties.remove(key);
+        return value instanceof LazyJSON ? ((LazyJSON) value).materialize() : value;
     }
 
     /**
@@ -2295,7 +2183,8 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
      */
     public Object remove(String key) {
         verifyIsNull();
-        return this.properties.remove(key);
+        Object value = this.properties.remove(key);
+        return value instanceof LazyJSON ? ((LazyJSON) value).materialize() : value;
     }
 
     /**
@@ -2348,20 +2237,7 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
             return JSONNull.getInstance().toString();
         }
         try {
-            Iterator keys = keys();
-            StringBuilder sb = new StringBuilder("{");
-
-            while (keys.hasNext()) {
-                if (sb.length() > 1) {
-                    sb.append(',');
-                }
-                Object o = keys.next();
-                sb.append(JSONUtils.quote(o.toString()));
-                sb.append(':');
-                sb.append(JSONUtils.valueToString(this.properties.get(o)));
-            }
-            sb.append('}');
-            return sb.toString();
+            return write(new StringBuilderWriter()).toString();
         } catch (Exception e) {
             return null;
         }
@@ -2409,54 +2285,18 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
         if (isNullObject()) {
             return JSONNull.getInstance().toString();
         }
-        int i;
-        int n = size();
-        if (n == 0) {
+        if (size() == 0) {
             return "{}";
         }
         if (indentFactor == 0) {
             return this.toString();
         }
-        Iterator keys = keys();
-        StringBuilder sb = new StringBuilder("{");
-        int newindent = indent + indentFactor;
-        Object o;
-        if (n == 1) {
-            o = keys.next();
-            sb.append(JSONUtils.quote(o.toString()));
-            sb.append(": ");
-            sb.append(JSONUtils.valueToString(this.properties.get(o), indentFactor, indent));
-        } else {
-            while (keys.hasNext()) {
-                o = keys.next();
-                if (sb.length() > 1) {
-                    sb.append(",\n");
-                } else {
-                    sb.append('\n');
-                }
-                for (i = 0; i < newindent; i += 1) {
-                    sb.append(' ');
-                }
-                sb.append(JSONUtils.quote(o.toString()));
-                sb.append(": ");
-                sb.append(JSONUtils.valueToString(this.properties.get(o), indentFactor, newindent));
-            }
-            if (sb.length() > 1) {
-                sb.append('\n');
-                for (i = 0; i < indent; i += 1) {
-                    sb.append(' ');
-                }
-            }
-            for (i = 0; i < indent; i += 1) {
-                sb.insert(0, ' ');
-            }
-        }
-        sb.append('}');
-        return sb.toString();
+        return toPrettyString(indentFactor, indent);
     }
 
     @Override
     public Collection values() {
+        materializeAll();
         return Collections.unmodifiableCollection(properties.values());
     }
 
@@ -2473,6 +2313,7 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
         try {
             if (isNullObject()) {
                 writer.write(JSONNull.getInstance().toString());
+                return;
             }
 
             boolean b = false;
@@ -2484,7 +2325,7 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
                     writer.write(',');
                 }
                 Object k = keys.next();
-                writer.write(JSONUtils.quote(k.toString()));
+                JSONUtils.quote(k.toString(), writer);
                 writer.write(':');
                 Object v = this.properties.get(k);
                 if (v instanceof JSON) {
@@ -2500,6 +2341,51 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
         }
     }
 
+    @Override
+    void write(Writer writer, int indentFactor, int indent) throws IOException {
+        if (isNullObject()) {
+            writer.write(JSONNull.getInstance().toString());
+            return;
+        }
+        int n = size();
+        if (n == 0) {
+            writer.write("{}");
+            return;
+        }
+        if (indentFactor == 0) {
+            write(writer);
+            return;
+        }
+        materializeAll();
+        Iterator keys = keys();
+        Object o;
+        if (n == 1) {
+            o = keys.next();
+            writer.write('{');
+            JSONUtils.quote(o.toString(), writer);
+            writer.write(": ");
+            writeValue(this.properties.get(o), writer, indentFactor, indent);
+            writer.write('}');
+            return;
+        }
+        int newindent = indent + indentFactor;
+        writeIndent(writer, indent);
+        writer.write('{');
+        boolean b = false;
+        while (keys.hasNext()) {
+            o = keys.next();
+            writer.write(b ? ",\n" : "\n");
+            writeIndent(writer, newindent);
+            JSONUtils.quote(o.toString(), writer);
+            writer.write(": ");
+            writeValue(this.properties.get(o), writer, indentFactor, newindent);
+            b = true;
+        }
+        writer.write('\n');
+        writeIndent(writer, indent);
+        writer.write('}');
+    }
+
     private JSONObject _accumulate(String key, Object value, JsonConfig jsonConfig) {
         if (isNullObject()) {
             throw new JSONException("Can't accumulate on null object");
@@ -2569,6 +2455,52 @@ public final class JSONObject extends AbstractJSON implements JSON, Map<String,
         return this;
     }
 
+    /**
+     * Puts a JSONObject or JSONArray that was just built from JSON text as is,
+     * instead of copying it the way element() does.
+     */
+    void putParsed(String key, JSON value) {
+        this.properties.put(key, value);
+    }
+
+    /**
+     * Puts a nested object or array that is left unparsed until it is read.
+     */
+    void putLazy(String key, LazyJSON value) {
+        this.properties.put(key, value);
+        this.lazyValues = true;
+    }
+
+    /**
+     * Returns the value stored for key, parsing it first if it is a LazyJSON.
+     */
+    private Object materialize(String key, Object value) {
+        if (value instanceof LazyJSON) {
+            value = ((LazyJSON) value).materialize();
+            this.properties.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Parses every value that is still a LazyJSON.
+     */
+    private void materializeAll() {
+        if (this.lazyValues) {
+            for (Entry<String, Object> entry : this.properties.entrySet()) {
+                if (entry.getValue() instanceof LazyJSON) {
+                    entry.setValue(((LazyJSON) entry.getValue()).materialize());
+                }
+            }
+            this.lazyValues = false;
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        materializeAll();
+        out.defaultWriteObject();
+    }
+
     private Object processValue(Object value, JsonConfig jsonConfig) {
         if (value != null) {
             JsonValueProcessor processor = jsonConfig.findJsonValueProcessor(value.getClass());
@@ -16,6 +16,16 @@
 
 package net.sf.json;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+import net.sf.json.util.JSONByteTokener;
+import net.sf.json.util.JSONStreamTokener;
 import net.sf.json.util.JSONTokener;
 import net.sf.json.util.JSONUtils;
 
@@ -86,7 +96,9 @@ public class JSONSerializer {
 
     /**
      * Creates a JSONObject, JSONArray or a JSONNull from object.<br>
-     * Accepts JSON formatted strings, Maps, arrays, Collections, DynaBeans and
+     * Accepts JSON formatted strings, JSONTokeners (including stream backed
+     * ones), Paths of UTF-8 encoded JSON files (which are memory-mapped rather
+     * than read into a String), Maps, arrays, Collections, DynaBeans and
      * JavaBeans.
      *
      * @param object any java Object
@@ -101,15 +113,16 @@ public class JSONSerializer {
             json = toJSON((JSONString) object, jsonConfig);
         } else if (object instanceof String) {
             json = toJSON((String) object, jsonConfig);
+        } else if (object instanceof JSONTokener) {
+            json = toJSON((JSONTokener) object, jsonConfig);
+        } else if (object instanceof Path) {
+            json = parseFile((Path) object, tokener -> toJSON(tokener, jsonConfig));
         } else if (JSONUtils.isArray(object)) {
             json = JSONArray.fromObject(object, jsonConfig);
         } else {
             try {
                 json = JSONObject.fromObject(object, jsonConfig);
             } catch (JSONException e) {
-                if (object instanceof JSONTokener) {
-                    ((JSONTokener) object).reset();
-                }
                 json = JSONArray.fromObject(object, jsonConfig);
             }
         }
@@ -117,6 +130,82 @@ public class JSONSerializer {
         return json;
     }
 
+    /**
+     * Writes object as JSON text, as toJSON(object).write(writer) would.<br>
+     * Beans, Maps, Collections and object arrays are written while they are
+     * walked, without building a JSONObject or JSONArray for them.
+     *
+     * @param object any java Object accepted by toJSON()
+     * @param writer the text, which is not closed
+     * @return the writer
+     * @throws JSONException if the object can not be converted
+     */
+    public static Writer write(Object object, Writer writer) throws IOException {
+        return write(object, writer, new JsonConfig());
+    }
+
+    /**
+     * Writes object as JSON text, as toJSON(object, jsonConfig).write(writer)
+     * would.<br>
+     * Beans, Maps, Collections and object arrays are written while they are
+     * walked, honouring excludes, filters, processors and the
+     * CycleDetectionStrategy of jsonConfig, without building a JSONObject or
+     * JSONArray for them. When event triggering is enabled the JSON value is
+     * built first, so that the events are fired. If an error is raised, part
+     * of the text may have been written already.
+     *
+     * @param object any java Object accepted by toJSON()
+     * @param writer the text, which is not closed
+     * @param jsonConfig additional configuration
+     * @return the writer
+     * @throws JSONException if the object can not be converted
+     */
+    public static Writer write(Object object, Writer writer, JsonConfig jsonConfig) throws IOException {
+        if (jsonConfig.isEventTriggeringEnabled()
+                || !BeanWriter.isWalkable(object)
+                || AbstractJSON.hasInstance(object)) {
+            return toJSON(object, jsonConfig).write(writer);
+        }
+        new BeanWriter(writer, jsonConfig).writeWalkable(object);
+        return writer;
+    }
+
+    /**
+     * Writes object as UTF-8 encoded JSON text, as
+     * toJSON(object, jsonConfig).write(out) would.
+     *
+     * @param object any java Object accepted by toJSON()
+     * @param out the stream, which is not flushed nor closed
+     * @param jsonConfig additional configuration
+     * @return the stream
+     * @throws JSONException if the object can not be converted
+     * @see #write(Object, Writer, JsonConfig)
+     */
+    public static OutputStream write(Object object, OutputStream out, JsonConfig jsonConfig) throws IOException {
+        Utf8Writer writer = new Utf8Writer(out);
+        write(object, writer, jsonConfig);
+        writer.finish();
+        return out;
+    }
+
+    /**
+     * Parses an UTF-8 encoded file with a tokener over its memory-mapped bytes.
+     * Files too large to be mapped as a single buffer are streamed instead.
+     *
+     * @throws JSONException if the file can not be read
+     */
+    static <T> T parseFile(Path path, Function<JSONTokener, T> parser) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= Integer.MAX_VALUE) {
+                return parser.apply(new JSONByteTokener(channel.map(FileChannel.MapMode.READ_ONLY, 0, size)));
+            }
+            return parser.apply(new JSONStreamTokener(Channels.newInputStream(channel)));
+        } catch (IOException ioe) {
+            throw new JSONException("Can not read " + path, ioe);
+        }
+    }
+
     /**
      * Creates a JSONObject, JSONArray or a JSONNull from a JSONString.
      *
@@ -126,6 +215,22 @@ public class JSONSerializer {
         return toJSON(string.toJSONString(), jsonConfig);
     }
 
+    /**
+     * Creates a JSONObject or a JSONArray from a JSONTokener.<br>
+     * The first significant character decides which one is built, so the
+     * tokener is read only once and may be backed by a stream.
+     *
+     * @throws JSONException if the tokener does not contain a valid JSON text
+     */
+    private static JSON toJSON(JSONTokener tokener, JsonConfig jsonConfig) {
+        char c = tokener.nextClean();
+        tokener.back();
+        if (c == '[') {
+            return JSONArray.fromObject(tokener, jsonConfig);
+        }
+        return JSONObject.fromObject(tokener, jsonConfig);
+    }
+
     /**
      * Creates a JSONObject, JSONArray or a JSONNull from a JSONString.
      *
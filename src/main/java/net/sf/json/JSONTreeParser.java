@@ -0,0 +1,1046 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import net.sf.json.util.JSONTokener;
+import net.sf.json.util.JSONUtils;
+import net.sf.json.util.KeyCache;
+import net.sf.json.util.PropertyFilter;
+import net.sf.json.util.PropertyNameFilter;
+
+/**
+ * Builds JSONObject and JSONArray trees from a JSONTokener.<br>
+ * Nested objects and arrays are kept on an explicit stack instead of being
+ * parsed recursively, so deeply nested input is bounded by
+ * {@link JsonConfig#getMaxNestingDepth()} rather than by the size of the
+ * thread stack. The objects and arrays it builds are stored in their parent
+ * as they are, without the copy made when adding them through element().<br>
+ * With {@link JsonConfig#isStructuralIndexParsing()}, a String is first
+ * scanned into a {@link StructuralIndex}, and the tree is built from the
+ * ranges between its entries; only the values are read by the tokener. With
+ * {@link JsonConfig#isLazyParsing()}, the objects and arrays nested in the
+ * container being built are left as {@link LazyJSON} ranges of the index, as
+ * long as they are strict JSON that the parsed tree would write back as it is.
+ * With {@link JsonConfig#isParallelParsing()}, the elements of a large root
+ * array are split into chunks at top level separators of the index, and each
+ * chunk is built by its own parser in a ForkJoinTask. A {@link JsonFeedParser}
+ * reads the tokens itself, and hands them to a parser created by forFeed().
+ *
+ * @author JSON.org
+ */
+final class JSONTreeParser {
+    /**
+     * Returned by nextMember() when the container on top of the stack ended.
+     */
+    private static final Object CLOSED = new Object();
+
+    /**
+     * Returned by nextMember() for an empty array element, as in [1,,2].
+     */
+    private static final Object EMPTY = new Object();
+
+    /**
+     * The smallest number of characters in a chunk of an array parsed in
+     * parallel; shorter arrays are parsed by the calling thread.
+     */
+    private static final int MIN_CHUNK_LENGTH = 1 << 16;
+
+    /**
+     * Returned by nextMember() when a nested container was opened.
+     */
+    private static final Object OPENED = new Object();
+
+    /**
+     * Returned by nextMember() when the value of an excluded key was skipped.
+     */
+    private static final Object SKIPPED = new Object();
+
+    /**
+     * Creates a JSONArray from a tokener positioned before its '['.
+     */
+    static JSONArray parseArray(JSONTokener tokener, JsonConfig jsonConfig) {
+        JSONTreeParser parser = new JSONTreeParser(tokener, jsonConfig);
+        try {
+            if (tokener.nextClean() != '[') {
+                throw tokener.syntaxError("A JSONArray text must start with '['");
+            }
+            return (JSONArray) parser.parse(parser.openArray(), false);
+        } catch (JSONException jsone) {
+            parser.fireErrorEvents(jsone);
+            throw jsone;
+        }
+    }
+
+    /**
+     * Creates a JSONObject from a tokener positioned before its '{' or before
+     * the text "null".
+     */
+    static JSONObject parseObject(JSONTokener tokener, JsonConfig jsonConfig) {
+        JSONTreeParser parser = new JSONTreeParser(tokener, jsonConfig);
+        try {
+            if (tokener.startsWith("null")) {
+                AbstractJSON.fireObjectStartEvent(jsonConfig);
+                AbstractJSON.fireObjectEndEvent(jsonConfig);
+                return new JSONObject(true);
+            }
+            if (tokener.nextClean() != '{') {
+                throw tokener.syntaxError("A JSONObject text must begin with '{'");
+            }
+            return (JSONObject) parser.parse(parser.openObject(), false);
+        } catch (JSONException jsone) {
+            parser.fireErrorEvents(jsone);
+            throw jsone;
+        }
+    }
+
+    /**
+     * Creates a JSONArray from a String, through a StructuralIndex if the
+     * configuration asks for it.
+     */
+    static JSONArray parseArray(String source, JsonConfig jsonConfig) {
+        if (!isIndexed(source, jsonConfig)) {
+            return parseArray(new JSONTokener(source, jsonConfig), jsonConfig);
+        }
+        SeekableTokener tokener = new SeekableTokener(source, jsonConfig);
+        JSON json = new JSONTreeParser(tokener, jsonConfig).parseIndexed(source.trim(), '[');
+        if (json != null) {
+            return (JSONArray) json;
+        }
+        tokener.reset();
+        return parseArray(tokener, jsonConfig);
+    }
+
+    /**
+     * Creates a JSONObject from a String, through a StructuralIndex if the
+     * configuration asks for it.
+     */
+    static JSONObject parseObject(String source, JsonConfig jsonConfig) {
+        if (!isIndexed(source, jsonConfig)) {
+            return parseObject(new JSONTokener(source, jsonConfig), jsonConfig);
+        }
+        SeekableTokener tokener = new SeekableTokener(source, jsonConfig);
+        JSON json = new JSONTreeParser(tokener, jsonConfig).parseIndexed(source.trim(), '{');
+        if (json != null) {
+            return (JSONObject) json;
+        }
+        tokener.reset();
+        return parseObject(tokener, jsonConfig);
+    }
+
+    /**
+     * Parses the object or array that starts at an entry of a structural index,
+     * leaving the values nested in it unparsed.
+     */
+    static JSON parseLazy(StructuralIndex structuralIndex, int entry, JsonConfig jsonConfig) {
+        SeekableTokener tokener = new SeekableTokener(structuralIndex.source, jsonConfig);
+        JSONTreeParser parser = new JSONTreeParser(tokener, jsonConfig);
+        parser.lazy = true;
+        parser.lazyConfig = jsonConfig;
+        parser.structuralIndex = structuralIndex;
+        parser.verified = true;
+        parser.entry = entry;
+        boolean object = structuralIndex.charAt(entry) == '{';
+        try {
+            return parser.parse(object ? parser.openObject() : parser.openArray(), true);
+        } catch (NotIndexable e) {
+            // let the regular parser read it
+            String text = structuralIndex.textOf(entry);
+            return object
+                    ? parseObject(new JSONTokener(text, jsonConfig), jsonConfig)
+                    : parseArray(new JSONTokener(text, jsonConfig), jsonConfig);
+        } catch (JSONException jsone) {
+            parser.fireErrorEvents(jsone);
+            throw jsone;
+        }
+    }
+
+    /**
+     * Creates a parser that builds the values whose tokens a JsonFeedParser
+     * reads, through open(), key(), add(), addEmpty() and close().
+     */
+    static JSONTreeParser forFeed(JsonFeedParser feed, JsonConfig jsonConfig) {
+        JSONTreeParser parser = new JSONTreeParser(new JSONTokener(""), jsonConfig);
+        parser.feed = feed;
+        parser.lazy = false;
+        return parser;
+    }
+
+    /**
+     * Whether a String is parsed through a StructuralIndex.
+     */
+    private static boolean isIndexed(String source, JsonConfig jsonConfig) {
+        return source != null
+                && (jsonConfig.isStructuralIndexParsing() || jsonConfig.isLazyParsing()
+                        || jsonConfig.isParallelParsing())
+                && !jsonConfig.isEventTriggeringEnabled();
+    }
+
+    private JSON[] containers = new JSON[16];
+    private int depth;
+    private int entry;
+    private final Collection<String> exclusions;
+    private JsonFeedParser feed;
+    private int[] indexes = new int[16];
+    private final JsonConfig jsonConfig;
+    private final PropertyFilter jsonPropertyFilter;
+    private final PropertyNameFilter jsonPropertyNameFilter;
+    private final KeyCache keyCache;
+    private String[] keys = new String[16];
+    private boolean lazy;
+    private JsonConfig lazyConfig;
+    private final int maxArrayElements;
+    private final int maxDepth;
+    private final int maxNumberLength;
+    private final int maxObjectMembers;
+    private final int maxStringLength;
+    private int stop = -1;
+    private StructuralIndex structuralIndex;
+    private final JSONTokener tokener;
+    private boolean verified;
+
+    private JSONTreeParser(JSONTokener tokener, JsonConfig jsonConfig) {
+        this.tokener = tokener;
+        this.jsonConfig = jsonConfig;
+        this.exclusions = jsonConfig.getMergedExcludes();
+        this.jsonPropertyFilter = jsonConfig.getJsonPropertyFilter();
+        this.jsonPropertyNameFilter = jsonPropertyFilter instanceof PropertyNameFilter
+                ? (PropertyNameFilter) jsonPropertyFilter
+                : null;
+        this.keyCache = jsonConfig.getKeyCache();
+        this.lazy = jsonConfig.isLazyParsing() && jsonPropertyFilter == null && !jsonConfig.hasJsonValueProcessors();
+        this.maxArrayElements = jsonConfig.getMaxArrayElements();
+        this.maxDepth = jsonConfig.getMaxNestingDepth();
+        this.maxNumberLength = jsonConfig.getMaxNumberLength();
+        this.maxObjectMembers = jsonConfig.getMaxObjectMembers();
+        this.maxStringLength = jsonConfig.getMaxStringLength();
+        tokener.applyLimits(jsonConfig);
+    }
+
+    /**
+     * Adds a value to the container on top of the stack and reads the
+     * separator that follows it.
+     *
+     * @return true if the container ended after the value.
+     */
+    private boolean addValue(Object value) {
+        store(value);
+        if (containers[depth - 1] instanceof JSONObject) {
+
+            /*
+             * Pairs are separated by ','. We will also tolerate ';'.
+             */
+
+            switch (tokener.nextClean()) {
+                case ';':
+                case ',':
+                    if (tokener.nextClean() == '}') {
+                        return true;
+                    }
+                    tokener.back();
+                    return false;
+                case '}':
+                    return true;
+                default:
+                    throw tokener.syntaxError("Expected a ',' or '}'");
+            }
+        }
+
+        switch (tokener.nextClean()) {
+            case ';':
+            case ',':
+                if (tokener.nextClean() == ']') {
+                    return true;
+                }
+                tokener.back();
+                return false;
+            case ']':
+                return true;
+            default:
+                throw tokener.syntaxError("Expected a ',' or ']'");
+        }
+    }
+
+    /**
+     * Adds a value to the container on top of the stack.
+     */
+    private void store(Object value) {
+        int top = depth - 1;
+        JSON container = containers[top];
+        if (container instanceof JSONObject) {
+            JSONObject jsonObject = (JSONObject) container;
+            if (value != SKIPPED) {
+                String key = keys[top];
+                keys[top] = null;
+                if (jsonPropertyFilter == null
+                        || jsonPropertyNameFilter != null
+                        || !jsonPropertyFilter.apply(feed != null ? feed : tokener, key, value)) {
+                    if (jsonObject.containsKey(key)) {
+                        jsonObject.accumulate(key, value, jsonConfig);
+                        AbstractJSON.firePropertySetEvent(key, value, true, jsonConfig);
+                    } else if (jsonObject.size() == maxObjectMembers) {
+                        throw syntaxError("JSONObject exceeds the maximum of " + maxObjectMembers + " members");
+                    } else if (value instanceof LazyJSON) {
+                        jsonObject.putLazy(key, (LazyJSON) value);
+                        AbstractJSON.firePropertySetEvent(key, value, false, jsonConfig);
+                    } else if (isContainer(value) && jsonConfig.findJsonValueProcessor(value.getClass(), key) == null) {
+                        jsonObject.putParsed(key, (JSON) value);
+                        AbstractJSON.firePropertySetEvent(key, value, false, jsonConfig);
+                    } else {
+                        jsonObject.element(key, value, jsonConfig);
+                        AbstractJSON.firePropertySetEvent(key, value, false, jsonConfig);
+                    }
+                }
+            }
+            return;
+        }
+
+        JSONArray jsonArray = (JSONArray) container;
+        int index = indexes[top]++;
+        if (index == maxArrayElements) {
+            throw syntaxError("JSONArray exceeds the maximum of " + maxArrayElements + " elements");
+        }
+        if (value == EMPTY) {
+            jsonArray.addParsed(JSONNull.getInstance());
+        } else if (value instanceof LazyJSON) {
+            jsonArray.addLazy((LazyJSON) value);
+        } else if (isContainer(value) && jsonConfig.findJsonValueProcessor(value.getClass()) == null) {
+            jsonArray.addParsed(value);
+        } else {
+            jsonArray.addValue(value, jsonConfig);
+        }
+        if (jsonConfig.isEventTriggeringEnabled()) {
+            AbstractJSON.fireElementAddedEvent(index, jsonArray.get(index), jsonConfig);
+        }
+    }
+
+    /**
+     * Opens a JSONObject or a JSONArray, as the root or as the next value of
+     * the container on top of the stack.
+     */
+    void open(boolean object) {
+        if (object) {
+            openObject();
+        } else {
+            openArray();
+        }
+    }
+
+    /**
+     * Sets the key of the next value of the JSONObject on top of the stack.
+     *
+     * @return false if the key is excluded, and its value must be skipped
+     */
+    boolean key(String key) {
+        if (keyCache != null) {
+            key = keyCache.canonicalize(key);
+        }
+        if (exclusions.contains(key) || (jsonPropertyNameFilter != null && jsonPropertyNameFilter.apply(key))) {
+            return false;
+        }
+        keys[depth - 1] = key;
+        return true;
+    }
+
+    /**
+     * Adds a value read by the tokener to the container on top of the stack.
+     */
+    void add(Object value) {
+        store(value);
+    }
+
+    /**
+     * Adds an empty element, as in [1,,2], to the JSONArray on top of the
+     * stack.
+     */
+    void addEmpty() {
+        store(EMPTY);
+    }
+
+    /**
+     * Closes the container on top of the stack, and adds it to the one below.
+     *
+     * @return the root once it is closed, or null
+     */
+    JSON close() {
+        JSON container = pop();
+        if (depth == 0) {
+            return container;
+        }
+        store(container);
+        return null;
+    }
+
+    private JSONException syntaxError(String message) {
+        return feed != null ? feed.syntaxError(message) : tokener.syntaxError(message);
+    }
+
+    /**
+     * Reports an error the way the recursive parser did, once for every
+     * container that was open when it happened.
+     */
+    void fireErrorEvents(JSONException jsone) {
+        for (int i = Math.max(1, depth); i > 0; i--) {
+            AbstractJSON.fireErrorEvent(jsone, jsonConfig);
+        }
+    }
+
+    /**
+     * Adds a value read through the structural index to the container on top
+     * of the stack. The current entry is the separator or closing bracket
+     * after the value.
+     *
+     * @return true if the container ended after the value.
+     */
+    private boolean addIndexedValue(Object value) {
+        store(value);
+        char c = structuralIndex.charAt(entry);
+        if (c == ',' || c == ';') {
+            return false;
+        }
+        if (c != (containers[depth - 1] instanceof JSONObject ? '}' : ']')) {
+            throw notIndexable();
+        }
+        return true;
+    }
+
+    /**
+     * Moves from the closing bracket of a container to the entry after it.
+     */
+    private void afterContainer() {
+        if (!structuralIndex.isBlank(entry)) {
+            throw notIndexable();
+        }
+        entry++;
+    }
+
+    /**
+     * Like nextMember(), but reading the structure from the index. The current
+     * entry is the opening bracket or the separator before the member.
+     */
+    private Object nextIndexedMember() {
+        int top = depth - 1;
+        int gap = entry;
+        boolean blank = structuralIndex.isBlank(gap);
+        char c = structuralIndex.charAt(++entry);
+        if (containers[top] instanceof JSONObject) {
+            if (blank && c == '}') {
+                return CLOSED;
+            }
+            if (blank || c != ':') {
+                throw notIndexable();
+            }
+            if (!key(scalarAfter(gap).toString())) {
+                skipIndexedValue();
+                return SKIPPED;
+            }
+            return nextIndexedValue();
+        }
+
+        if (blank) {
+            if (c == ']') {
+                return CLOSED;
+            }
+            if (c == ',') {
+                return EMPTY;
+            }
+        }
+        entry = gap;
+        return nextIndexedValue();
+    }
+
+    /**
+     * Reads the value after the current entry, opening a new container if it
+     * is an object or an array.
+     */
+    private Object nextIndexedValue() {
+        int gap = entry++;
+        if (!structuralIndex.isBlank(gap)) {
+            return scalarAfter(gap);
+        }
+        char c = structuralIndex.charAt(entry);
+        if (c != '{' && c != '[') {
+            throw notIndexable();
+        }
+        if (lazy && isDeferrable() && (verified || isVerbatim(entry))) {
+            LazyJSON value = new LazyJSON(structuralIndex, entry, lazyConfig);
+            entry = structuralIndex.links[entry];
+            afterContainer();
+            return value;
+        }
+        if (c == '{') {
+            openObject();
+        } else {
+            openArray();
+        }
+        return OPENED;
+    }
+
+    /**
+     * Whether a nested value can be left unparsed: it is not accumulated with
+     * a value already stored for its key in the container on top of the stack.
+     */
+    private boolean isDeferrable() {
+        int top = depth - 1;
+        return !(containers[top] instanceof JSONObject) || !((JSONObject) containers[top]).containsKey(keys[top]);
+    }
+
+    /**
+     * Whether the object or array at an entry is strict JSON that the tree
+     * parsed from it writes back as it is, whitespace aside: double quoted
+     * strings that need no escape and are not read as JSON texts or keywords,
+     * numbers in the form they are written, no duplicate or excluded keys, and
+     * nothing beyond the limits of the configuration. Only such a value is
+     * left unparsed, so that it reads and writes the same before and after
+     * it is parsed.
+     */
+    private boolean isVerbatim(int entry) {
+        int last = structuralIndex.links[entry];
+        boolean[] objects = new boolean[16];
+        int[] counts = new int[16];
+        List<Set<String>> keySets = new ArrayList<>();
+        int top = -1;
+        for (int e = entry; e < last; e++) {
+            char c = structuralIndex.charAt(e);
+            char next = structuralIndex.charAt(e + 1);
+            boolean blank = structuralIndex.isBlank(e);
+            if (c == '}' || c == ']') {
+                top--;
+                if (!blank || (next != ',' && next != '}' && next != ']')) {
+                    return false;
+                }
+                continue;
+            }
+            if (c == ':') {
+                if (!isVerbatimValue(e, blank, next, '}')) {
+                    return false;
+                }
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                if (++top == objects.length) {
+                    objects = Arrays.copyOf(objects, top * 2);
+                    counts = Arrays.copyOf(counts, top * 2);
+                }
+                objects[top] = c == '{';
+                counts[top] = 0;
+                if (blank && next == (c == '{' ? '}' : ']')) {
+                    continue;
+                }
+            } else if (c != ',') {
+                return false;
+            }
+
+            // a member starts after the opening bracket or a ','
+            if (!objects[top]) {
+                if (++counts[top] > maxArrayElements || !isVerbatimValue(e, blank, next, ']')) {
+                    return false;
+                }
+                continue;
+            }
+            if (++counts[top] > maxObjectMembers || blank || next != ':') {
+                return false;
+            }
+            while (keySets.size() <= top) {
+                keySets.add(new HashSet<>());
+            }
+            Set<String> keySet = keySets.get(top);
+            if (counts[top] == 1) {
+                keySet.clear();
+            }
+            String key = verbatimString(tokenAfter(e));
+            if (key == null || exclusions.contains(key) || !keySet.add(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the value between an entry and the next one is written back as
+     * it is: an object or array that isVerbatim() checks on its own entries,
+     * or a literal followed by a ',' or by close.
+     */
+    private boolean isVerbatimValue(int gap, boolean blank, char next, char close) {
+        if (blank) {
+            return next == '{' || next == '[';
+        }
+        if (next != ',' && next != close) {
+            return false;
+        }
+        String token = tokenAfter(gap);
+        if (token.charAt(0) == '"') {
+            String value = verbatimString(token);
+            return value != null
+                    && !JSONUtils.mayBeJSON(value)
+                    && !JSONUtils.hasQuotes(value)
+                    && !JSONUtils.isJsonKeyword(value, jsonConfig)
+                    && !"undefined".equals(value);
+        }
+        if ("true".equals(token) || "false".equals(token) || "null".equals(token)) {
+            return true;
+        }
+        return isVerbatimNumber(token);
+    }
+
+    /**
+     * Whether a number is written back as it is: an integer without leading
+     * zeros that fits in a long, or a decimal that the Double parsed from it
+     * prints the same.
+     */
+    private boolean isVerbatimNumber(String token) {
+        int length = token.length();
+        if (length > maxNumberLength) {
+            return false;
+        }
+        int start = token.charAt(0) == '-' ? 1 : 0;
+        int i = start;
+        while (i < length && token.charAt(i) >= '0' && token.charAt(i) <= '9') {
+            i++;
+        }
+        if (i == length) {
+            int digits = length - start;
+            return digits > 0 && digits <= 18 && (digits == 1 || token.charAt(start) != '0') && !"-0".equals(token);
+        }
+        if (i == start) {
+            return false;
+        }
+        try {
+            return JSONUtils.numberToString(Double.valueOf(token)).equals(token);
+        } catch (JSONException | NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the text between an entry and the next one, without the
+     * whitespace around it.
+     */
+    private String tokenAfter(int gap) {
+        String source = structuralIndex.source;
+        int start = structuralIndex.positions[gap] + 1;
+        int end = structuralIndex.positions[gap + 1];
+        while (start < end && isWhitespace(source.charAt(start))) {
+            start++;
+        }
+        while (end > start && isWhitespace(source.charAt(end - 1))) {
+            end--;
+        }
+        return source.substring(start, end);
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c != 0 && c <= ' ';
+    }
+
+    /**
+     * Returns the characters of a double quoted string token, or null if it
+     * is not one, has characters that are escaped when it is written, or is
+     * longer than the limit.
+     */
+    private String verbatimString(String token) {
+        int end = token.length() - 1;
+        if (end < 1 || token.charAt(0) != '"' || token.charAt(end) != '"' || end - 1 > maxStringLength) {
+            return null;
+        }
+        char b = 0;
+        for (int i = 1; i < end; i++) {
+            char c = token.charAt(i);
+            if (c == '"' || c == '\\' || c < ' ' || (c == '/' && b == '<')) {
+                return null;
+            }
+            b = c;
+        }
+        return token.substring(1, end);
+    }
+
+    private static JSONException notIndexable() {
+        return new NotIndexable();
+    }
+
+    /**
+     * Builds the tree described by the structural index of source. Errors in a
+     * text that the index describes are reported as the regular parser would,
+     * without reading the text again.
+     *
+     * @return the tree, or null if the index does not describe the text the
+     *         way the regular parser reads it
+     */
+    private JSON parseIndexed(String source, char root) {
+        structuralIndex = StructuralIndex.build(source);
+        if (structuralIndex == null
+                || structuralIndex.size == 0
+                || structuralIndex.positions[0] != 0
+                || structuralIndex.charAt(0) != root
+                || structuralIndex.maxDepth > maxDepth) {
+            return null;
+        }
+        if (lazy) {
+            // unparsed values are read later, with the settings of this parse
+            lazyConfig = jsonConfig.freeze();
+        }
+        JSONArray jsonArray;
+        try {
+            int[] bounds = root == '[' && jsonConfig.isParallelParsing() && source.length() >= 2 * MIN_CHUNK_LENGTH
+                    ? chunkBounds()
+                    : null;
+            if (bounds == null) {
+                return parse(root == '{' ? openObject() : openArray(), true);
+            }
+            jsonArray = parseChunks(bounds);
+        } catch (NotIndexable e) {
+            return null;
+        } catch (JSONException jsone) {
+            fireErrorEvents(jsone);
+            throw jsone;
+        }
+        // the chunks only count their own elements; report the total without parsing the text again
+        if (jsonArray.size() > maxArrayElements) {
+            throw new JSONException("JSONArray exceeds the maximum of " + maxArrayElements + " elements");
+        }
+        return jsonArray;
+    }
+
+    /**
+     * Splits the elements of the root array into chunks of about the same
+     * length, enough to keep the pool busy.
+     *
+     * @return the entries of the separators that start each chunk, after the
+     *         root '[' that starts the first one, followed by the entry of
+     *         the closing ']'; or null if the array is not worth splitting
+     */
+    private int[] chunkBounds() {
+        int end = structuralIndex.links[0];
+        if (end != structuralIndex.size - 1) {
+            return null;
+        }
+        ForkJoinPool pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+        int length = Math.max(MIN_CHUNK_LENGTH, structuralIndex.source.length() / (pool.getParallelism() * 4));
+        int[] bounds = new int[16];
+        int count = 1;
+        for (int e = 1; e < end; e++) {
+            char c = structuralIndex.charAt(e);
+            if (c == '{' || c == '[') {
+                e = structuralIndex.links[e];
+            } else if (c == ':') {
+                return null;
+            } else if (structuralIndex.positions[e] - structuralIndex.positions[bounds[count - 1]] >= length) {
+                if (count == bounds.length) {
+                    int[] newBounds = new int[count * 2];
+                    System.arraycopy(bounds, 0, newBounds, 0, count);
+                    bounds = newBounds;
+                }
+                bounds[count++] = e;
+            }
+        }
+        if (count == 1) {
+            return null;
+        }
+        int[] chunkBounds = new int[count + 1];
+        System.arraycopy(bounds, 0, chunkBounds, 0, count);
+        chunkBounds[count] = end;
+        return chunkBounds;
+    }
+
+    /**
+     * Builds the root array from chunks parsed in parallel, and joins them in
+     * order. If the index does not describe one of the chunks, the errors of
+     * the others may not be errors of the text, so the whole text is left to
+     * the regular parser.
+     */
+    private JSONArray parseChunks(int[] bounds) {
+        List<Chunk> chunks = new ArrayList<>(bounds.length - 1);
+        for (int i = 0; i < bounds.length - 1; i++) {
+            chunks.add(new Chunk(this, bounds[i], bounds[i + 1]));
+        }
+        for (int i = chunks.size() - 1; i > 0; i--) {
+            chunks.get(i).fork();
+        }
+        chunks.get(0).quietlyInvoke();
+        for (Chunk chunk : chunks) {
+            chunk.quietlyJoin();
+        }
+        for (Chunk chunk : chunks) {
+            if (chunk.getException() instanceof NotIndexable) {
+                throw notIndexable();
+            }
+        }
+        JSONArray jsonArray = new JSONArray();
+        for (Chunk chunk : chunks) {
+            jsonArray.addAllParsed(chunk.join());
+        }
+        return jsonArray;
+    }
+
+    /**
+     * Reads the value between the current entry and the next one, which must
+     * be followed by nothing but whitespace.
+     */
+    private Object scalarAfter(int gap) {
+        SeekableTokener seekable = (SeekableTokener) tokener;
+        int end = structuralIndex.positions[gap + 1];
+        seekable.moveTo(structuralIndex.positions[gap] + 1);
+        Object value = tokener.nextValue(jsonConfig);
+        int i = seekable.position();
+        if (i > end) {
+            throw notIndexable();
+        }
+        for (; i < end; i++) {
+            char c = structuralIndex.source.charAt(i);
+            if (c == 0 || c > ' ') {
+                throw notIndexable();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Skips the value after the current entry, moving to the separator or
+     * closing bracket that follows it.
+     */
+    private void skipIndexedValue() {
+        int gap = entry++;
+        if (structuralIndex.isBlank(gap)) {
+            char c = structuralIndex.charAt(entry);
+            if (c != '{' && c != '[') {
+                throw notIndexable();
+            }
+            entry = structuralIndex.links[entry];
+            afterContainer();
+        }
+    }
+
+    /**
+     * Whether value is a JSONObject or JSONArray built by this parser. Those are
+     * stored as they are; copying them the way element() and addValue() do
+     * would copy every level of the tree again for each enclosing level.
+     */
+    private static boolean isContainer(Object value) {
+        return value instanceof JSONObject || value instanceof JSONArray;
+    }
+
+    /**
+     * Reads the next key and value of the JSONObject, or the next element of
+     * the JSONArray, on top of the stack.
+     *
+     * @return the value; or one of CLOSED, EMPTY, OPENED or SKIPPED.
+     */
+    private Object nextMember() {
+        int top = depth - 1;
+        if (containers[top] instanceof JSONObject) {
+            char c = tokener.nextClean();
+            switch (c) {
+                case 0:
+                    throw tokener.syntaxError("A JSONObject text must end with '}'");
+                case '}':
+                    return CLOSED;
+                default:
+                    tokener.back();
+            }
+            String key = tokener.nextValue(jsonConfig).toString();
+
+            /*
+             * The key is followed by ':'. We will also tolerate '=' or '=>'.
+             */
+
+            c = tokener.nextClean();
+            if (c == '=') {
+                if (tokener.next() != '>') {
+                    tokener.back();
+                }
+            } else if (c != ':') {
+                throw tokener.syntaxError("Expected a ':' after a key");
+            }
+
+            if (!key(key)) {
+                tokener.skipValue();
+                return SKIPPED;
+            }
+            return nextValue();
+        }
+
+        char c = tokener.nextClean();
+        if (indexes[top] == 0 && c == ']') {
+            return CLOSED;
+        }
+        tokener.back();
+        if (c == ',') {
+            return EMPTY;
+        }
+        return nextValue();
+    }
+
+    /**
+     * Reads a value, opening a new container if it is an object or an array.
+     */
+    private Object nextValue() {
+        switch (tokener.nextClean()) {
+            case '{':
+                openObject();
+                return OPENED;
+            case '[':
+                openArray();
+                return OPENED;
+            default:
+                tokener.back();
+                return tokener.nextValue(jsonConfig);
+        }
+    }
+
+    private JSONArray openArray() {
+        JSONArray jsonArray = new JSONArray();
+        push(jsonArray);
+        AbstractJSON.fireArrayStartEvent(jsonConfig);
+        return jsonArray;
+    }
+
+    private JSONObject openObject() {
+        JSONObject jsonObject = new JSONObject();
+        push(jsonObject);
+        AbstractJSON.fireObjectStartEvent(jsonConfig);
+        return jsonObject;
+    }
+
+    /**
+     * Reads the members of root and of every container nested in it, from the
+     * tokener or from the structural index.
+     */
+    private JSON parse(JSON root, boolean indexed) {
+        for (; ; ) {
+            Object value = indexed ? nextIndexedMember() : nextMember();
+            if (value == OPENED) {
+                continue;
+            }
+            boolean closed = value == CLOSED || (indexed ? addIndexedValue(value) : addValue(value));
+            while (closed) {
+                JSON container = pop();
+                if (depth == 0) {
+                    return container;
+                }
+                if (indexed) {
+                    afterContainer();
+                    closed = addIndexedValue(container);
+                } else {
+                    closed = addValue(container);
+                }
+            }
+            if (entry == stop && depth == 1) {
+                return pop();
+            }
+        }
+    }
+
+    private JSON pop() {
+        JSON container = containers[--depth];
+        containers[depth] = null;
+        if (container instanceof JSONObject) {
+            AbstractJSON.fireObjectEndEvent(jsonConfig);
+        } else {
+            AbstractJSON.fireArrayEndEvent(jsonConfig);
+        }
+        return container;
+    }
+
+    private void push(JSON container) {
+        if (depth == maxDepth) {
+            throw syntaxError("Nesting depth exceeds the maximum of " + maxDepth);
+        }
+        if (depth == containers.length) {
+            int length = depth * 2;
+            JSON[] newContainers = new JSON[length];
+            System.arraycopy(containers, 0, newContainers, 0, depth);
+            containers = newContainers;
+            String[] newKeys = new String[length];
+            System.arraycopy(keys, 0, newKeys, 0, depth);
+            keys = newKeys;
+            int[] newIndexes = new int[length];
+            System.arraycopy(indexes, 0, newIndexes, 0, depth);
+            indexes = newIndexes;
+        }
+        containers[depth] = container;
+        indexes[depth] = 0;
+        depth++;
+    }
+
+    /**
+     * Builds the elements of the root array between two of its top level
+     * entries, with the settings of the parser that split it.
+     */
+    private static final class Chunk extends RecursiveTask<JSONArray> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final transient JSONTreeParser root;
+        private final int to;
+
+        Chunk(JSONTreeParser root, int from, int to) {
+            this.root = root;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected JSONArray compute() {
+            StructuralIndex structuralIndex = root.structuralIndex;
+            JSONTreeParser parser =
+                    new JSONTreeParser(new SeekableTokener(structuralIndex.source, root.jsonConfig), root.jsonConfig);
+            parser.lazy = root.lazy;
+            parser.lazyConfig = root.lazyConfig;
+            parser.structuralIndex = structuralIndex;
+            parser.entry = from;
+            parser.stop = to;
+            return (JSONArray) parser.parse(parser.openArray(), true);
+        }
+    }
+
+    /**
+     * Thrown when the structural index does not describe a text the way the
+     * regular parser reads it.
+     */
+    private static final class NotIndexable extends JSONException {
+        private static final long serialVersionUID = 1L;
+
+        NotIndexable() {
+            super("Not a text the structural index can describe");
+        }
+    }
+
+    /**
+     * A JSONTokener over a String that the structural index can move to the
+     * start of any value.
+     */
+    private static final class SeekableTokener extends JSONTokener {
+        SeekableTokener(String source, JsonConfig jsonConfig) {
+            super(source, jsonConfig);
+        }
+
+        void moveTo(int index) {
+            seek(index);
+        }
+
+        int position() {
+            return index();
+        }
+    }
+}
@@ -25,6 +25,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import net.sf.json.processors.DefaultDefaultValueProcessor;
 import net.sf.json.processors.DefaultValueProcessor;
 import net.sf.json.processors.DefaultValueProcessorMatcher;
@@ -37,6 +39,7 @@ import net.sf.json.processors.PropertyNameProcessorMatcher;
 import net.sf.json.util.CycleDetectionStrategy;
 import net.sf.json.util.JavaIdentifierTransformer;
 import net.sf.json.util.JsonEventListener;
+import net.sf.json.util.KeyCache;
 import net.sf.json.util.NewBeanInstanceStrategy;
 import net.sf.json.util.PropertyExclusionClassMatcher;
 import net.sf.json.util.PropertyFilter;
@@ -48,6 +51,7 @@ import net.sf.json.util.PropertySetStrategy;
  * @author Andres Almiray <a href="mailto:aalmiray@users.sourceforge.net">aalmiray@users.sourceforge.net</a>
  */
 public class JsonConfig {
+    public static final int DEFAULT_MAX_NESTING_DEPTH = 1000;
     public static final DefaultValueProcessorMatcher DEFAULT_DEFAULT_VALUE_PROCESSOR_MATCHER =
             DefaultValueProcessorMatcher.DEFAULT;
     public static final JsonBeanProcessorMatcher DEFAULT_JSON_BEAN_PROCESSOR_MATCHER = JsonBeanProcessorMatcher.DEFAULT;
@@ -71,7 +75,9 @@ public class JsonConfig {
     /** Array conversion mode */
     private int arrayMode = MODE_LIST;
 
+    private final Map<Class<?>, BeanBinder> beanBinders = new ConcurrentHashMap<>();
     private Map<Class<?>, Map<String, JsonValueProcessor>> beanKeyMap = new HashMap<>();
+    private final Map<Class<?>, BeanPlan> beanPlans = new ConcurrentHashMap<>();
     private Map beanProcessorMap = new HashMap();
     private Map<Class<?>, Map<Class<?>, JsonValueProcessor>> beanTypeMap = new HashMap<>();
     /** Map of attribute/class */
@@ -82,9 +88,10 @@ public class JsonConfig {
     private Map defaultValueMap = new HashMap();
     private DefaultValueProcessorMatcher defaultValueProcessorMatcher = DEFAULT_DEFAULT_VALUE_PROCESSOR_MATCHER;
     private Class enclosedType;
-    private List eventListeners = new ArrayList();
+    private List<JsonEventListener> eventListeners = new ArrayList<>();
     private String[] excludes = EMPTY_EXCLUDES;
     private Map exclusionMap = new HashMap();
+    private boolean fullSourceInSyntaxErrors;
     private boolean handleJettisonEmptyElement;
     private boolean handleJettisonSingleElementArray;
     private boolean ignoreDefaultExcludes;
@@ -102,17 +109,29 @@ public class JsonConfig {
     private Map jsonPropertyNameProcessorMap = new HashMap();
     private PropertyNameProcessorMatcher jsonPropertyNameProcessorMatcher = DEFAULT_PROPERTY_NAME_PROCESSOR_MATCHER;
     private JsonValueProcessorMatcher jsonValueProcessorMatcher = DEFAULT_JSON_VALUE_PROCESSOR_MATCHER;
+    private KeyCache keyCache;
     private Map keyMap = new HashMap();
+    private boolean lazyParsing;
+    /** what a frozen configuration has looked up, null while it can change */
+    private Lookups lookups;
+    private int maxArrayElements = Integer.MAX_VALUE;
+    private int maxNestingDepth = DEFAULT_MAX_NESTING_DEPTH;
+    private int maxNumberLength = Integer.MAX_VALUE;
+    private int maxObjectMembers = Integer.MAX_VALUE;
+    private int maxStringLength = Integer.MAX_VALUE;
+    private long maxTextLength = Long.MAX_VALUE;
     private NewBeanInstanceStrategy newBeanInstanceStrategy = DEFAULT_NEW_BEAN_INSTANCE_STRATEGY;
+    private boolean parallelParsing;
     private PropertyExclusionClassMatcher propertyExclusionClassMatcher = DEFAULT_PROPERTY_EXCLUSION_CLASS_MATCHER;
     private PropertySetStrategy propertySetStrategy;
     /** Root class used when converting to an specific bean */
     private Class rootClass;
 
     private boolean skipJavaIdentifierTransformationInMapKeys;
+    private boolean structuralIndexParsing;
     private boolean triggerEvents;
     private Map typeMap = new HashMap();
-    private List ignoreFieldAnnotations = new ArrayList();
+    private List<String> ignoreFieldAnnotations = new ArrayList<>();
     private boolean allowNonStringKeys = false;
 
     public JsonConfig() {}
@@ -129,6 +148,7 @@ public class JsonConfig {
      * @param listener a listener for events
      */
     public synchronized void addJsonEventListener(JsonEventListener listener) {
+        checkFrozen();
         if (!eventListeners.contains(listener)) {
             eventListeners.add(listener);
         }
@@ -139,6 +159,8 @@ public class JsonConfig {
      * [JSON -&gt; Java]
      */
     public void clearJavaPropertyNameProcessors() {
+        checkFrozen();
+        beanBinders.clear();
         javaPropertyNameProcessorMap.clear();
     }
 
@@ -147,6 +169,7 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void clearJsonBeanProcessors() {
+        checkFrozen();
         beanProcessorMap.clear();
     }
 
@@ -155,6 +178,7 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public synchronized void clearJsonEventListeners() {
+        checkFrozen();
         eventListeners.clear();
     }
 
@@ -163,6 +187,8 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void clearJsonPropertyNameProcessors() {
+        checkFrozen();
+        beanPlans.clear();
         jsonPropertyNameProcessorMap.clear();
     }
 
@@ -171,6 +197,8 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void clearJsonValueProcessors() {
+        checkFrozen();
+        beanPlans.clear();
         beanKeyMap.clear();
         beanTypeMap.clear();
         keyMap.clear();
@@ -182,6 +210,8 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void clearPropertyExclusions() {
+        checkFrozen();
+        beanPlans.clear();
         exclusionMap.clear();
     }
 
@@ -216,6 +246,7 @@ public class JsonConfig {
             jsc.excludes = new String[excludes.length];
             System.arraycopy(excludes, 0, jsc.excludes, 0, excludes.length);
         }
+        jsc.fullSourceInSyntaxErrors = fullSourceInSyntaxErrors;
         jsc.handleJettisonEmptyElement = handleJettisonEmptyElement;
         jsc.handleJettisonSingleElementArray = handleJettisonSingleElementArray;
         jsc.ignoreDefaultExcludes = ignoreDefaultExcludes;
@@ -223,10 +254,20 @@ public class JsonConfig {
         jsc.ignorePublicFields = ignorePublicFields;
         jsc.javaIdentifierTransformer = javaIdentifierTransformer;
         jsc.javascriptCompliant = javascriptCompliant;
+        jsc.keyCache = keyCache;
         jsc.keyMap.putAll(keyMap);
+        jsc.lazyParsing = lazyParsing;
+        jsc.maxArrayElements = maxArrayElements;
+        jsc.maxNestingDepth = maxNestingDepth;
+        jsc.maxNumberLength = maxNumberLength;
+        jsc.maxObjectMembers = maxObjectMembers;
+        jsc.maxStringLength = maxStringLength;
+        jsc.maxTextLength = maxTextLength;
+        jsc.parallelParsing = parallelParsing;
         jsc.beanProcessorMap.putAll(beanProcessorMap);
         jsc.rootClass = rootClass;
         jsc.skipJavaIdentifierTransformationInMapKeys = skipJavaIdentifierTransformationInMapKeys;
+        jsc.structuralIndexParsing = structuralIndexParsing;
         jsc.triggerEvents = triggerEvents;
         jsc.typeMap.putAll(typeMap);
         jsc.jsonPropertyFilter = jsonPropertyFilter;
@@ -257,6 +298,7 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void disableEventTriggering() {
+        checkFrozen();
         triggerEvents = false;
     }
 
@@ -265,6 +307,7 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void enableEventTriggering() {
+        checkFrozen();
         triggerEvents = true;
     }
 
@@ -297,6 +340,7 @@ public class JsonConfig {
      * [JSON -&gt; Java]
      */
     public void setIgnoreUnreadableProperty(boolean ignoreUnreadableProperty) {
+        checkFrozen();
         this.ignoreUnreadableProperty = ignoreUnreadableProperty;
     }
 
@@ -308,6 +352,14 @@ public class JsonConfig {
      * @param target a class used for searching a DefaultValueProcessor.
      */
     public DefaultValueProcessor findDefaultValueProcessor(Class target) {
+        if (lookups != null) {
+            return (DefaultValueProcessor)
+                    Lookups.get(lookups.defaultValueProcessors, target, this::matchDefaultValueProcessor);
+        }
+        return matchDefaultValueProcessor(target);
+    }
+
+    private DefaultValueProcessor matchDefaultValueProcessor(Class<?> target) {
         if (!defaultValueMap.isEmpty()) {
             Object key = defaultValueProcessorMatcher.getMatch(target, defaultValueMap.keySet());
             DefaultValueProcessor processor = (DefaultValueProcessor) defaultValueMap.get(key);
@@ -326,6 +378,14 @@ public class JsonConfig {
      * @param beanClass a class used for searching a PropertyNameProcessor.
      */
     public PropertyNameProcessor findJavaPropertyNameProcessor(Class beanClass) {
+        if (lookups != null) {
+            return (PropertyNameProcessor)
+                    Lookups.get(lookups.javaPropertyNameProcessors, beanClass, this::matchJavaPropertyNameProcessor);
+        }
+        return matchJavaPropertyNameProcessor(beanClass);
+    }
+
+    private PropertyNameProcessor matchJavaPropertyNameProcessor(Class<?> beanClass) {
         if (!javaPropertyNameProcessorMap.isEmpty()) {
             Object key = javaPropertyNameProcessorMatcher.getMatch(beanClass, javaPropertyNameProcessorMap.keySet());
             return (PropertyNameProcessor) javaPropertyNameProcessorMap.get(key);
@@ -341,6 +401,13 @@ public class JsonConfig {
      * @param target a class used for searching a JsonBeanProcessor.
      */
     public JsonBeanProcessor findJsonBeanProcessor(Class target) {
+        if (lookups != null) {
+            return (JsonBeanProcessor) Lookups.get(lookups.jsonBeanProcessors, target, this::matchJsonBeanProcessor);
+        }
+        return matchJsonBeanProcessor(target);
+    }
+
+    private JsonBeanProcessor matchJsonBeanProcessor(Class<?> target) {
         if (!beanProcessorMap.isEmpty()) {
             Object key = jsonBeanProcessorMatcher.getMatch(target, beanProcessorMap.keySet());
             return (JsonBeanProcessor) beanProcessorMap.get(key);
@@ -356,6 +423,14 @@ public class JsonConfig {
      * @param beanClass a class used for searching a PropertyNameProcessor.
      */
     public PropertyNameProcessor findJsonPropertyNameProcessor(Class beanClass) {
+        if (lookups != null) {
+            return (PropertyNameProcessor)
+                    Lookups.get(lookups.jsonPropertyNameProcessors, beanClass, this::matchJsonPropertyNameProcessor);
+        }
+        return matchJsonPropertyNameProcessor(beanClass);
+    }
+
+    private PropertyNameProcessor matchJsonPropertyNameProcessor(Class<?> beanClass) {
         if (!jsonPropertyNameProcessorMap.isEmpty()) {
             Object key = jsonPropertyNameProcessorMatcher.getMatch(beanClass, jsonPropertyNameProcessorMap.keySet());
             return (PropertyNameProcessor) jsonPropertyNameProcessorMap.get(key);
@@ -371,6 +446,14 @@ public class JsonConfig {
      * @param propertyType a class used for searching a JsonValueProcessor.
      */
     public JsonValueProcessor findJsonValueProcessor(Class propertyType) {
+        if (lookups != null) {
+            return (JsonValueProcessor)
+                    Lookups.get(lookups.jsonValueProcessors, propertyType, this::matchJsonValueProcessor);
+        }
+        return matchJsonValueProcessor(propertyType);
+    }
+
+    private JsonValueProcessor matchJsonValueProcessor(Class<?> propertyType) {
         if (!typeMap.isEmpty()) {
             Object key = jsonValueProcessorMatcher.getMatch(propertyType, typeMap.keySet());
             return (JsonValueProcessor) typeMap.get(key);
@@ -417,13 +500,7 @@ public class JsonConfig {
             return jsonValueProcessor;
         }
 
-        Object tkey = jsonValueProcessorMatcher.getMatch(propertyType, typeMap.keySet());
-        jsonValueProcessor = (JsonValueProcessor) typeMap.get(tkey);
-        if (jsonValueProcessor != null) {
-            return jsonValueProcessor;
-        }
-
-        return null;
+        return findJsonValueProcessor(propertyType);
     }
 
     /**
@@ -446,13 +523,7 @@ public class JsonConfig {
             return jsonValueProcessor;
         }
 
-        Object tkey = jsonValueProcessorMatcher.getMatch(propertyType, typeMap.keySet());
-        jsonValueProcessor = (JsonValueProcessor) typeMap.get(tkey);
-        if (jsonValueProcessor != null) {
-            return jsonValueProcessor;
-        }
-
-        return null;
+        return findJsonValueProcessor(propertyType);
     }
 
     /**
@@ -469,6 +540,30 @@ public class JsonConfig {
         return findJavaPropertyNameProcessor(beanClass);
     }
 
+    /**
+     * Returns an immutable copy of this configuration.<br>
+     * Every method that would change the copy throws an
+     * UnsupportedOperationException, and the merged excludes, the excludes per
+     * class and the processors found for each class are looked up once and
+     * kept, so a single frozen configuration can be shared by all threads
+     * instead of being copied for each of them. Changing this configuration
+     * afterwards does not change the frozen copy; copy() returns a mutable
+     * configuration again.<br>
+     * Returns this configuration if it is already frozen.
+     */
+    public JsonConfig freeze() {
+        if (lookups != null) {
+            return this;
+        }
+        JsonConfig jsc = copy();
+        // copy() always creates a class map, but getClassMap() returns null until one is set
+        jsc.classMap = classMap == null ? null : Collections.unmodifiableMap((Map<?, ?>) jsc.classMap);
+        jsc.eventListeners = Collections.unmodifiableList(jsc.eventListeners);
+        jsc.ignoreFieldAnnotations = Collections.unmodifiableList(jsc.ignoreFieldAnnotations);
+        jsc.lookups = new Lookups(Collections.unmodifiableCollection(jsc.mergeExcludes()));
+        return jsc;
+    }
+
     /**
      * Returns the current array mode conversion.<br>
      * [JSON -&gt; Java]
@@ -479,6 +574,41 @@ public class JsonConfig {
         return arrayMode;
     }
 
+    /**
+     * Returns how the keys of JSONObjects are bound to the properties of beans
+     * of a class with this configuration, when beans are created with
+     * JSONObject.toBean(): the Java identifier and PropertyNameProcessor
+     * applied to each key, and the field, property or PropertySetStrategy it
+     * is set through.<br>
+     * The binder is kept until one of those settings changes.<br>
+     * [JSON -&gt; Java]
+     */
+    BeanBinder getBeanBinder(Class<?> beanClass) {
+        BeanBinder binder = beanBinders.get(beanClass);
+        if (binder == null) {
+            binder = new BeanBinder(beanClass);
+            beanBinders.putIfAbsent(beanClass, binder);
+        }
+        return binder;
+    }
+
+    /**
+     * Returns how beans of a class are serialized with this configuration:
+     * their properties and public fields, with exclusions, transient checks,
+     * JsonValueProcessors and PropertyNameProcessors already resolved.<br>
+     * The plan is built once per class and dropped whenever one of those
+     * settings changes.<br>
+     * [Java -&gt; JSON]
+     */
+    BeanPlan getBeanPlan(Class<?> beanClass) {
+        BeanPlan plan = beanPlans.get(beanClass);
+        if (plan == null) {
+            plan = new BeanPlan(beanClass, this);
+            beanPlans.putIfAbsent(beanClass, plan);
+        }
+        return plan;
+    }
+
     /**
      * Returns the current attribute/class Map.<br>
      * [JSON -&gt; Java]
@@ -532,7 +662,7 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public String[] getExcludes() {
-        return excludes;
+        return lookups != null ? excludes.clone() : excludes;
     }
 
     /**
@@ -604,11 +734,81 @@ public class JsonConfig {
         return jsonValueProcessorMatcher;
     }
 
+    /**
+     * Returns the cache used to canonicalize the keys of parsed objects, or null
+     * if keys are not canonicalized.<br>
+     * [JSON -&gt; Java]
+     */
+    public KeyCache getKeyCache() {
+        return keyCache;
+    }
+
+    /**
+     * Returns the maximum number of elements of a JSONArray parsed from JSON text.<br>
+     * Default value is Integer.MAX_VALUE.<br>
+     * [JSON -&gt; Java]
+     */
+    public int getMaxArrayElements() {
+        return maxArrayElements;
+    }
+
+    /**
+     * Returns the maximum number of nested objects and arrays allowed when
+     * parsing JSON text.<br>
+     * Default value is DEFAULT_MAX_NESTING_DEPTH.<br>
+     * [JSON -&gt; Java]
+     */
+    public int getMaxNestingDepth() {
+        return maxNestingDepth;
+    }
+
+    /**
+     * Returns the maximum number of characters of a number in parsed JSON text.<br>
+     * Default value is Integer.MAX_VALUE.<br>
+     * [JSON -&gt; Java]
+     */
+    public int getMaxNumberLength() {
+        return maxNumberLength;
+    }
+
+    /**
+     * Returns the maximum number of properties of a JSONObject parsed from JSON
+     * text.<br>
+     * Default value is Integer.MAX_VALUE.<br>
+     * [JSON -&gt; Java]
+     */
+    public int getMaxObjectMembers() {
+        return maxObjectMembers;
+    }
+
+    /**
+     * Returns the maximum number of characters of a string in parsed JSON text,
+     * after escapes are processed.<br>
+     * Default value is Integer.MAX_VALUE.<br>
+     * [JSON -&gt; Java]
+     */
+    public int getMaxStringLength() {
+        return maxStringLength;
+    }
+
+    /**
+     * Returns the maximum number of characters of parsed JSON text.<br>
+     * Default value is Long.MAX_VALUE.<br>
+     * [JSON -&gt; Java]
+     */
+    public long getMaxTextLength() {
+        return maxTextLength;
+    }
+
     /**
      * Returns a set of default excludes with user-defined excludes.<br>
      * [Java -&gt; JSON]
      */
-    public Collection getMergedExcludes() {
+    public Collection<String> getMergedExcludes() {
+        return lookups != null ? lookups.excludes : mergeExcludes();
+    }
+
+    private Collection<String> mergeExcludes() {
         Collection<String> exclusions = new HashSet<String>();
         for (String exclusion : excludes) {
             if (exclusion != null && !exclusion.isBlank()) {
@@ -632,19 +832,27 @@ public class JsonConfig {
      * Takes into account any additional excludes per matching class.
      * [Java -&gt; JSON]
      */
-    public Collection getMergedExcludes(Class target) {
+    public Collection<String> getMergedExcludes(Class<?> target) {
         if (target == null) {
             return getMergedExcludes();
         }
+        if (lookups != null) {
+            // merged excludes are never null, so they need no NONE placeholder
+            return lookups.mergedExcludes.computeIfAbsent(
+                    target, type -> Collections.unmodifiableCollection(mergeExcludes(type)));
+        }
+        return mergeExcludes(target);
+    }
 
-        Collection exclusionSet = getMergedExcludes();
+    private Collection<String> mergeExcludes(Class<?> target) {
+        Collection<String> exclusionSet = mergeExcludes();
         if (!exclusionMap.isEmpty()) {
             Object key = propertyExclusionClassMatcher.getMatch(target, exclusionMap.keySet());
-            Set set = (Set) exclusionMap.get(key);
+            Set<?> set = (Set<?>) exclusionMap.get(key);
             if (set != null && !set.isEmpty()) {
                 for (Object e : set) {
                     if (!exclusionSet.contains(e)) {
-                        exclusionSet.add(e);
+                        exclusionSet.add((String) e);
                     }
                 }
             }
@@ -694,6 +902,8 @@ public class JsonConfig {
 
     /**
      * Returns the current root Class.<br>
+     * It stays the class of the outermost bean while nested beans are
+     * converted; see {@link JSONObject#toBean(JSONObject, JsonConfig)}.<br>
      * [JSON -&gt; Java]
      *
      * @return the target class for conversion
@@ -702,6 +912,15 @@ public class JsonConfig {
         return rootClass;
     }
 
+    /**
+     * Returns true if a JsonValueProcessor is registered for a type or a key,
+     * rather than for the properties of a bean class.<br>
+     * [Java -&gt; JSON]
+     */
+    boolean hasJsonValueProcessors() {
+        return !typeMap.isEmpty() || !keyMap.isEmpty();
+    }
+
     /**
      * Returns true if non-String keys are allowed on JSONObject.<br>
      * Default value is false<br>
@@ -720,6 +939,24 @@ public class JsonConfig {
         return triggerEvents;
     }
 
+    /**
+     * Returns true if this configuration was returned by freeze() and can not
+     * be changed.
+     */
+    public boolean isFrozen() {
+        return lookups != null;
+    }
+
+    /**
+     * Returns true if syntax errors in parsed JSON text include the whole text.<br>
+     * Default value is false, the message only shows the position of the error
+     * and a few characters around it.<br>
+     * [JSON -&gt; Java]
+     */
+    public boolean isFullSourceInSyntaxErrors() {
+        return fullSourceInSyntaxErrors;
+    }
+
     /**
      * Returns true if this Jettison convention will be handled when converting to Java.<br>
      * Jettison assumes that "" (empty string) can be assigned to empty elements (objects), which
@@ -785,6 +1022,26 @@ public class JsonConfig {
         return javascriptCompliant;
     }
 
+    /**
+     * Returns true if the objects and arrays nested in a JSON text given as a
+     * String are parsed when they are first accessed.<br>
+     * Default value is false.<br>
+     * [JSON -&gt; Java]
+     */
+    public boolean isLazyParsing() {
+        return lazyParsing;
+    }
+
+    /**
+     * Returns true if the elements of a large JSON array given as a String are
+     * parsed by several threads.<br>
+     * Default value is false.<br>
+     * [JSON -&gt; Java]
+     */
+    public boolean isParallelParsing() {
+        return parallelParsing;
+    }
+
     /**
      * Returns true if map keys will not be transformed.<br>
      * Default value is false.<br>
@@ -794,6 +1051,16 @@ public class JsonConfig {
         return skipJavaIdentifierTransformationInMapKeys;
     }
 
+    /**
+     * Returns true if JSON texts given as Strings are parsed in two passes, the
+     * first one building an index of their structural characters.<br>
+     * Default value is false.<br>
+     * [JSON -&gt; Java]
+     */
+    public boolean isStructuralIndexParsing() {
+        return structuralIndexParsing;
+    }
+
     /**
      * Registers a DefaultValueProcessor.<br>
      * [Java -&gt; JSON]
@@ -802,6 +1069,7 @@ public class JsonConfig {
      * @param defaultValueProcessor the processor to register
      */
     public void registerDefaultValueProcessor(Class target, DefaultValueProcessor defaultValueProcessor) {
+        checkFrozen();
         if (target != null && defaultValueProcessor != null) {
             defaultValueMap.put(target, defaultValueProcessor);
         }
@@ -815,6 +1083,8 @@ public class JsonConfig {
      * @param propertyNameProcessor the processor to register
      */
     public void registerJavaPropertyNameProcessor(Class target, PropertyNameProcessor propertyNameProcessor) {
+        checkFrozen();
+        beanBinders.clear();
         if (target != null && propertyNameProcessor != null) {
             javaPropertyNameProcessorMap.put(target, propertyNameProcessor);
         }
@@ -828,6 +1098,7 @@ public class JsonConfig {
      * @param jsonBeanProcessor the processor to register
      */
     public void registerJsonBeanProcessor(Class target, JsonBeanProcessor jsonBeanProcessor) {
+        checkFrozen();
         if (target != null && jsonBeanProcessor != null) {
             beanProcessorMap.put(target, jsonBeanProcessor);
         }
@@ -841,6 +1112,8 @@ public class JsonConfig {
      * @param propertyNameProcessor the processor to register
      */
     public void registerJsonPropertyNameProcessor(Class target, PropertyNameProcessor propertyNameProcessor) {
+        checkFrozen();
+        beanPlans.clear();
         if (target != null && propertyNameProcessor != null) {
             jsonPropertyNameProcessorMap.put(target, propertyNameProcessor);
         }
@@ -855,6 +1128,8 @@ public class JsonConfig {
      * @param jsonValueProcessor the processor to register
      */
     public void registerJsonValueProcessor(Class beanClass, Class propertyType, JsonValueProcessor jsonValueProcessor) {
+        checkFrozen();
+        beanPlans.clear();
         if (beanClass != null && propertyType != null && jsonValueProcessor != null) {
             Map<Class<?>, JsonValueProcessor> innerTypeMap =
                     beanTypeMap.computeIfAbsent(beanClass, unused -> new HashMap<>());
@@ -870,6 +1145,8 @@ public class JsonConfig {
      * @param jsonValueProcessor the processor to register
      */
     public void registerJsonValueProcessor(Class propertyType, JsonValueProcessor jsonValueProcessor) {
+        checkFrozen();
+        beanPlans.clear();
         if (propertyType != null && jsonValueProcessor != null) {
             typeMap.put(propertyType, jsonValueProcessor);
         }
@@ -884,6 +1161,8 @@ public class JsonConfig {
      * @param jsonValueProcessor the processor to register
      */
     public void registerJsonValueProcessor(Class beanClass, String key, JsonValueProcessor jsonValueProcessor) {
+        checkFrozen();
+        beanPlans.clear();
         if (beanClass != null && key != null && jsonValueProcessor != null) {
             Map<String, JsonValueProcessor> innerKeyMap =
                     beanKeyMap.computeIfAbsent(beanClass, unused -> new HashMap<>());
@@ -899,6 +1178,8 @@ public class JsonConfig {
      * @param jsonValueProcessor the processor to register
      */
     public void registerJsonValueProcessor(String key, JsonValueProcessor jsonValueProcessor) {
+        checkFrozen();
+        beanPlans.clear();
         if (key != null && jsonValueProcessor != null) {
             keyMap.put(key, jsonValueProcessor);
         }
@@ -912,6 +1193,8 @@ public class JsonConfig {
      * @param propertyName the property to be excluded
      */
     public void registerPropertyExclusion(Class target, String propertyName) {
+        checkFrozen();
+        beanPlans.clear();
         if (target != null && propertyName != null) {
             Set set = (Set) exclusionMap.get(target);
             if (set == null) {
@@ -932,6 +1215,8 @@ public class JsonConfig {
      * @param properties the properties to be excluded
      */
     public void registerPropertyExclusions(Class target, String[] properties) {
+        checkFrozen();
+        beanPlans.clear();
         if (target != null && properties != null && properties.length > 0) {
             Set set = (Set) exclusionMap.get(target);
             if (set == null) {
@@ -968,6 +1253,7 @@ public class JsonConfig {
      * @param listener a listener for events
      */
     public synchronized void removeJsonEventListener(JsonEventListener listener) {
+        checkFrozen();
         eventListeners.remove(listener);
     }
 
@@ -975,6 +1261,9 @@ public class JsonConfig {
      * Resets all values to its default state.
      */
     public void reset() {
+        checkFrozen();
+        beanBinders.clear();
+        beanPlans.clear();
         excludes = EMPTY_EXCLUDES;
         ignoreDefaultExcludes = false;
         ignoreTransientFields = false;
@@ -983,13 +1272,24 @@ public class JsonConfig {
         javaIdentifierTransformer = DEFAULT_JAVA_IDENTIFIER_TRANSFORMER;
         cycleDetectionStrategy = DEFAULT_CYCLE_DETECTION_STRATEGY;
         skipJavaIdentifierTransformationInMapKeys = false;
+        structuralIndexParsing = false;
         triggerEvents = false;
+        fullSourceInSyntaxErrors = false;
         handleJettisonEmptyElement = false;
         handleJettisonSingleElementArray = false;
         arrayMode = MODE_LIST;
         rootClass = null;
         classMap = null;
+        keyCache = null;
         keyMap.clear();
+        lazyParsing = false;
+        maxArrayElements = Integer.MAX_VALUE;
+        maxNestingDepth = DEFAULT_MAX_NESTING_DEPTH;
+        maxNumberLength = Integer.MAX_VALUE;
+        maxObjectMembers = Integer.MAX_VALUE;
+        maxStringLength = Integer.MAX_VALUE;
+        maxTextLength = Long.MAX_VALUE;
+        parallelParsing = false;
         typeMap.clear();
         beanKeyMap.clear();
         beanTypeMap.clear();
@@ -1020,6 +1320,7 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void setAllowNonStringKeys(boolean allowNonStringKeys) {
+        checkFrozen();
         this.allowNonStringKeys = allowNonStringKeys;
     }
 
@@ -1032,6 +1333,7 @@ public class JsonConfig {
      */
     @SuppressFBWarnings(value = "UC_USELESS_CONDITION", justification = "TODO needs triage")
     public void setArrayMode(int arrayMode) {
+        checkFrozen();
         if (arrayMode == MODE_OBJECT_ARRAY) {
             this.arrayMode = arrayMode;
         } else if (arrayMode == MODE_SET) {
@@ -1050,6 +1352,7 @@ public class JsonConfig {
      * @param classMap a Map of classes, every key identifies a property or a regexp
      */
     public void setClassMap(Map classMap) {
+        checkFrozen();
         this.classMap = classMap;
     }
 
@@ -1060,6 +1363,7 @@ public class JsonConfig {
      * @param collectionType the target collection class for conversion
      */
     public void setCollectionType(Class collectionType) {
+        checkFrozen();
         if (collectionType != null) {
             if (!Collection.class.isAssignableFrom(collectionType)) {
                 throw new JSONException(
@@ -1077,6 +1381,7 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void setCycleDetectionStrategy(CycleDetectionStrategy cycleDetectionStrategy) {
+        checkFrozen();
         this.cycleDetectionStrategy =
                 cycleDetectionStrategy == null ? DEFAULT_CYCLE_DETECTION_STRATEGY : cycleDetectionStrategy;
     }
@@ -1087,6 +1392,7 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void setDefaultValueProcessorMatcher(DefaultValueProcessorMatcher defaultValueProcessorMatcher) {
+        checkFrozen();
         this.defaultValueProcessorMatcher = defaultValueProcessorMatcher == null
                 ? DEFAULT_DEFAULT_VALUE_PROCESSOR_MATCHER
                 : defaultValueProcessorMatcher;
@@ -1099,6 +1405,7 @@ public class JsonConfig {
      * @param enclosedType the target type for conversion
      */
     public void setEnclosedType(Class enclosedType) {
+        checkFrozen();
         this.enclosedType = enclosedType;
     }
 
@@ -1108,9 +1415,22 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void setExcludes(String[] excludes) {
+        checkFrozen();
+        beanPlans.clear();
         this.excludes = excludes == null ? EMPTY_EXCLUDES : excludes;
     }
 
+    /**
+     * Sets if syntax errors in parsed JSON text include the whole text.<br>
+     * Leave it off for large or untrusted payloads, the text is copied into
+     * every error message.<br>
+     * [JSON -&gt; Java]
+     */
+    public void setFullSourceInSyntaxErrors(boolean fullSourceInSyntaxErrors) {
+        checkFrozen();
+        this.fullSourceInSyntaxErrors = fullSourceInSyntaxErrors;
+    }
+
     /**
      * Activate/Deactivate handling this jettison convention when converting to Java.<br>
      * Jettison states that "" (empty string) can be assigned to empty elements (objects), which
@@ -1118,6 +1438,7 @@ public class JsonConfig {
      * [JSON -&gt; Java]
      */
     public void setHandleJettisonEmptyElement(boolean handleJettisonEmptyElement) {
+        checkFrozen();
         this.handleJettisonEmptyElement = handleJettisonEmptyElement;
     }
 
@@ -1128,6 +1449,7 @@ public class JsonConfig {
      * [JSON -&gt; Java]
      */
     public void setHandleJettisonSingleElementArray(boolean handleJettisonSingleElementArray) {
+        checkFrozen();
         this.handleJettisonSingleElementArray = handleJettisonSingleElementArray;
     }
 
@@ -1136,6 +1458,8 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void setIgnoreDefaultExcludes(boolean ignoreDefaultExcludes) {
+        checkFrozen();
+        beanPlans.clear();
         this.ignoreDefaultExcludes = ignoreDefaultExcludes;
     }
 
@@ -1144,6 +1468,7 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void setIgnoreJPATransient(boolean ignoreJPATransient) {
+        checkFrozen();
         if (ignoreJPATransient) {
             addIgnoreFieldAnnotation("javax.persistence.Transient");
         } else {
@@ -1156,6 +1481,8 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void addIgnoreFieldAnnotation(String annotationClassName) {
+        checkFrozen();
+        beanPlans.clear();
         if (annotationClassName != null && !ignoreFieldAnnotations.contains(annotationClassName)) {
             ignoreFieldAnnotations.add(annotationClassName);
         }
@@ -1166,6 +1493,8 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void removeIgnoreFieldAnnotation(String annotationClassName) {
+        checkFrozen();
+        beanPlans.clear();
         if (annotationClassName != null) {
             ignoreFieldAnnotations.remove(annotationClassName);
         }
@@ -1176,6 +1505,8 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void addIgnoreFieldAnnotation(Class annotationClass) {
+        checkFrozen();
+        beanPlans.clear();
         if (annotationClass != null && !ignoreFieldAnnotations.contains(annotationClass.getName())) {
             ignoreFieldAnnotations.add(annotationClass.getName());
         }
@@ -1186,6 +1517,8 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void removeIgnoreFieldAnnotation(Class annotationClass) {
+        checkFrozen();
+        beanPlans.clear();
         if (annotationClass != null) {
             ignoreFieldAnnotations.remove(annotationClass.getName());
         }
@@ -1204,6 +1537,8 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void setIgnoreTransientFields(boolean ignoreTransientFields) {
+        checkFrozen();
+        beanPlans.clear();
         this.ignoreTransientFields = ignoreTransientFields;
     }
 
@@ -1212,6 +1547,9 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void setIgnorePublicFields(boolean ignorePublicFields) {
+        checkFrozen();
+        beanBinders.clear();
+        beanPlans.clear();
         this.ignorePublicFields = ignorePublicFields;
     }
 
@@ -1220,6 +1558,7 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void setJavascriptCompliant(boolean javascriptCompliant) {
+        checkFrozen();
         this.javascriptCompliant = javascriptCompliant;
     }
 
@@ -1229,6 +1568,8 @@ public class JsonConfig {
      * [JSON -&gt; Java]
      */
     public void setJavaIdentifierTransformer(JavaIdentifierTransformer javaIdentifierTransformer) {
+        checkFrozen();
+        beanBinders.clear();
         this.javaIdentifierTransformer =
                 javaIdentifierTransformer == null ? DEFAULT_JAVA_IDENTIFIER_TRANSFORMER : javaIdentifierTransformer;
     }
@@ -1240,6 +1581,7 @@ public class JsonConfig {
      * @param javaPropertyFilter the property filter
      */
     public void setJavaPropertyFilter(PropertyFilter javaPropertyFilter) {
+        checkFrozen();
         this.javaPropertyFilter = javaPropertyFilter;
     }
 
@@ -1249,6 +1591,8 @@ public class JsonConfig {
      * [JSON -&gt; Java]
      */
     public void setJavaPropertyNameProcessorMatcher(PropertyNameProcessorMatcher propertyNameProcessorMatcher) {
+        checkFrozen();
+        beanBinders.clear();
         this.javaPropertyNameProcessorMatcher = propertyNameProcessorMatcher == null
                 ? DEFAULT_PROPERTY_NAME_PROCESSOR_MATCHER
                 : propertyNameProcessorMatcher;
@@ -1260,6 +1604,7 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void setJsonBeanProcessorMatcher(JsonBeanProcessorMatcher jsonBeanProcessorMatcher) {
+        checkFrozen();
         this.jsonBeanProcessorMatcher =
                 jsonBeanProcessorMatcher == null ? DEFAULT_JSON_BEAN_PROCESSOR_MATCHER : jsonBeanProcessorMatcher;
     }
@@ -1271,6 +1616,7 @@ public class JsonConfig {
      * @param jsonPropertyFilter the property filter
      */
     public void setJsonPropertyFilter(PropertyFilter jsonPropertyFilter) {
+        checkFrozen();
         this.jsonPropertyFilter = jsonPropertyFilter;
     }
 
@@ -1280,6 +1626,8 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void setJsonPropertyNameProcessorMatcher(PropertyNameProcessorMatcher propertyNameProcessorMatcher) {
+        checkFrozen();
+        beanPlans.clear();
         this.jsonPropertyNameProcessorMatcher = propertyNameProcessorMatcher == null
                 ? DEFAULT_PROPERTY_NAME_PROCESSOR_MATCHER
                 : propertyNameProcessorMatcher;
@@ -1291,26 +1639,142 @@ public class JsonConfig {
      * [Java -&gt; JSON]
      */
     public void setJsonValueProcessorMatcher(JsonValueProcessorMatcher jsonValueProcessorMatcher) {
+        checkFrozen();
+        beanPlans.clear();
         this.jsonValueProcessorMatcher =
                 jsonValueProcessorMatcher == null ? DEFAULT_JSON_VALUE_PROCESSOR_MATCHER : jsonValueProcessorMatcher;
     }
 
+    /**
+     * Sets the maximum number of elements of a JSONArray parsed from JSON text.
+     * Parsing fails with a JSONException as soon as an array grows past it.<br>
+     * [JSON -&gt; Java]
+     *
+     * @param maxArrayElements the maximum number of elements
+     */
+    public void setMaxArrayElements(int maxArrayElements) {
+        checkFrozen();
+        if (maxArrayElements < 0) {
+            throw new IllegalArgumentException("maxArrayElements is negative");
+        }
+        this.maxArrayElements = maxArrayElements;
+    }
+
+    /**
+     * Sets the maximum number of nested objects and arrays allowed when parsing
+     * JSON text, the outermost one included. Deeper text fails with a
+     * JSONException as soon as the limit is crossed.<br>
+     * [JSON -&gt; Java]
+     *
+     * @param maxNestingDepth the maximum depth, at least 1
+     */
+    public void setMaxNestingDepth(int maxNestingDepth) {
+        checkFrozen();
+        if (maxNestingDepth < 1) {
+            throw new IllegalArgumentException("maxNestingDepth must be at least 1");
+        }
+        this.maxNestingDepth = maxNestingDepth;
+    }
+
+    /**
+     * Sets the maximum number of characters of a number in parsed JSON text.
+     * Longer numbers fail with a JSONException before they are converted.<br>
+     * [JSON -&gt; Java]
+     *
+     * @param maxNumberLength the maximum number of characters
+     */
+    public void setMaxNumberLength(int maxNumberLength) {
+        checkFrozen();
+        if (maxNumberLength < 0) {
+            throw new IllegalArgumentException("maxNumberLength is negative");
+        }
+        this.maxNumberLength = maxNumberLength;
+    }
+
+    /**
+     * Sets the maximum number of properties of a JSONObject parsed from JSON
+     * text. Parsing fails with a JSONException as soon as an object grows past
+     * it.<br>
+     * [JSON -&gt; Java]
+     *
+     * @param maxObjectMembers the maximum number of properties
+     */
+    public void setMaxObjectMembers(int maxObjectMembers) {
+        checkFrozen();
+        if (maxObjectMembers < 0) {
+            throw new IllegalArgumentException("maxObjectMembers is negative");
+        }
+        this.maxObjectMembers = maxObjectMembers;
+    }
+
+    /**
+     * Sets the maximum number of characters of a string in parsed JSON text,
+     * keys and unquoted strings included. Longer strings fail with a
+     * JSONException while they are being read.<br>
+     * [JSON -&gt; Java]
+     *
+     * @param maxStringLength the maximum number of characters
+     */
+    public void setMaxStringLength(int maxStringLength) {
+        checkFrozen();
+        if (maxStringLength < 0) {
+            throw new IllegalArgumentException("maxStringLength is negative");
+        }
+        this.maxStringLength = maxStringLength;
+    }
+
+    /**
+     * Sets the maximum number of characters of parsed JSON text. Text read from
+     * a JSONStreamTokener fails with a JSONException as soon as more characters
+     * than this have been read.<br>
+     * [JSON -&gt; Java]
+     *
+     * @param maxTextLength the maximum number of characters
+     */
+    public void setMaxTextLength(long maxTextLength) {
+        checkFrozen();
+        if (maxTextLength < 0) {
+            throw new IllegalArgumentException("maxTextLength is negative");
+        }
+        this.maxTextLength = maxTextLength;
+    }
+
     /**
      * Sets the NewBeanInstanceStrategy to use.<br>
      * Will set default value (NewBeanInstanceStrategy.DEFAULT) if null.<br>
      * [JSON -&gt; Java]
      */
     public void setNewBeanInstanceStrategy(NewBeanInstanceStrategy newBeanInstanceStrategy) {
+        checkFrozen();
         this.newBeanInstanceStrategy =
                 newBeanInstanceStrategy == null ? DEFAULT_NEW_BEAN_INSTANCE_STRATEGY : newBeanInstanceStrategy;
     }
 
+    /**
+     * Sets if the elements of a large JSON array given as a String are parsed
+     * by several threads.<br>
+     * The text is split between two top level elements into chunks that are
+     * parsed as ForkJoinTasks, in the pool of the calling task or in the common
+     * pool, and joined in order. Only arrays of at least 128K characters that
+     * the structural index can describe (see
+     * {@link #setStructuralIndexParsing(boolean)}) are split, and never while
+     * events are triggered. The configuration, and anything it holds such as
+     * processors, filters and the KeyCache, is used by every thread at once.<br>
+     * [JSON -&gt; Java]
+     */
+    public void setParallelParsing(boolean parallelParsing) {
+        checkFrozen();
+        this.parallelParsing = parallelParsing;
+    }
+
     /**
      * Sets a PropertyExclusionClassMatcher to use.<br>
      * Will set default value (PropertyExclusionClassMatcher.DEFAULT) if null.<br>
      * [Java -&gt; JSON]
      */
     public void setPropertyExclusionClassMatcher(PropertyExclusionClassMatcher propertyExclusionClassMatcher) {
+        checkFrozen();
+        beanPlans.clear();
         this.propertyExclusionClassMatcher = propertyExclusionClassMatcher == null
                 ? DEFAULT_PROPERTY_EXCLUSION_CLASS_MATCHER
                 : propertyExclusionClassMatcher;
@@ -1334,9 +1798,50 @@ public class JsonConfig {
      * [JSON -&gt; Java]
      */
     public void setPropertySetStrategy(PropertySetStrategy propertySetStrategy) {
+        checkFrozen();
+        beanBinders.clear();
         this.propertySetStrategy = propertySetStrategy;
     }
 
+    /**
+     * Sets the cache used to canonicalize the keys of parsed objects, so that
+     * repeated keys share a single String instance. The cache may be shared
+     * between configurations and threads.<br>
+     * [JSON -&gt; Java]
+     *
+     * @param keyCache the cache to use, or null to keep every parsed key
+     */
+    public void setKeyCache(KeyCache keyCache) {
+        checkFrozen();
+        this.keyCache = keyCache;
+    }
+
+    /**
+     * Sets if the objects and arrays nested in a JSON text given as a String
+     * are parsed when they are first accessed, rather than up front.<br>
+     * Only the members of the outermost object or array are read; a nested
+     * value stays a range of the source until it is read through get(), opt(),
+     * iteration or comparison, and only its own members are parsed then, with
+     * a frozen copy of this configuration taken when the text was parsed.
+     * Only nested values in strict JSON that would be written back as they
+     * are, without duplicate or excluded keys, are left unparsed; toString()
+     * and write() copy the ranges that were never read without their
+     * whitespace, so they write the same text either way.<br>
+     * Every unparsed value keeps the whole source String and its structural
+     * index from being collected until it is read. Reading a value replaces
+     * the range with the parsed value in its container, so a tree parsed
+     * lazily is not safe for several threads reading it at once without
+     * external synchronization. Texts that the structural index can not
+     * describe (see {@link #setStructuralIndexParsing(boolean)}), and parsing
+     * with events, a JSON property filter or JsonValueProcessors registered
+     * for types or keys, are parsed up front.<br>
+     * [JSON -&gt; Java]
+     */
+    public void setLazyParsing(boolean lazyParsing) {
+        checkFrozen();
+        this.lazyParsing = lazyParsing;
+    }
+
     /**
      * Sets the current root Class.<br>
      * [JSON -&gt; Java]
@@ -1344,6 +1849,7 @@ public class JsonConfig {
      * @param rootClass the target class for conversion
      */
     public void setRootClass(Class rootClass) {
+        checkFrozen();
         this.rootClass = rootClass;
     }
 
@@ -1352,9 +1858,24 @@ public class JsonConfig {
      * [JSON -&gt; Java]
      */
     public void setSkipJavaIdentifierTransformationInMapKeys(boolean skipJavaIdentifierTransformationInMapKeys) {
+        checkFrozen();
+        beanBinders.clear();
         this.skipJavaIdentifierTransformationInMapKeys = skipJavaIdentifierTransformationInMapKeys;
     }
 
+    /**
+     * Sets if JSON texts given as Strings are parsed in two passes: a first one
+     * that records the positions of their brackets and separators, and a second
+     * one that builds the tree from those positions, skipping excluded values
+     * without reading them. Texts that use comments or '=' separators, and
+     * parsing with events enabled, go through the regular parser.<br>
+     * [JSON -&gt; Java]
+     */
+    public void setStructuralIndexParsing(boolean structuralIndexParsing) {
+        checkFrozen();
+        this.structuralIndexParsing = structuralIndexParsing;
+    }
+
     /**
      * Removes a DefaultValueProcessor.<br>
      * [Java -&gt; JSON]
@@ -1362,6 +1883,7 @@ public class JsonConfig {
      * @param target a class used for searching a DefaultValueProcessor.
      */
     public void unregisterDefaultValueProcessor(Class target) {
+        checkFrozen();
         if (target != null) {
             defaultValueMap.remove(target);
         }
@@ -1374,6 +1896,8 @@ public class JsonConfig {
      * @param target a class used for searching a PropertyNameProcessor.
      */
     public void unregisterJavaPropertyNameProcessor(Class target) {
+        checkFrozen();
+        beanBinders.clear();
         if (target != null) {
             javaPropertyNameProcessorMap.remove(target);
         }
@@ -1386,6 +1910,7 @@ public class JsonConfig {
      * @param target a class used for searching a JsonBeanProcessor.
      */
     public void unregisterJsonBeanProcessor(Class target) {
+        checkFrozen();
         if (target != null) {
             beanProcessorMap.remove(target);
         }
@@ -1398,6 +1923,8 @@ public class JsonConfig {
      * @param target a class used for searching a PropertyNameProcessor.
      */
     public void unregisterJsonPropertyNameProcessor(Class target) {
+        checkFrozen();
+        beanPlans.clear();
         if (target != null) {
             jsonPropertyNameProcessorMap.remove(target);
         }
@@ -1410,6 +1937,8 @@ public class JsonConfig {
      * @param propertyType a class used for searching a JsonValueProcessor.
      */
     public void unregisterJsonValueProcessor(Class propertyType) {
+        checkFrozen();
+        beanPlans.clear();
         if (propertyType != null) {
             typeMap.remove(propertyType);
         }
@@ -1423,6 +1952,8 @@ public class JsonConfig {
      * @param propertyType the type of the property
      */
     public void unregisterJsonValueProcessor(Class beanClass, Class propertyType) {
+        checkFrozen();
+        beanPlans.clear();
         if (beanClass != null && propertyType != null) {
             Map<Class<?>, JsonValueProcessor> innerTypeMap = beanTypeMap.get(beanClass);
             if (innerTypeMap != null) {
@@ -1439,6 +1970,8 @@ public class JsonConfig {
      * @param key the name of the property which may belong to the target class
      */
     public void unregisterJsonValueProcessor(Class beanClass, String key) {
+        checkFrozen();
+        beanPlans.clear();
         if (beanClass != null && key != null) {
             Map<String, JsonValueProcessor> innerKeyMap = beanKeyMap.get(beanClass);
             if (innerKeyMap != null) {
@@ -1454,6 +1987,8 @@ public class JsonConfig {
      * @param key the name of the property which may belong to the target class
      */
     public void unregisterJsonValueProcessor(String key) {
+        checkFrozen();
+        beanPlans.clear();
         if (key != null) {
             keyMap.remove(key);
         }
@@ -1467,6 +2002,8 @@ public class JsonConfig {
      * @param propertyName the name of the property to be removed from the exclusion list.
      */
     public void unregisterPropertyExclusion(Class target, String propertyName) {
+        checkFrozen();
+        beanPlans.clear();
         if (target != null && propertyName != null) {
             Set set = (Set) exclusionMap.get(target);
             if (set == null) {
@@ -1484,6 +2021,8 @@ public class JsonConfig {
      * @param target a class used for searching property exclusions.
      */
     public void unregisterPropertyExclusions(Class target) {
+        checkFrozen();
+        beanPlans.clear();
         if (target != null) {
             Set set = (Set) exclusionMap.get(target);
             if (set != null) {
@@ -1504,4 +2043,48 @@ public class JsonConfig {
     public void unregisterPropertyNameProcessor(Class target) {
         unregisterJavaPropertyNameProcessor(target);
     }
+
+    private void checkFrozen() {
+        if (lookups != null) {
+            throw new UnsupportedOperationException("JsonConfig is frozen");
+        }
+    }
+
+    /**
+     * What a frozen JsonConfig has looked up so far, per class. A lookup that
+     * finds nothing is kept as NONE, as a ConcurrentHashMap holds no nulls.
+     */
+    private static final class Lookups {
+        private static final Object NONE = new Object();
+
+        /**
+         * Returns what find returns for target, finding it once per class.
+         */
+        static Object get(Map<Class<?>, Object> found, Class<?> target, Function<Class<?>, Object> find) {
+            if (target == null) {
+                return find.apply(null);
+            }
+            Object value = found.get(target);
+            if (value == null) {
+                value = find.apply(target);
+                found.putIfAbsent(target, value != null ? value : NONE);
+                return value;
+            }
+            return value != NONE ? value : null;
+        }
+
+        final Map<Class<?>, Object> defaultValueProcessors = new ConcurrentHashMap<>();
+        /** the merged excludes of the configuration */
+        final Collection<String> excludes;
+        final Map<Class<?>, Object> javaPropertyNameProcessors = new ConcurrentHashMap<>();
+        final Map<Class<?>, Object> jsonBeanProcessors = new ConcurrentHashMap<>();
+        final Map<Class<?>, Object> jsonPropertyNameProcessors = new ConcurrentHashMap<>();
+        final Map<Class<?>, Object> jsonValueProcessors = new ConcurrentHashMap<>();
+        /** the merged excludes per class */
+        final Map<Class<?>, Collection<String>> mergedExcludes = new ConcurrentHashMap<>();
+
+        Lookups(Collection<String> excludes) {
+            this.excludes = excludes;
+        }
+    }
 }
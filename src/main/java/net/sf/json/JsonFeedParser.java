@@ -0,0 +1,486 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import net.sf.json.util.JSONByteTokener;
+
+/**
+ * A non-blocking parser that is fed UTF-8 encoded JSON text in chunks of any
+ * size, as they arrive, and hands out every top-level JSONObject or JSONArray
+ * as soon as its last byte has been fed.<br>
+ * The bytes are tokenized as they are fed, and the tree is built from each
+ * token as soon as it is complete: containers are opened and closed, and keys
+ * and values are added, with the same JsonConfig handling (excludes, property
+ * filters, key cache, limits and JsonEventListener events) as the regular
+ * parser. Between two chunks only the state of the tokenizer, the bytes of a
+ * token that is not complete yet and the stack of open containers are kept, so
+ * a large value does not have to be held as text before it can be built.
+ * Strings, numbers and other unquoted values are read with
+ * {@link JSONByteTokener}, so the lenient grammar of JSONTokener applies; only
+ * an object or an array used as a key is not supported. The text may hold any
+ * number of values separated by whitespace, as in a JSON Lines stream.
+ *
+ * <pre>
+ * JsonFeedParser parser = new JsonFeedParser(jsonConfig);
+ * // whenever a chunk arrives
+ * parser.feed(chunk);
+ * while (parser.hasNext()) {
+ *     handle(parser.next());
+ * }
+ * // once the input is complete
+ * parser.endOfInput();</pre>
+ *
+ * @author JSON.org
+ */
+public class JsonFeedParser {
+    /*
+     * The states of the tokenizer.
+     */
+    private static final int BLOCK_COMMENT = 1;
+    private static final int BLOCK_COMMENT_STAR = 2;
+    private static final int EQUALS = 3;
+    private static final int LINE_COMMENT = 4;
+    private static final int NORMAL = 0;
+    private static final int SLASH = 5;
+    private static final int STRING = 6;
+    private static final int STRING_ESCAPE = 7;
+    private static final int UNQUOTED = 8;
+
+    /*
+     * What the grammar expects next.
+     */
+    private static final int COLON = 0;
+    private static final int ELEMENT = 1;
+    private static final int KEY = 2;
+    private static final int SEPARATOR = 3;
+    private static final int TOP = 4;
+    private static final int VALUE = 5;
+
+    /**
+     * The characters that end an unquoted value, as in JSONTokener.
+     */
+    private static final String TERMINATORS = ",:]}/\\\"[{;=#";
+
+    private int depth;
+    private boolean ended;
+    private int expect = TOP;
+    private final JsonConfig jsonConfig;
+    private final int maxDepth;
+    private final long maxTextLength;
+    private final long maxTokenLength;
+    private boolean[] objects = new boolean[16];
+    private long position;
+    private byte quote;
+    private int skipDepth = -1;
+    private int state = NORMAL;
+    private byte[] token = new byte[64];
+    private int tokenLength;
+    private long tokenStart;
+    private final JSONTreeParser tree;
+    private long valueLength;
+    private final ArrayDeque<JSON> values = new ArrayDeque<>();
+
+    /**
+     * Creates a JsonFeedParser with a default configuration.
+     */
+    public JsonFeedParser() {
+        this(new JsonConfig());
+    }
+
+    /**
+     * Creates a JsonFeedParser.
+     *
+     * @param jsonConfig the configuration used to build the values, whose
+     *        limits are checked while the chunks are fed
+     */
+    public JsonFeedParser(JsonConfig jsonConfig) {
+        this.jsonConfig = jsonConfig != null ? jsonConfig : new JsonConfig();
+        this.maxDepth = this.jsonConfig.getMaxNestingDepth();
+        this.maxTextLength = this.jsonConfig.getMaxTextLength();
+        // a character of a string takes at most 6 bytes, as an escape sequence
+        this.maxTokenLength = 6L * Math.max(this.jsonConfig.getMaxStringLength(),
+                this.jsonConfig.getMaxNumberLength()) + 3;
+        this.tree = JSONTreeParser.forFeed(this, this.jsonConfig);
+    }
+
+    /**
+     * Signals that all the input has been fed.
+     *
+     * @throws JSONException if the input ends inside a value
+     */
+    public void endOfInput() {
+        ended = true;
+        try {
+            if (state == SLASH) {
+                throw syntaxError(unexpected(), position - 1);
+            }
+            if (depth > 0 || state == BLOCK_COMMENT || state == BLOCK_COMMENT_STAR) {
+                throw syntaxError("Unexpected end of input");
+            }
+        } catch (JSONException jsone) {
+            tree.fireErrorEvents(jsone);
+            throw jsone;
+        }
+    }
+
+    /**
+     * Feeds the remaining bytes of a buffer, which are all consumed.
+     *
+     * @param chunk the next bytes of the input
+     * @throws JSONException if the input so far is not valid JSON text
+     * @throws IllegalStateException if endOfInput() has been called
+     */
+    public void feed(ByteBuffer chunk) {
+        if (ended) {
+            throw new IllegalStateException("endOfInput() has been called");
+        }
+        int length = chunk.remaining();
+        if (chunk.hasArray()) {
+            feed(chunk.array(), chunk.arrayOffset() + chunk.position(), length);
+            chunk.position(chunk.position() + length);
+            return;
+        }
+        byte[] block = new byte[Math.min(length, 8192)];
+        while (chunk.hasRemaining()) {
+            int n = Math.min(chunk.remaining(), block.length);
+            chunk.get(block, 0, n);
+            feed(block, 0, n);
+        }
+    }
+
+    /**
+     * Feeds a region of a byte array.
+     *
+     * @param bytes the array holding the next bytes of the input
+     * @param off the index of the first byte
+     * @param len the number of bytes
+     * @throws JSONException if the input so far is not valid JSON text
+     * @throws IllegalStateException if endOfInput() has been called
+     */
+    public void feed(byte[] bytes, int off, int len) {
+        if (ended) {
+            throw new IllegalStateException("endOfInput() has been called");
+        }
+        try {
+            for (int i = off, end = off + len; i < end; i++, position++) {
+                if (depth > 0 && ++valueLength > maxTextLength) {
+                    throw new JSONException("JSON text exceeds the maximum length of " + maxTextLength);
+                }
+                scan(bytes[i]);
+            }
+        } catch (JSONException jsone) {
+            tree.fireErrorEvents(jsone);
+            throw jsone;
+        }
+    }
+
+    /**
+     * Returns true if a completed value is waiting to be taken with next().
+     */
+    public boolean hasNext() {
+        return !values.isEmpty();
+    }
+
+    /**
+     * Returns the next completed JSONObject or JSONArray.
+     *
+     * @throws NoSuchElementException if no value has been completed
+     */
+    public JSON next() {
+        JSON json = values.poll();
+        if (json == null) {
+            throw new NoSuchElementException();
+        }
+        return json;
+    }
+
+    /**
+     * Creates a JSONException located at the byte being read.
+     */
+    JSONException syntaxError(String message) {
+        return syntaxError(message, position);
+    }
+
+    /**
+     * Keeps a byte of the current token, unless the value is skipped.
+     */
+    private void append(byte b) {
+        if (skipDepth >= 0) {
+            return;
+        }
+        if (tokenLength == token.length) {
+            if (tokenLength > maxTokenLength) {
+                throw syntaxError("String exceeds the maximum length of " + jsonConfig.getMaxStringLength(),
+                        tokenStart);
+            }
+            token = Arrays.copyOf(token, tokenLength * 2);
+        }
+        token[tokenLength++] = b;
+    }
+
+    /**
+     * Closes the container on top of the stack.
+     */
+    private void close() {
+        depth--;
+        if (skipDepth < 0) {
+            JSON json = tree.close();
+            if (json != null) {
+                values.add(json);
+            }
+        } else if (skipDepth == depth) {
+            skipDepth = -1;
+        }
+        expect = depth == 0 ? TOP : SEPARATOR;
+    }
+
+    /**
+     * Builds the key or the value of the token that has just been read.
+     */
+    private void endToken() {
+        if (expect == KEY) {
+            if (skipDepth < 0 && !tree.key(readToken().toString())) {
+                skipDepth = depth;
+            }
+            expect = COLON;
+        } else {
+            if (skipDepth < 0) {
+                tree.add(readToken());
+            } else if (skipDepth == depth) {
+                skipDepth = -1;
+            }
+            expect = SEPARATOR;
+        }
+        tokenLength = 0;
+    }
+
+    /**
+     * Opens a JSONObject or a JSONArray.
+     */
+    private void open(boolean object) {
+        if (depth == maxDepth) {
+            throw syntaxError("Nesting depth exceeds the maximum of " + maxDepth);
+        }
+        if (depth == 0) {
+            valueLength = 1;
+        }
+        if (skipDepth < 0) {
+            tree.open(object);
+        }
+        if (depth == objects.length) {
+            objects = Arrays.copyOf(objects, depth * 2);
+        }
+        objects[depth++] = object;
+        expect = object ? KEY : ELEMENT;
+    }
+
+    /**
+     * Reads the token that has just been read, followed by the byte that ended
+     * it if it is unquoted, so that the value is checked as JSONTokener would.
+     */
+    private Object readToken() {
+        JSONByteTokener tokener = new JSONByteTokener(token, 0, tokenLength) {
+            @Override
+            public JSONException syntaxError(String message) {
+                return JsonFeedParser.this.syntaxError(message, tokenStart);
+            }
+        };
+        tokener.applyLimits(jsonConfig);
+        return tokener.nextValue(jsonConfig);
+    }
+
+    /**
+     * Reads a byte of the input.
+     */
+    private void scan(byte b) {
+        switch (state) {
+            case STRING:
+                append(b);
+                if (b == '\\') {
+                    state = STRING_ESCAPE;
+                } else if (b == quote) {
+                    state = NORMAL;
+                    endToken();
+                }
+                break;
+            case STRING_ESCAPE:
+                append(b);
+                state = STRING;
+                break;
+            case UNQUOTED:
+                append(b);
+                if ((b & 0xFF) >= ' ' && TERMINATORS.indexOf(b) < 0) {
+                    break;
+                }
+                // the byte that ends the value is also the next one to read
+                state = NORMAL;
+                endToken();
+                scanNormal(b);
+                break;
+            case LINE_COMMENT:
+                if (b == '\n' || b == '\r') {
+                    state = NORMAL;
+                }
+                break;
+            case BLOCK_COMMENT:
+                if (b == '*') {
+                    state = BLOCK_COMMENT_STAR;
+                }
+                break;
+            case BLOCK_COMMENT_STAR:
+                if (b == '/') {
+                    state = NORMAL;
+                } else if (b != '*') {
+                    state = BLOCK_COMMENT;
+                }
+                break;
+            case SLASH:
+                if (b == '/') {
+                    state = LINE_COMMENT;
+                } else if (b == '*') {
+                    state = BLOCK_COMMENT;
+                } else {
+                    // a '/' that does not start a comment is never valid
+                    throw syntaxError(unexpected(), position - 1);
+                }
+                break;
+            case EQUALS:
+                // a key may be followed by '=>'
+                state = NORMAL;
+                if (b != '>') {
+                    scanNormal(b);
+                }
+                break;
+            default:
+                scanNormal(b);
+        }
+    }
+
+    /**
+     * Reads a byte outside of tokens and comments.
+     */
+    private void scanNormal(byte b) {
+        if ((b & 0xFF) <= ' ') {
+            return;
+        }
+        if (b == '/') {
+            state = SLASH;
+            return;
+        }
+        if (b == '#') {
+            state = LINE_COMMENT;
+            return;
+        }
+        switch (expect) {
+            case TOP:
+                if (b != '{' && b != '[') {
+                    throw syntaxError(unexpected());
+                }
+                open(b == '{');
+                break;
+            case KEY:
+                if (b == '}') {
+                    close();
+                } else if (b == '{' || b == '[') {
+                    throw syntaxError("A JSONObject key can not be an object or an array");
+                } else {
+                    startToken(b);
+                }
+                break;
+            case COLON:
+                if (b == '=') {
+                    state = EQUALS;
+                } else if (b != ':') {
+                    throw syntaxError(unexpected());
+                }
+                expect = VALUE;
+                break;
+            case SEPARATOR:
+                if (b == ',' || b == ';') {
+                    expect = objects[depth - 1] ? KEY : ELEMENT;
+                } else if (b == (objects[depth - 1] ? '}' : ']')) {
+                    close();
+                } else {
+                    throw syntaxError(unexpected());
+                }
+                break;
+            case ELEMENT:
+                if (b == ']') {
+                    close();
+                } else if (b == ',') {
+                    if (skipDepth < 0) {
+                        tree.addEmpty();
+                    }
+                } else {
+                    scanValue(b);
+                }
+                break;
+            default:
+                scanValue(b);
+        }
+    }
+
+    /**
+     * Reads the first byte of a value.
+     */
+    private void scanValue(byte b) {
+        if (b == '{' || b == '[') {
+            open(b == '{');
+        } else {
+            startToken(b);
+        }
+    }
+
+    /**
+     * Starts a string or an unquoted value.
+     */
+    private void startToken(byte b) {
+        if (b == '"' || b == '\'') {
+            quote = b;
+            state = STRING;
+        } else if (TERMINATORS.indexOf(b) >= 0) {
+            throw syntaxError("Missing value.");
+        } else {
+            state = UNQUOTED;
+        }
+        tokenStart = position;
+        append(b);
+    }
+
+    private JSONException syntaxError(String message, long at) {
+        return new JSONException(message + " at byte " + at);
+    }
+
+    /**
+     * Returns the message for a byte the grammar does not expect.
+     */
+    private String unexpected() {
+        switch (expect) {
+            case TOP:
+                return "A JSON text must begin with '{' or '['";
+            case COLON:
+                return "Expected a ':' after a key";
+            case SEPARATOR:
+                return objects[depth - 1] ? "Expected a ',' or '}'" : "Expected a ',' or ']'";
+            default:
+                return "Missing value.";
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json;
+
+import java.io.IOException;
+import java.io.Writer;
+import net.sf.json.util.StringBuilderWriter;
+
+/**
+ * Stands in a JSONObject or JSONArray for a nested object or array that has
+ * not been parsed yet, see {@link JsonConfig#setLazyParsing(boolean)}.<br>
+ * The container replaces it with the parsed value the first time the value is
+ * read; until then it is written as the source text it covers, without its
+ * whitespace. Only strict JSON that the parsed value writes back the same is
+ * left unparsed. Until it is read, it keeps the whole source text and its
+ * structural index reachable.
+ *
+ * @author JSON.org
+ */
+final class LazyJSON implements JSONString {
+    private final int entry;
+    private final JsonConfig jsonConfig;
+    private final StructuralIndex structuralIndex;
+
+    /**
+     * @param structuralIndex the index of the text the value is part of
+     * @param entry the entry of the opening bracket of the value
+     * @param jsonConfig a frozen copy of the configuration the text is being
+     *        parsed with, so that later changes to it do not change the value
+     */
+    LazyJSON(StructuralIndex structuralIndex, int entry, JsonConfig jsonConfig) {
+        this.structuralIndex = structuralIndex;
+        this.entry = entry;
+        this.jsonConfig = jsonConfig;
+    }
+
+    /**
+     * Parses the members of the value, leaving the values nested in it unparsed.
+     */
+    JSON materialize() {
+        return JSONTreeParser.parseLazy(structuralIndex, entry, jsonConfig);
+    }
+
+    /**
+     * Writes the source text of the value without its whitespace, which is
+     * what the parsed value would write, without copying it to a String.
+     */
+    void write(Writer writer) throws IOException {
+        structuralIndex.write(entry, writer);
+    }
+
+    @Override
+    public String toJSONString() {
+        StringBuilderWriter writer = new StringBuilderWriter();
+        try {
+            write(writer);
+        } catch (IOException ioe) {
+            throw new JSONException(ioe);
+        }
+        return writer.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJSONString();
+    }
+}
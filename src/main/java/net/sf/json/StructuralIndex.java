@@ -0,0 +1,230 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The positions of the structural characters of a JSON text: the brackets and
+ * the ',', ':' and ';' separators that are not inside a string.<br>
+ * It is built in a single pass over the text, which only tells strings apart
+ * from the rest; the values themselves are read later, by the parser, from the
+ * ranges between two structural characters. Every opening bracket is linked
+ * to its closing bracket, so a nested value can be skipped, or located, without
+ * reading it.
+ *
+ * @author JSON.org
+ */
+final class StructuralIndex {
+    /**
+     * Builds the index of a JSON text.
+     *
+     * @param source the text, without leading or trailing whitespace
+     * @return the index, or null if the text has comments, '=' separators,
+     *         unterminated strings or unbalanced brackets, which are left to
+     *         the regular parser
+     */
+    static StructuralIndex build(String source) {
+        int length = source.length();
+        int[] positions = new int[Math.max(16, length / 8)];
+        int[] links = new int[positions.length];
+        int size = 0;
+        int[] open = new int[16];
+        int depth = 0;
+        int maxDepth = 0;
+        boolean valueStart = true;
+        for (int i = 0; i < length; i++) {
+            char c = source.charAt(i);
+            switch (c) {
+                case '"':
+                case '\'':
+                    if (!valueStart) {
+                        // part of an unquoted value, as in don't
+                        continue;
+                    }
+                    i = endOfString(source, i, c);
+                    if (i < 0) {
+                        return null;
+                    }
+                    valueStart = false;
+                    continue;
+                case '{':
+                case '[':
+                    if (depth == open.length) {
+                        int[] newOpen = new int[depth * 2];
+                        System.arraycopy(open, 0, newOpen, 0, depth);
+                        open = newOpen;
+                    }
+                    open[depth++] = size;
+                    if (depth > maxDepth) {
+                        maxDepth = depth;
+                    }
+                    break;
+                case '}':
+                case ']':
+                    if (depth == 0) {
+                        return null;
+                    }
+                    int opener = open[--depth];
+                    if ((source.charAt(positions[opener]) == '{') != (c == '}')) {
+                        return null;
+                    }
+                    links[opener] = size;
+                    break;
+                case ',':
+                case ':':
+                case ';':
+                    break;
+                case '/':
+                case '#':
+                case '=':
+                    return null;
+                default:
+                    if (c > ' ') {
+                        valueStart = false;
+                    }
+                    continue;
+            }
+            if (size == positions.length) {
+                int[] newPositions = new int[size * 2];
+                System.arraycopy(positions, 0, newPositions, 0, size);
+                positions = newPositions;
+                int[] newLinks = new int[size * 2];
+                System.arraycopy(links, 0, newLinks, 0, size);
+                links = newLinks;
+            }
+            positions[size] = i;
+            links[size] = -1;
+            size++;
+            valueStart = true;
+        }
+        if (depth != 0) {
+            return null;
+        }
+        return new StructuralIndex(source, positions, links, size, maxDepth);
+    }
+
+    /**
+     * Returns the index of the quote that ends the string starting at start,
+     * or -1 if it is not terminated on the same line.
+     */
+    private static int endOfString(String source, int start, char quote) {
+        int length = source.length();
+        for (int i = start + 1; i < length; i++) {
+            char c = source.charAt(i);
+            if (c == quote) {
+                return i;
+            }
+            switch (c) {
+                case '\\':
+                    i++;
+                    break;
+                case 0:
+                case '\n':
+                case '\r':
+                    return -1;
+                default:
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * For the entry of an opening bracket, the entry of its closing bracket;
+     * -1 for every other entry.
+     */
+    final int[] links;
+
+    /**
+     * The deepest nesting of brackets.
+     */
+    final int maxDepth;
+
+    /**
+     * The position in the source of every structural character, in order.
+     */
+    final int[] positions;
+
+    /**
+     * The number of entries.
+     */
+    final int size;
+
+    /**
+     * The indexed text.
+     */
+    final String source;
+
+    private StructuralIndex(String source, int[] positions, int[] links, int size, int maxDepth) {
+        this.source = source;
+        this.positions = positions;
+        this.links = links;
+        this.size = size;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Returns the source text from the opening bracket of an entry to its
+     * closing bracket.
+     */
+    String textOf(int entry) {
+        return source.substring(positions[entry], positions[links[entry]] + 1);
+    }
+
+    /**
+     * Writes the source text from the opening bracket of an entry to its
+     * closing bracket, leaving out the whitespace outside of strings. The
+     * strings in the range must not hold escaped quotes.
+     */
+    void write(int entry, Writer writer) throws IOException {
+        int start = positions[entry];
+        int end = positions[links[entry]] + 1;
+        boolean string = false;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '"') {
+                string = !string;
+            } else if (!string && c <= ' ' && c != 0) {
+                if (i > start) {
+                    writer.write(source, start, i - start);
+                }
+                start = i + 1;
+            }
+        }
+        writer.write(source, start, end - start);
+    }
+
+    /**
+     * Returns the structural character of an entry.
+     */
+    char charAt(int entry) {
+        return source.charAt(positions[entry]);
+    }
+
+    /**
+     * Returns true if there is only whitespace between two consecutive entries.
+     */
+    boolean isBlank(int entry) {
+        for (int i = positions[entry] + 1, end = positions[entry + 1]; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == 0 || c > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
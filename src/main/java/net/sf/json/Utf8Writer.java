@@ -0,0 +1,204 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A Writer that encodes the characters written by the JSON writers to UTF-8
+ * as they come, into an OutputStream or a ByteBuffer.<br>
+ * Runs of ASCII characters, which make up most JSON text, are copied one byte
+ * per character without going through a CharsetEncoder. A surrogate pair may
+ * be split across two writes; an unpaired surrogate is encoded as '?', as
+ * String.getBytes() does.
+ *
+ * @author JSON.org
+ */
+final class Utf8Writer extends Writer {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final byte[] buffer;
+    private final ByteBuffer byteBuffer;
+    private int end;
+    private char highSurrogate;
+    private final int offset;
+    private final OutputStream out;
+    private int position;
+
+    /**
+     * Creates a Utf8Writer that writes to a stream through a buffer of its
+     * own, drained by {@link #finish()}.
+     */
+    Utf8Writer(OutputStream out) {
+        this.out = out;
+        this.byteBuffer = null;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.offset = 0;
+        this.end = buffer.length;
+    }
+
+    /**
+     * Creates a Utf8Writer that writes into a ByteBuffer from its position;
+     * straight into its array if it has one. {@link #finish()} moves the
+     * position of the buffer past the bytes written.
+     */
+    Utf8Writer(ByteBuffer byteBuffer) {
+        this.out = null;
+        this.byteBuffer = byteBuffer;
+        if (byteBuffer.hasArray()) {
+            this.buffer = byteBuffer.array();
+            this.offset = byteBuffer.arrayOffset();
+            this.position = offset + byteBuffer.position();
+            this.end = offset + byteBuffer.limit();
+        } else {
+            this.buffer = new byte[BUFFER_SIZE];
+            this.offset = 0;
+            this.end = buffer.length;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+    }
+
+    /**
+     * Writes the buffered bytes, without flushing the stream, or moves the
+     * position of the ByteBuffer.
+     *
+     * @throws BufferOverflowException if the ByteBuffer is full
+     */
+    void finish() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            encode('?');
+        }
+        if (byteBuffer != null && byteBuffer.hasArray()) {
+            byteBuffer.position(position - offset);
+        } else {
+            drain();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        finish();
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off, last = off + len; i < last; i++) {
+            char c = cbuf[i];
+            if (c < 0x80 && position < end && highSurrogate == 0) {
+                buffer[position++] = (byte) c;
+            } else {
+                encode(c);
+            }
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (c < 0x80 && position < end && highSurrogate == 0) {
+            buffer[position++] = (byte) c;
+        } else {
+            encode((char) c);
+        }
+    }
+
+    @Override
+    public void write(String str) throws IOException {
+        write(str, 0, str.length());
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        for (int i = off, last = off + len; i < last; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80 && position < end && highSurrogate == 0) {
+                buffer[position++] = (byte) c;
+            } else {
+                encode(c);
+            }
+        }
+    }
+
+    /**
+     * Makes room for the bytes written so far, or fails if they can not be
+     * moved anywhere.
+     */
+    private void drain() throws IOException {
+        if (out != null) {
+            out.write(buffer, 0, position);
+        } else if (byteBuffer.hasArray()) {
+            throw new BufferOverflowException();
+        } else {
+            byteBuffer.put(buffer, 0, position);
+        }
+        position = 0;
+    }
+
+    /**
+     * Encodes a character that is not ASCII, or that does not fit in the
+     * buffer, or that follows a high surrogate.
+     */
+    private void encode(char c) throws IOException {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                reserve(4);
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            encode('?');
+        }
+        if (c < 0x80) {
+            reserve(1);
+            buffer[position++] = (byte) c;
+        } else if (c < 0x800) {
+            reserve(2);
+            buffer[position++] = (byte) (0xC0 | (c >> 6));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            encode('?');
+        } else {
+            reserve(3);
+            buffer[position++] = (byte) (0xE0 | (c >> 12));
+            buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void reserve(int count) throws IOException {
+        if (end - position < count) {
+            drain();
+        }
+    }
+}
@@ -0,0 +1,417 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+import net.sf.json.JSONException;
+
+/**
+ * A JSONTokener that reads UTF-8 encoded JSON text straight from a byte array
+ * or a ByteBuffer, without decoding the whole text into a String first.<br>
+ * Structural characters are read as single bytes; only the contents of
+ * strings (and of unquoted values outside the ASCII range) are decoded.
+ * Malformed byte sequences are decoded as U+FFFD. It can be handed to
+ * <code>JSONObject.fromObject()</code>, <code>JSONArray.fromObject()</code>,
+ * <code>JSONSerializer.toJSON()</code> and <code>JsonParser</code> just like a
+ * String based JSONTokener. Like <code>JSONTokener(String)</code>, it trims
+ * the whitespace around the source and checks that a source starting with '{'
+ * or '[' ends with the matching bracket; unlike it, it also skips a UTF-8 byte
+ * order mark at the start of the source.
+ *
+ * @author JSON.org
+ */
+public class JSONByteTokener extends JSONTokener {
+    /**
+     * The source bytes, read with absolute indexes.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The index after the last byte of the source.
+     */
+    private final int end;
+
+    /**
+     * Whether the high surrogate of the supplementary character that ends at
+     * position has been returned, but not its low surrogate.
+     */
+    private boolean half;
+
+    /**
+     * The index of the next byte.
+     */
+    private int position;
+
+    /**
+     * The index of the first byte of the source.
+     */
+    private final int start;
+
+    /**
+     * Construct a JSONByteTokener from an UTF-8 encoded byte array.
+     *
+     * @param bytes A source array.
+     */
+    public JSONByteTokener(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Construct a JSONByteTokener from a region of an UTF-8 encoded byte array.
+     *
+     * @param bytes A source array.
+     * @param offset The index of the first byte of the source.
+     * @param length The number of bytes of the source.
+     */
+    public JSONByteTokener(byte[] bytes, int offset, int length) {
+        this(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * Construct a JSONByteTokener from the remaining bytes of an UTF-8 encoded
+     * ByteBuffer. The position of the buffer is not changed.
+     *
+     * @param buffer A source buffer.
+     */
+    public JSONByteTokener(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("buffer is null");
+        }
+        this.buffer = buffer;
+        int first = buffer.position();
+        int last = buffer.limit();
+        if (last - first >= 3
+                && buffer.get(first) == (byte) 0xEF
+                && buffer.get(first + 1) == (byte) 0xBB
+                && buffer.get(first + 2) == (byte) 0xBF) {
+            first += 3;
+        }
+        while (first < last && (buffer.get(first) & 0xFF) <= ' ') {
+            first++;
+        }
+        while (last > first && (buffer.get(last - 1) & 0xFF) <= ' ') {
+            last--;
+        }
+        this.start = first;
+        this.end = last;
+        this.position = first;
+        if (first < last) {
+            byte b = buffer.get(first);
+            byte e = buffer.get(last - 1);
+            if (b == '[' && e != ']') {
+                throw syntaxError("Found starting '[' but missing ']' at the end.");
+            }
+            if (b == '{' && e != '}') {
+                throw syntaxError("Found starting '{' but missing '}' at the end.");
+            }
+        }
+    }
+
+    @Override
+    public void back() {
+        if (this.half) {
+            this.half = false;
+            this.position = previous(this.position);
+        } else if (this.position > this.start) {
+            int p = previous(this.position);
+            if (codePointAt(p) >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                this.half = true;
+            } else {
+                this.position = p;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes of the source.
+     */
+    @Override
+    public int length() {
+        return this.end - this.start;
+    }
+
+    @Override
+    public boolean matches(String pattern) {
+        int p = this.half ? previous(this.position) : this.position;
+        String str = decode(p, this.end);
+        if (this.half) {
+            str = str.substring(1);
+        }
+        return Pattern.compile(pattern).matcher(str).matches();
+    }
+
+    @Override
+    public boolean more() {
+        return this.half || this.position < this.end;
+    }
+
+    @Override
+    public char next() {
+        if (this.half) {
+            this.half = false;
+            return Character.lowSurrogate(codePointAt(previous(this.position)));
+        }
+        if (this.position >= this.end) {
+            return 0;
+        }
+        byte b = this.buffer.get(this.position);
+        if (b >= 0) {
+            this.position++;
+            return (char) b;
+        }
+        int codePoint = codePointAt(this.position);
+        this.position += sequenceLength(this.position);
+        if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            this.half = true;
+            return Character.highSurrogate(codePoint);
+        }
+        return (char) codePoint;
+    }
+
+    @Override
+    public String next(int n) {
+        int p = this.position;
+        boolean h = this.half;
+        char[] chars = new char[n];
+        for (int i = 0; i < n; i++) {
+            if (!more()) {
+                break;
+            }
+            chars[i] = next();
+        }
+        if (!more()) {
+            this.position = p;
+            this.half = h;
+            throw syntaxError("Substring bounds error");
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Return the characters up to the next close quote character.<br>
+     * Strings without escapes are decoded in one step from the bytes between
+     * the quotes; the builder is only used from the first backslash on.
+     */
+    @Override
+    public String nextString(char quote) {
+        if (this.half) {
+            return nextString(quote, new StringBuilder());
+        }
+        int p = this.position;
+        for (int i = p; i < this.end; i++) {
+            byte b = this.buffer.get(i);
+            if (b == quote) {
+                String s = decode(p, i);
+                if (s.length() > this.maxStringLength) {
+                    throw stringTooLong();
+                }
+                this.position = i + 1;
+                return s;
+            }
+            if (b == '\\' || b == '\n' || b == '\r' || b == 0) {
+                StringBuilder sb = new StringBuilder(i - p + 16);
+                sb.append(decode(p, i));
+                this.position = i;
+                return nextString(quote, sb);
+            }
+        }
+        this.position = this.end;
+        throw syntaxError("Unterminated string");
+    }
+
+    @Override
+    public char peek() {
+        int p = this.position;
+        boolean h = this.half;
+        char c = next();
+        this.position = p;
+        this.half = h;
+        return c;
+    }
+
+    @Override
+    public void reset() {
+        this.position = this.start;
+        this.half = false;
+    }
+
+    @Override
+    public void skipPast(String to) {
+        for (; ; ) {
+            if (startsWith(to)) {
+                for (int i = to.length(); i > 0; i--) {
+                    next();
+                }
+                return;
+            }
+            if (next() == 0) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public char skipTo(char to) {
+        int p = this.position;
+        boolean h = this.half;
+        char c;
+        do {
+            c = next();
+            if (c == 0) {
+                this.position = p;
+                this.half = h;
+                return c;
+            }
+        } while (c != to);
+        back();
+        return c;
+    }
+
+    @Override
+    public boolean startsWith(String prefix) {
+        int p = this.position;
+        boolean h = this.half;
+        try {
+            for (int i = 0; i < prefix.length(); i++) {
+                if (!more() || next() != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            this.position = p;
+            this.half = h;
+        }
+    }
+
+    /**
+     * Make a printable string of this JSONByteTokener.
+     *
+     * @return " at character [index] (line [line], column [column]) near
+     *         '[context]'", followed by " of [source]" if the full source was
+     *         requested
+     */
+    @Override
+    public String toString() {
+        long index = 0;
+        long line = 1;
+        long lineStart = 0;
+        for (int i = this.start; i < this.position; i++) {
+            int b = this.buffer.get(i) & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                index += b >= 0xF0 ? 2 : 1;
+            }
+            if (b == '\n') {
+                line++;
+                lineStart = index;
+            }
+        }
+        if (this.half) {
+            index--;
+        }
+
+        // decode a few characters on each side, starting on character boundaries
+        int from = this.position;
+        for (int i = 0; i < ERROR_CONTEXT && from > this.start; i++) {
+            from = previous(from);
+        }
+        int to = this.position;
+        for (int i = 0; i < ERROR_CONTEXT && to < this.end; i++) {
+            to += sequenceLength(to);
+        }
+        String before = decode(from, this.position);
+        String window = before + decode(this.position, to);
+        int windowIndex = before.length() - (this.half ? 1 : 0);
+        String location = location(index, line, index - lineStart + 1, window, windowIndex);
+        if (isFullSourceInErrors()) {
+            return location + " of " + decode(this.start, this.end);
+        }
+        return location;
+    }
+
+    /**
+     * Decodes the code point of the byte sequence that starts at p.
+     */
+    private int codePointAt(int p) {
+        int b = this.buffer.get(p) & 0xFF;
+        if (b < 0x80) {
+            return b;
+        }
+        int n = sequenceLength(p);
+        if (n == 1) {
+            return 0xFFFD;
+        }
+        int codePoint = b & (0xFF >> (n + 1));
+        for (int i = 1; i < n; i++) {
+            codePoint = (codePoint << 6) | (this.buffer.get(p + i) & 0x3F);
+        }
+        return codePoint;
+    }
+
+    /**
+     * Decodes the bytes between from (inclusive) and to (exclusive).
+     */
+    private String decode(int from, int to) {
+        if (this.buffer.hasArray()) {
+            return new String(this.buffer.array(), this.buffer.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[to - from];
+        this.buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the index of the first byte of the sequence that ends at p.
+     */
+    private int previous(int p) {
+        int q = p - 1;
+        while (q > this.start && p - q < 4 && (this.buffer.get(q) & 0xC0) == 0x80) {
+            q--;
+        }
+        return q;
+    }
+
+    /**
+     * Returns the number of bytes of the sequence that starts at p, 1 for a
+     * malformed one.
+     */
+    private int sequenceLength(int p) {
+        int b = this.buffer.get(p) & 0xFF;
+        int n;
+        if (b < 0xC2) {
+            return 1;
+        } else if (b < 0xE0) {
+            n = 2;
+        } else if (b < 0xF0) {
+            n = 3;
+        } else if (b < 0xF5) {
+            n = 4;
+        } else {
+            return 1;
+        }
+        if (p + n > this.end) {
+            return 1;
+        }
+        for (int i = 1; i < n; i++) {
+            if ((this.buffer.get(p + i) & 0xC0) != 0x80) {
+                return 1;
+            }
+        }
+        return n;
+    }
+}
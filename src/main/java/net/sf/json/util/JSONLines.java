@@ -0,0 +1,319 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import net.sf.json.JSON;
+import net.sf.json.JSONException;
+import net.sf.json.JSONSerializer;
+import net.sf.json.JsonConfig;
+
+/**
+ * Reads and writes JSON Lines (also known as NDJSON) text: one JSON value per
+ * line.<br>
+ * Values are read one line at a time, so memory use does not grow with the
+ * number of lines; a single JsonConfig is used for all of them. Blank lines
+ * are skipped.<br>
+ * A parallel stream reads the lines in batches and parses the batches on
+ * several threads; it is ordered unless
+ * {@link Stream#unordered()} is called, or the terminal operation does not
+ * need the order, as forEach() does.
+ *
+ * <pre>
+ * try (Stream&lt;JSON&gt; events = JSONLines.stream(reader, jsonConfig)) {
+ *     events.forEach(this::handle);
+ * }
+ *
+ * JSONLines.write(writer, jsonObject);</pre>
+ *
+ * @author JSON.org
+ */
+public final class JSONLines {
+    /**
+     * Returns an iterator over the values of a JSON Lines text, parsed with a
+     * default configuration.
+     *
+     * @param reader the text, which is not closed
+     */
+    public static Iterator<JSON> iterator(Reader reader) {
+        return iterator(reader, new JsonConfig());
+    }
+
+    /**
+     * Returns an iterator over the values of a JSON Lines text. A line that is
+     * not a JSON text makes next() throw a JSONException naming the line.
+     *
+     * @param reader the text, which is not closed
+     * @param jsonConfig the configuration used for every line
+     */
+    public static Iterator<JSON> iterator(Reader reader, JsonConfig jsonConfig) {
+        return new LineIterator(reader, jsonConfig);
+    }
+
+    /**
+     * Returns a sequential stream of the values of a JSON Lines text, parsed
+     * with a default configuration.
+     *
+     * @param reader the text, which is closed when the stream is closed
+     */
+    public static Stream<JSON> stream(Reader reader) {
+        return stream(reader, new JsonConfig());
+    }
+
+    /**
+     * Returns a sequential stream of the values of a JSON Lines text.
+     *
+     * @param reader the text, which is closed when the stream is closed
+     * @param jsonConfig the configuration used for every line
+     */
+    public static Stream<JSON> stream(Reader reader, JsonConfig jsonConfig) {
+        Spliterator<JSON> spliterator = Spliterators.spliteratorUnknownSize(
+                iterator(reader, jsonConfig), Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> close(reader));
+    }
+
+    /**
+     * Returns a parallel stream of the values of a JSON Lines text, parsed
+     * with a default configuration.
+     *
+     * @param reader the text, which is closed when the stream is closed
+     */
+    public static Stream<JSON> parallelStream(Reader reader) {
+        return parallelStream(reader, new JsonConfig());
+    }
+
+    /**
+     * Returns a parallel stream of the values of a JSON Lines text. The lines
+     * are parsed in the ForkJoinPool that runs the terminal operation, which
+     * is the common pool unless the operation is submitted to another pool.
+     *
+     * @param reader the text, which is closed when the stream is closed
+     * @param jsonConfig the configuration used for every line, by several
+     *        threads at once
+     */
+    public static Stream<JSON> parallelStream(Reader reader, JsonConfig jsonConfig) {
+        return StreamSupport.stream(new LineSpliterator(new LineIterator(reader, jsonConfig)), true)
+                .onClose(() -> close(reader));
+    }
+
+    /**
+     * Appends a value and a line feed to a JSON Lines text.
+     *
+     * @param writer the text
+     * @param json the value, written without whitespace
+     */
+    public static void write(Writer writer, JSON json) throws IOException {
+        json.write(writer);
+        writer.write('\n');
+    }
+
+    /**
+     * Appends values to a JSON Lines text, one per line.
+     *
+     * @param writer the text
+     * @param values the values, written without whitespace
+     */
+    public static void write(Writer writer, Iterable<? extends JSON> values) throws IOException {
+        for (JSON json : values) {
+            write(writer, json);
+        }
+    }
+
+    /**
+     * Parses one line.
+     *
+     * @param line the text of the line
+     * @param number the number of the line, starting at 1, for error messages
+     */
+    static JSON parseLine(String line, long number, JsonConfig jsonConfig) {
+        try {
+            return JSONSerializer.toJSON(line.trim(), jsonConfig);
+        } catch (JSONException jsone) {
+            throw new JSONException("Line " + number + ": " + jsone.getMessage(), jsone);
+        }
+    }
+
+    private static void close(Reader reader) {
+        try {
+            reader.close();
+        } catch (IOException ioe) {
+            throw new JSONException(ioe);
+        }
+    }
+
+    private JSONLines() {}
+
+    /**
+     * The lines of a batch read by a LineSpliterator, parsed as they are
+     * consumed.
+     */
+    private static final class BatchSpliterator implements Spliterator<JSON> {
+        private final int fence;
+        private final JsonConfig jsonConfig;
+        private final String[] lines;
+        private final long[] numbers;
+        private int origin;
+
+        BatchSpliterator(String[] lines, long[] numbers, int origin, int fence, JsonConfig jsonConfig) {
+            this.lines = lines;
+            this.numbers = numbers;
+            this.origin = origin;
+            this.fence = fence;
+            this.jsonConfig = jsonConfig;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | SIZED | SUBSIZED;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - origin;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super JSON> action) {
+            if (origin == fence) {
+                return false;
+            }
+            int i = origin++;
+            String line = lines[i];
+            lines[i] = null;
+            action.accept(parseLine(line, numbers[i], jsonConfig));
+            return true;
+        }
+
+        @Override
+        public Spliterator<JSON> trySplit() {
+            int middle = (origin + fence) >>> 1;
+            if (middle == origin) {
+                return null;
+            }
+            BatchSpliterator prefix = new BatchSpliterator(lines, numbers, origin, middle, jsonConfig);
+            origin = middle;
+            return prefix;
+        }
+    }
+
+    /**
+     * Reads the lines of a text in batches of growing size, so that a
+     * parallel stream can parse them while the next batch is read.
+     */
+    private static final class LineSpliterator implements Spliterator<JSON> {
+        private static final int BATCH_INCREMENT = 1 << 10;
+        private static final int MAX_BATCH = 1 << 16;
+
+        private int batch;
+        private final LineIterator lines;
+
+        LineSpliterator(LineIterator lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super JSON> action) {
+            if (!lines.hasNext()) {
+                return false;
+            }
+            action.accept(lines.next());
+            return true;
+        }
+
+        @Override
+        public Spliterator<JSON> trySplit() {
+            batch = Math.min(batch + BATCH_INCREMENT, MAX_BATCH);
+            String[] texts = new String[batch];
+            long[] numbers = new long[batch];
+            int count = 0;
+            while (count < batch && lines.hasNext()) {
+                texts[count] = lines.nextLine();
+                numbers[count] = lines.number;
+                count++;
+            }
+            return count == 0 ? null : new BatchSpliterator(texts, numbers, 0, count, lines.jsonConfig);
+        }
+    }
+
+    private static final class LineIterator implements Iterator<JSON> {
+        private final JsonConfig jsonConfig;
+        private String line;
+        private long number;
+        private final BufferedReader reader;
+
+        LineIterator(Reader reader, JsonConfig jsonConfig) {
+            this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+            this.jsonConfig = jsonConfig;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (line == null) {
+                    String next = reader.readLine();
+                    if (next == null) {
+                        return false;
+                    }
+                    number++;
+                    if (!next.isBlank()) {
+                        line = next;
+                    }
+                }
+                return true;
+            } catch (IOException ioe) {
+                throw new JSONException(ioe);
+            }
+        }
+
+        @Override
+        public JSON next() {
+            String text = nextLine();
+            return parseLine(text, number, jsonConfig);
+        }
+
+        /**
+         * Returns the next line that is not blank, without parsing it.
+         */
+        String nextLine() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String text = line;
+            line = null;
+            return text;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+import net.sf.json.JSONException;
+
+/**
+ * A JSONTokener that reads its characters from a Reader or an UTF-8 encoded
+ * InputStream through a bounded, refillable buffer, so the source never has to
+ * be held in memory as a whole.<br>
+ * It can be handed to <code>JSONObject.fromObject()</code>,
+ * <code>JSONArray.fromObject()</code> and <code>JSONSerializer.toJSON()</code>
+ * just like a String based JSONTokener. The underlying Reader is not closed by
+ * this class.<br>
+ * Unlike <code>JSONTokener(String)</code>, it skips byte order marks (U+FEFF)
+ * along with the leading whitespace, and it does not check that a source
+ * starting with '{' or '[' ends with the matching bracket, as the end of the
+ * source is not known when reading starts; whatever follows the first value is
+ * left unread.
+ *
+ * @author JSON.org
+ */
+public class JSONStreamTokener extends JSONTokener {
+    /**
+     * Default size of the character buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * Number of already consumed characters kept in the buffer when it is
+     * refilled, so that back() keeps working across refills.
+     */
+    private static final int HISTORY = 2;
+
+    /**
+     * The buffered window of the source.
+     */
+    private char[] buffer;
+
+    /**
+     * Whether the end of the reader has been reached.
+     */
+    private boolean eof;
+
+    /**
+     * The number of valid characters in the buffer.
+     */
+    private int limit;
+
+    /**
+     * The position in the source of the first character of the line that
+     * contains buffer[0].
+     */
+    private long lineStart;
+
+    /**
+     * The number of line breaks before buffer[0].
+     */
+    private long lines;
+
+    /**
+     * Index in the buffer that must not be discarded on refill, or -1.
+     */
+    private int mark = -1;
+
+    /**
+     * The position of buffer[0] in the source.
+     */
+    private long offset;
+
+    /**
+     * The index in the buffer of the next character.
+     */
+    private int position;
+
+    /**
+     * The source reader.
+     */
+    private final Reader reader;
+
+    /**
+     * Construct a JSONStreamTokener from an UTF-8 encoded InputStream.
+     *
+     * @param in A source stream.
+     */
+    public JSONStreamTokener(InputStream in) {
+        this(new InputStreamReader(in, StandardCharsets.UTF_8), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Construct a JSONStreamTokener from a Reader.
+     *
+     * @param reader A source reader.
+     */
+    public JSONStreamTokener(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Construct a JSONStreamTokener from a Reader.
+     *
+     * @param reader A source reader.
+     * @param bufferSize The initial size of the character buffer.
+     */
+    public JSONStreamTokener(Reader reader, int bufferSize) {
+        if (reader == null) {
+            throw new IllegalArgumentException("reader is null");
+        }
+        if (bufferSize <= HISTORY) {
+            throw new IllegalArgumentException("bufferSize must be greater than " + HISTORY);
+        }
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+        skipLeadingWhitespace();
+    }
+
+    @Override
+    public void back() {
+        if (this.position > 0) {
+            this.position -= 1;
+        }
+    }
+
+    /**
+     * Returns the number of characters read from the source so far.
+     */
+    @Override
+    public int length() {
+        return (int) Math.min(Integer.MAX_VALUE, this.offset + this.limit);
+    }
+
+    /**
+     * Matches the remaining characters against a regular expression.<br>
+     * This reads the whole remainder of the source into the buffer.
+     */
+    @Override
+    public boolean matches(String pattern) {
+        while (fill(this.limit - this.position + this.buffer.length)) {
+            // keep reading until the end of the source
+        }
+        String str = new String(this.buffer, this.position, this.limit - this.position);
+        return Pattern.compile(pattern).matcher(str).matches();
+    }
+
+    @Override
+    public boolean more() {
+        return this.position < this.limit || fill(1);
+    }
+
+    @Override
+    public char next() {
+        if (this.position < this.limit || fill(1)) {
+            return this.buffer[this.position++];
+        }
+        return 0;
+    }
+
+    @Override
+    public String next(int n) {
+        if (!fill(n + 1)) {
+            throw syntaxError("Substring bounds error");
+        }
+        String s = new String(this.buffer, this.position, n);
+        this.position += n;
+        return s;
+    }
+
+    /**
+     * Return the characters up to the next close quote character.<br>
+     * Strings without escapes are copied straight out of the buffer; the
+     * builder is only used when they span a refill or contain escapes.
+     */
+    @Override
+    public String nextString(char quote) {
+        StringBuilder sb = null;
+        for (; ; ) {
+            int start = this.position;
+            for (int i = start; i < this.limit; i++) {
+                char c = this.buffer[i];
+                if (c == quote) {
+                    if ((sb == null ? 0 : sb.length()) + i - start > this.maxStringLength) {
+                        throw stringTooLong();
+                    }
+                    this.position = i + 1;
+                    if (sb == null) {
+                        return new String(this.buffer, start, i - start);
+                    }
+                    return sb.append(this.buffer, start, i - start).toString();
+                }
+                if (c == '\\' || c == '\n' || c == '\r' || c == 0) {
+                    if (sb == null) {
+                        sb = new StringBuilder(i - start + 16);
+                    }
+                    sb.append(this.buffer, start, i - start);
+                    this.position = i;
+                    return nextString(quote, sb);
+                }
+            }
+            if (sb == null) {
+                sb = new StringBuilder();
+            }
+            sb.append(this.buffer, start, this.limit - start);
+            this.position = this.limit;
+            if (sb.length() > this.maxStringLength) {
+                throw stringTooLong();
+            }
+            if (!fill(1)) {
+                return nextString(quote, sb);
+            }
+        }
+    }
+
+    @Override
+    public char peek() {
+        if (this.position < this.limit || fill(1)) {
+            return this.buffer[this.position];
+        }
+        return 0;
+    }
+
+    /**
+     * Rewinds to the start of the source.<br>
+     * This is only possible while the start of the source is still buffered.
+     *
+     * @throws JSONException if the start of the source has been discarded.
+     */
+    @Override
+    public void reset() {
+        if (this.offset != 0) {
+            throw new JSONException("Can't reset a stream once its start has been discarded");
+        }
+        this.position = 0;
+    }
+
+    @Override
+    public void skipPast(String to) {
+        for (; ; ) {
+            if (startsWith(to)) {
+                this.position += to.length();
+                return;
+            }
+            if (next() == 0) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public char skipTo(char to) {
+        char c;
+        this.mark = this.position;
+        try {
+            do {
+                c = next();
+                if (c == 0) {
+                    this.position = this.mark;
+                    return c;
+                }
+            } while (c != to);
+        } finally {
+            this.mark = -1;
+        }
+        back();
+        return c;
+    }
+
+    @Override
+    public boolean startsWith(String prefix) {
+        int n = prefix.length();
+        if (!fill(n)) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (this.buffer[this.position + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Make a printable string of this JSONStreamTokener.<br>
+     * Only the buffered characters around the position can be shown, the full
+     * source is never available.
+     *
+     * @return " at character [position] (line [line], column [column]) near
+     *         '[context]'"
+     */
+    @Override
+    public String toString() {
+        long line = this.lines + 1;
+        long start = this.lineStart;
+        for (int i = 0; i < this.position; i++) {
+            if (this.buffer[i] == '\n') {
+                line++;
+                start = this.offset + i + 1;
+            }
+        }
+        long index = this.offset + this.position;
+        return location(index, line, index - start + 1, CharBuffer.wrap(this.buffer, 0, this.limit), this.position);
+    }
+
+    /**
+     * Makes sure at least n characters are available after the current
+     * position, reading more from the source when needed. Characters before the
+     * current position are discarded, except for a small history and anything
+     * after the mark.
+     *
+     * @return true if n characters are available, false if the source ends
+     *         before that.
+     */
+    private boolean fill(int n) {
+        if (this.limit - this.position >= n) {
+            return true;
+        }
+        if (this.eof) {
+            return false;
+        }
+        int keep = Math.max(0, this.position - HISTORY);
+        if (this.mark >= 0) {
+            keep = Math.min(keep, this.mark);
+        }
+        if (keep > 0) {
+            for (int i = 0; i < keep; i++) {
+                if (this.buffer[i] == '\n') {
+                    this.lines++;
+                    this.lineStart = this.offset + i + 1;
+                }
+            }
+            System.arraycopy(this.buffer, keep, this.buffer, 0, this.limit - keep);
+            this.offset += keep;
+            this.position -= keep;
+            this.limit -= keep;
+            if (this.mark >= 0) {
+                this.mark -= keep;
+            }
+        }
+        if (this.position + n > this.buffer.length) {
+            char[] newBuffer = new char[Math.max(this.buffer.length * 2, this.position + n)];
+            System.arraycopy(this.buffer, 0, newBuffer, 0, this.limit);
+            this.buffer = newBuffer;
+        }
+        try {
+            while (this.limit - this.position < n) {
+                int read = this.reader.read(this.buffer, this.limit, this.buffer.length - this.limit);
+                if (read < 0) {
+                    this.eof = true;
+                    break;
+                }
+                this.limit += read;
+                if (this.offset + this.limit > this.maxTextLength) {
+                    throw textTooLong();
+                }
+            }
+        } catch (IOException ioe) {
+            throw new JSONException("Error reading from source" + toString(), ioe);
+        }
+        return this.limit - this.position >= n;
+    }
+
+    /**
+     * Skips the whitespace and byte order marks at the start of the source.
+     * <code>JSONTokener(String)</code> only trims whitespace.
+     */
+    private void skipLeadingWhitespace() {
+        while (more()) {
+            char c = this.buffer[this.position];
+            if (c > ' ' && c != '\uFEFF') {
+                break;
+            }
+            this.position++;
+        }
+    }
+}
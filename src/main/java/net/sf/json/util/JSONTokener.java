@@ -15,6 +15,7 @@
  */
 package net.sf.json.util;
 
+import java.util.Arrays;
 import java.util.regex.Pattern;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONException;
@@ -31,6 +32,14 @@ import net.sf.json.JsonConfig;
  * @version 4
  */
 public class JSONTokener {
+    /**
+     * The powers of ten that are exactly representable as a double.
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19,
+        1e20, 1e21, 1e22
+    };
+
     /**
      * Get the hex value of a character (base16).
      *
@@ -51,6 +60,32 @@ public class JSONTokener {
         return -1;
     }
 
+    /**
+     * Number of characters shown before and after the error position in the
+     * message of a syntax error.
+     */
+    static final int ERROR_CONTEXT = 20;
+
+    /**
+     * Whether syntax errors include the whole source.
+     */
+    private boolean fullSourceInErrors;
+
+    /**
+     * Maximum number of characters of a number, see applyLimits().
+     */
+    int maxNumberLength = Integer.MAX_VALUE;
+
+    /**
+     * Maximum number of characters of a string, see applyLimits().
+     */
+    int maxStringLength = Integer.MAX_VALUE;
+
+    /**
+     * Maximum number of characters of the source, see applyLimits().
+     */
+    long maxTextLength = Long.MAX_VALUE;
+
     /**
      * The index of the next character.
      */
@@ -61,18 +96,39 @@ public class JSONTokener {
      */
     private String mySource;
 
+    /**
+     * Reusable buffer for the characters of unquoted values.
+     */
+    private char[] myToken = new char[32];
+
     /**
      * Construct a JSONTokener from a string.
      *
      * @param s A source string.
      */
     public JSONTokener(String s) {
+        this(s, null);
+    }
+
+    /**
+     * Construct a JSONTokener from a string, taking the settings that apply to
+     * tokenizing from a JsonConfig.
+     *
+     * @param s A source string.
+     * @param jsonConfig The configuration, may be null.
+     */
+    public JSONTokener(String s, JsonConfig jsonConfig) {
+        this.fullSourceInErrors = jsonConfig != null && jsonConfig.isFullSourceInSyntaxErrors();
         this.myIndex = 0;
         if (s != null) {
             s = s.trim();
         } else {
             s = "";
         }
+        this.mySource = s;
+        if (jsonConfig != null) {
+            applyLimits(jsonConfig);
+        }
         if (s.length() > 0) {
             char first = s.charAt(0);
             char last = s.charAt(s.length() - 1);
@@ -83,7 +139,51 @@ public class JSONTokener {
                 throw syntaxError("Found starting '{' but missing '}' at the end.");
             }
         }
-        this.mySource = s;
+    }
+
+    /**
+     * Construct a JSONTokener with an empty source.<br>
+     * Intended for subclasses that read their characters from somewhere other
+     * than a String; they must override every method that accesses the source.
+     */
+    protected JSONTokener() {
+        this.myIndex = 0;
+        this.mySource = "";
+    }
+
+    /**
+     * Returns the index of the next character of the source.
+     */
+    protected int index() {
+        return this.myIndex;
+    }
+
+    /**
+     * Moves to an index of the source, for parsers that locate the values
+     * through an index of the source rather than by reading it in order.
+     *
+     * @param index The index of the next character to read.
+     */
+    protected void seek(int index) {
+        this.myIndex = index;
+    }
+
+    /**
+     * Applies the limits of a JsonConfig on the size of the source, of strings
+     * and of numbers. They are checked as the characters are read, so an
+     * oversized text fails without being read to its end.
+     *
+     * @param jsonConfig The configuration holding the limits.
+     * @throws JSONException If the characters read so far already exceed the
+     *         maximum length of the source.
+     */
+    public void applyLimits(JsonConfig jsonConfig) {
+        this.maxNumberLength = jsonConfig.getMaxNumberLength();
+        this.maxStringLength = jsonConfig.getMaxStringLength();
+        this.maxTextLength = jsonConfig.getMaxTextLength();
+        if (length() > this.maxTextLength) {
+            throw textTooLong();
+        }
     }
 
     /**
@@ -229,9 +329,50 @@ public class JSONTokener {
      * @throws JSONException Unterminated string.
      */
     public String nextString(char quote) {
+        /*
+         * Most strings have no escapes; those are returned as a single
+         * substring of the source. The builder is only used from the first
+         * backslash (or offending character) on.
+         */
+        int start = this.myIndex;
+        int length = this.mySource.length();
+        for (int i = start; i < length; i++) {
+            char c = this.mySource.charAt(i);
+            if (c == quote) {
+                if (i - start > this.maxStringLength) {
+                    throw stringTooLong();
+                }
+                this.myIndex = i + 1;
+                return this.mySource.substring(start, i);
+            }
+            if (c == '\\' || c == '\n' || c == '\r' || c == 0) {
+                if (i - start > this.maxStringLength) {
+                    throw stringTooLong();
+                }
+                StringBuilder sb = new StringBuilder(i - start + 16);
+                sb.append(this.mySource, start, i);
+                this.myIndex = i;
+                return nextString(quote, sb);
+            }
+        }
+        return nextString(quote, new StringBuilder());
+    }
+
+    /**
+     * Return the characters up to the next close quote character, appended to
+     * the given builder. Backslash processing is done.
+     *
+     * @param quote The quoting character.
+     * @param sb The characters of the string read so far.
+     * @return A String.
+     * @throws JSONException Unterminated string.
+     */
+    protected String nextString(char quote, StringBuilder sb) {
         char c;
-        StringBuilder sb = new StringBuilder();
         for (; ; ) {
+            if (sb.length() > this.maxStringLength) {
+                throw stringTooLong();
+            }
             c = next();
             switch (c) {
                 case 0:
@@ -338,7 +479,6 @@ public class JSONTokener {
      */
     public Object nextValue(JsonConfig jsonConfig) {
         char c = nextClean();
-        String s;
 
         switch (c) {
             case '"':
@@ -351,39 +491,61 @@ public class JSONTokener {
                 back();
                 return JSONArray.fromObject(this, jsonConfig);
             default:
-                // empty
+                return nextUnquotedValue(c, jsonConfig);
         }
+    }
 
+    /**
+     * Get the next unquoted value, the first character of which has already
+     * been consumed. The value can be a Boolean, Double, Integer, Long, String,
+     * or the JSONNull object.
+     *
+     * @param c The first character of the value.
+     * @throws JSONException If syntax error.
+     * @return An object.
+     */
+    Object nextUnquotedValue(char c, JsonConfig jsonConfig) {
         /*
          * Handle unquoted text. This could be the values true, false, or null, or
          * it can be a number. An implementation (such as this one) is allowed to
          * also accept non-standard forms. Accumulate characters until we reach
-         * the end of the text or a formatting character.
+         * the end of the text or a formatting character. The characters are
+         * kept in a reusable buffer; a String is only created for string values.
          */
 
-        StringBuilder sb = new StringBuilder();
-        char b = c;
+        char[] token = this.myToken;
+        int length = 0;
         while (c >= ' ' && ",:]}/\\\"[{;=#".indexOf(c) < 0) {
-            sb.append(c);
+            if (length == token.length) {
+                if (length > this.maxStringLength && length > this.maxNumberLength) {
+                    throw stringTooLong();
+                }
+                token = Arrays.copyOf(token, length * 2);
+                this.myToken = token;
+            }
+            token[length++] = c;
             c = next();
         }
         back();
+        while (length > 0 && token[length - 1] <= ' ') {
+            length--;
+        }
 
         /*
          * If it is true, false, or null, return the proper value.
          */
 
-        s = sb.toString().trim();
-        if (s.equals("")) {
+        if (length == 0) {
             throw syntaxError("Missing value.");
         }
-        if (s.equalsIgnoreCase("true")) {
+        if (tokenEquals(token, length, "true", true)) {
             return Boolean.TRUE;
         }
-        if (s.equalsIgnoreCase("false")) {
+        if (tokenEquals(token, length, "false", true)) {
             return Boolean.FALSE;
         }
-        if (s.equals("null") || (jsonConfig.isJavascriptCompliant() && s.equals("undefined"))) {
+        if (tokenEquals(token, length, "null", false)
+                || (jsonConfig.isJavascriptCompliant() && tokenEquals(token, length, "undefined", false))) {
             return JSONNull.getInstance();
         }
 
@@ -395,35 +557,19 @@ public class JSONTokener {
          * forms as long as it accepts all correct JSON forms.
          */
 
+        char b = token[0];
         if ((b >= '0' && b <= '9') || b == '.' || b == '-' || b == '+') {
-            if (b == '0') {
-                if (s.length() > 2 && (s.charAt(1) == 'x' || s.charAt(1) == 'X')) {
-                    try {
-                        return Integer.parseInt(s.substring(2), 16);
-                    } catch (Exception e) {
-                        /* Ignore the error */
-                    }
-                } else {
-                    try {
-                        return Integer.parseInt(s, 8);
-                    } catch (Exception e) {
-                        /* Ignore the error */
-                    }
-                }
-            }
-
-            try {
-                if (s.contains(".") || s.contains("e") || s.contains("E")) {
-                    return Double.parseDouble(s);
-                } else {
-                    long l = Long.parseLong(s);
-                    return l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE ? (int) l : l;
-                }
-            } catch (Exception e) {
-                return s;
+            if (length > this.maxNumberLength) {
+                throw syntaxError("Number exceeds the maximum length of " + this.maxNumberLength);
             }
+            Number number = parseNumber(token, length);
+            return number != null ? number : new String(token, 0, length);
         }
 
+        if (length > this.maxStringLength) {
+            throw stringTooLong();
+        }
+        String s = new String(token, 0, length);
         switch (peek()) {
             case ',':
             case '}':
@@ -436,6 +582,232 @@ public class JSONTokener {
         return s;
     }
 
+    /**
+     * Parses the characters of an unquoted value as a number, without creating
+     * intermediate Strings or using exceptions for control flow. Accepts hex
+     * (0x-) and octal (0-) integers, decimal integers and decimal numbers with
+     * an optional fraction, exponent and Java style f/d suffix.
+     *
+     * @param s The characters of the value.
+     * @param length The number of characters to parse.
+     * @return An Integer, Long or Double, infinite for decimals out of the
+     *         range of double; or null if the characters are not a number,
+     *         which includes integers out of the range of long.
+     */
+    static Number parseNumber(char[] s, int length) {
+        if (s[0] == '0') {
+            if (length > 2 && (s[1] == 'x' || s[1] == 'X')) {
+                Integer hex = parseInt(s, 2, length, 16);
+                if (hex != null) {
+                    return hex;
+                }
+            } else {
+                Integer octal = parseInt(s, 0, length, 8);
+                if (octal != null) {
+                    return octal;
+                }
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            char c = s[i];
+            if (c == '.' || c == 'e' || c == 'E') {
+                return parseDecimal(s, length);
+            }
+        }
+        return parseInteger(s, length);
+    }
+
+    /**
+     * Parses an optionally signed decimal number with an optional fraction,
+     * exponent and f/d suffix.
+     */
+    private static Number parseDecimal(char[] s, int length) {
+        int i = 0;
+        boolean negative = false;
+        if (s[0] == '-' || s[0] == '+') {
+            negative = s[0] == '-';
+            i = 1;
+        }
+        int end = length;
+        if (end > i && "fFdD".indexOf(s[end - 1]) >= 0) {
+            end--;
+        }
+        if (end - i > 1 && s[i] == '0' && (s[i + 1] == 'x' || s[i + 1] == 'X')) {
+            // hexadecimal floating point, leave it to the JDK
+            try {
+                return Double.parseDouble(new String(s, 0, length));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        boolean anyDigit = false;
+        for (; i < end && s[i] >= '0' && s[i] <= '9'; i++) {
+            anyDigit = true;
+            int digit = s[i] - '0';
+            if (digits < 18) {
+                mantissa = mantissa * 10 + digit;
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+                truncated |= digit != 0;
+            }
+        }
+        if (i < end && s[i] == '.') {
+            for (i++; i < end && s[i] >= '0' && s[i] <= '9'; i++) {
+                anyDigit = true;
+                int digit = s[i] - '0';
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + digit;
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                } else {
+                    truncated |= digit != 0;
+                }
+            }
+        }
+        if (!anyDigit) {
+            return null;
+        }
+        if (i < end && (s[i] == 'e' || s[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (s[i] == '-' || s[i] == '+')) {
+                negativeExponent = s[i] == '-';
+                i++;
+            }
+            if (i == end) {
+                return null;
+            }
+            int e = 0;
+            for (; i < end; i++) {
+                if (s[i] < '0' || s[i] > '9') {
+                    return null;
+                }
+                if (e < 100000) {
+                    e = e * 10 + (s[i] - '0');
+                }
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (i != end) {
+            return null;
+        }
+
+        if (mantissa == 0) {
+            return negative ? -0.0d : 0.0d;
+        }
+        if (!truncated && mantissa <= (1L << 53) && exponent >= -22 && exponent <= 22) {
+            // exact: both the mantissa and the power of ten are representable
+            double d = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+            return negative ? -d : d;
+        }
+        return Double.parseDouble(new String(s, 0, length));
+    }
+
+    /**
+     * Parses an optionally signed decimal integer.
+     */
+    private static Number parseInteger(char[] s, int length) {
+        int i = 0;
+        boolean negative = false;
+        if (s[0] == '-' || s[0] == '+') {
+            negative = s[0] == '-';
+            i = 1;
+        }
+        if (i == length) {
+            return null;
+        }
+        // accumulate negatively, so that Long.MIN_VALUE can be represented
+        long result = 0;
+        boolean overflow = false;
+        for (; i < length; i++) {
+            char c = s[i];
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            int digit = c - '0';
+            if (!overflow) {
+                if (result < Long.MIN_VALUE / 10 || result * 10 < Long.MIN_VALUE + digit) {
+                    overflow = true;
+                } else {
+                    result = result * 10 - digit;
+                }
+            }
+        }
+        if (!negative) {
+            if (result == Long.MIN_VALUE) {
+                overflow = true;
+            }
+            result = -result;
+        }
+        if (overflow) {
+            return null;
+        }
+        if (result >= Integer.MIN_VALUE && result <= Integer.MAX_VALUE) {
+            return (int) result;
+        }
+        return result;
+    }
+
+    /**
+     * Parses an optionally signed hex or octal integer in the range of int.
+     */
+    private static Integer parseInt(char[] s, int from, int length, int radix) {
+        int i = from;
+        boolean negative = false;
+        if (i < length && (s[i] == '-' || s[i] == '+')) {
+            negative = s[i] == '-';
+            i++;
+        }
+        if (i == length) {
+            return null;
+        }
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = dehexchar(s[i]);
+            if (digit < 0 || digit >= radix) {
+                return null;
+            }
+            result = result * radix + digit;
+            if (result > -(long) Integer.MIN_VALUE) {
+                return null;
+            }
+        }
+        if (negative) {
+            result = -result;
+        }
+        if (result > Integer.MAX_VALUE) {
+            return null;
+        }
+        return (int) result;
+    }
+
+    /**
+     * Compares the characters of an unquoted value with a keyword.
+     */
+    private static boolean tokenEquals(char[] token, int length, String keyword, boolean ignoreCase) {
+        if (length != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = token[i];
+            char k = keyword.charAt(i);
+            if (c != k && (!ignoreCase || Character.toLowerCase(c) != k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Look at the next character in the source string.
      *
@@ -453,6 +825,91 @@ public class JSONTokener {
         this.myIndex = 0;
     }
 
+    /**
+     * Skip the next value without building it. Strings, objects and arrays are
+     * only scanned to find where the value ends: brackets must match, but the
+     * content is not validated any further.
+     *
+     * @throws JSONException If the value is missing or not terminated.
+     */
+    public void skipValue() {
+        char[] open = null;
+        int depth = 0;
+        do {
+            char c = nextClean();
+            switch (c) {
+                case 0:
+                    throw syntaxError(depth == 0 ? "Missing value." : "Unterminated value");
+                case '"':
+                case '\'':
+                    skipString(c);
+                    break;
+                case '{':
+                case '[':
+                    if (open == null) {
+                        open = new char[16];
+                    } else if (depth == open.length) {
+                        char[] newOpen = new char[depth * 2];
+                        System.arraycopy(open, 0, newOpen, 0, depth);
+                        open = newOpen;
+                    }
+                    open[depth++] = c;
+                    break;
+                case '}':
+                case ']':
+                    if (depth == 0) {
+                        throw syntaxError("Missing value.");
+                    }
+                    if ((open[--depth] == '[') != (c == ']')) {
+                        throw syntaxError("Unbalanced '" + c + "'");
+                    }
+                    break;
+                case ',':
+                case ':':
+                case ';':
+                case '=':
+                    if (depth == 0) {
+                        throw syntaxError("Missing value.");
+                    }
+                    break;
+                default:
+                    if ("/\\".indexOf(c) >= 0) {
+                        throw syntaxError("Missing value.");
+                    }
+                    do {
+                        c = next();
+                    } while (c >= ' ' && ",:]}/\\\"[{;=#".indexOf(c) < 0);
+                    back();
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Skip the characters up to and including the next close quote character,
+     * honoring backslash escapes.
+     *
+     * @param quote The quoting character.
+     * @throws JSONException Unterminated string.
+     */
+    private void skipString(char quote) {
+        for (; ; ) {
+            char c = next();
+            switch (c) {
+                case 0:
+                case '\n':
+                case '\r':
+                    throw syntaxError("Unterminated string");
+                case '\\':
+                    next();
+                    break;
+                default:
+                    if (c == quote) {
+                        return;
+                    }
+            }
+        }
+    }
+
     /**
      * Skip characters until past the requested string. If it is not found, we
      * are left at the end of the source.
@@ -500,13 +957,91 @@ public class JSONTokener {
         return new JSONException(message + toString());
     }
 
+    /**
+     * Make a JSONException to signal a string longer than allowed.
+     */
+    JSONException stringTooLong() {
+        return syntaxError("String exceeds the maximum length of " + this.maxStringLength);
+    }
+
+    /**
+     * Make a JSONException to signal a source longer than allowed.
+     */
+    JSONException textTooLong() {
+        return new JSONException("JSON text exceeds the maximum length of " + this.maxTextLength);
+    }
+
+    /**
+     * Returns whether syntax errors include the whole source.
+     */
+    public boolean isFullSourceInErrors() {
+        return fullSourceInErrors;
+    }
+
+    /**
+     * Sets whether syntax errors include the whole source.<br>
+     * By default they only show the position and a few characters around it,
+     * so that a large or sensitive payload is neither copied nor logged.
+     */
+    public void setFullSourceInErrors(boolean fullSourceInErrors) {
+        this.fullSourceInErrors = fullSourceInErrors;
+    }
+
     /**
      * Make a printable string of this JSONTokener.
      *
-     * @return " at character [this.myIndex] of [this.mySource]"
+     * @return " at character [this.myIndex] (line [line], column [column]) near
+     *         '[context]'", followed by " of [this.mySource]" if the full
+     *         source was requested
      */
     @Override
     public String toString() {
-        return " at character " + this.myIndex + " of " + this.mySource;
+        int line = 1;
+        int lineStart = 0;
+        int end = Math.min(this.myIndex, this.mySource.length());
+        for (int i = 0; i < end; i++) {
+            if (this.mySource.charAt(i) == '\n') {
+                line++;
+                lineStart = i + 1;
+            }
+        }
+        String location = location(this.myIndex, line, this.myIndex - lineStart + 1, this.mySource, this.myIndex);
+        if (this.fullSourceInErrors) {
+            return location + " of " + this.mySource;
+        }
+        return location;
+    }
+
+    /**
+     * Describes a position in the source for an error message, showing at most
+     * {@link #ERROR_CONTEXT} characters on each side of it.
+     *
+     * @param index The position in the source.
+     * @param line The line of the position, starting at 1.
+     * @param column The column of the position, starting at 1.
+     * @param window The available characters around the position.
+     * @param windowIndex The position in the window.
+     */
+    static String location(long index, long line, long column, CharSequence window, int windowIndex) {
+        int from = Math.max(0, windowIndex - ERROR_CONTEXT);
+        int to = Math.min(window.length(), windowIndex + ERROR_CONTEXT);
+        StringBuilder sb = new StringBuilder(2 * ERROR_CONTEXT + 64);
+        sb.append(" at character ").append(index);
+        sb.append(" (line ").append(line).append(", column ").append(column).append(')');
+        if (from < to) {
+            sb.append(" near '");
+            if (from > 0) {
+                sb.append("...");
+            }
+            for (int i = from; i < to; i++) {
+                char c = window.charAt(i);
+                sb.append(c < ' ' ? ' ' : c);
+            }
+            if (to < window.length()) {
+                sb.append("...");
+            }
+            sb.append('\'');
+        }
+        return sb.toString();
     }
 }
@@ -16,6 +16,8 @@
 
 package net.sf.json.util;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Collection;
@@ -48,6 +50,8 @@ public final class JSONUtils {
     /** Constant for char ' */
     public static final String SINGLE_QUOTE = "'";
 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private static final MorpherRegistry morpherRegistry = new MorpherRegistry();
 
     static {
@@ -387,19 +391,46 @@ public final class JSONUtils {
             throw new JSONException("Null pointer");
         }
         testValidity(n);
+        String s = n.toString();
+        int end = significantLength(s);
+        return end == s.length() ? s : s.substring(0, end);
+    }
 
-        // Shave off trailing zeros and decimal point, if possible.
-
+    /**
+     * Writes a Number the way {@link #numberToString(Number)} makes it, without
+     * copying it to shave off trailing zeros.
+     *
+     * @throws JSONException If n is a non-finite number.
+     */
+    public static void writeNumber(Number n, Writer writer) throws IOException {
+        if (n == null) {
+            throw new JSONException("Null pointer");
+        }
+        if (writer instanceof StringBuilderWriter
+                && (n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte)) {
+            ((StringBuilderWriter) writer).getBuilder().append(n.longValue());
+            return;
+        }
+        testValidity(n);
         String s = n.toString();
+        writer.write(s, 0, significantLength(s));
+    }
+
+    /**
+     * Returns the length of a number without the trailing zeros of its
+     * fraction, and without its decimal point if nothing follows it.
+     */
+    private static int significantLength(String s) {
+        int end = s.length();
         if (s.indexOf('.') > 0 && s.indexOf('e') < 0 && s.indexOf('E') < 0) {
-            while (s.endsWith("0")) {
-                s = s.substring(0, s.length() - 1);
+            while (s.charAt(end - 1) == '0') {
+                end--;
             }
-            if (s.endsWith(".")) {
-                s = s.substring(0, s.length() - 1);
+            if (s.charAt(end - 1) == '.') {
+                end--;
             }
         }
-        return s;
+        return end;
     }
 
     /**
@@ -415,77 +446,76 @@ public final class JSONUtils {
         if (string == null || string.length() == 0) {
             return "\"\"";
         }
+        StringBuilderWriter writer = new StringBuilderWriter(string.length() + 16);
+        try {
+            quote(string, writer);
+        } catch (IOException ioe) {
+            throw new JSONException(ioe);
+        }
+        return writer.toString();
+    }
 
-        char b;
-        char c = 0;
-        int i;
-        int len = string.length();
-        StringBuilder sb = new StringBuilder(len * 2);
-        String t;
-        char[] chars = string.toCharArray();
-        char[] buffer = new char[1030];
-        int bufferIndex = 0;
-        sb.append('"');
-        for (i = 0; i < len; i += 1) {
-            if (bufferIndex > 1024) {
-                sb.append(buffer, 0, bufferIndex);
-                bufferIndex = 0;
-            }
-            b = c;
-            c = chars[i];
-            switch (c) {
-                case '\\':
-                case '"':
-                    buffer[bufferIndex++] = '\\';
-                    buffer[bufferIndex++] = c;
-                    break;
-                case '/':
-                    if (b == '<') {
-                        buffer[bufferIndex++] = '\\';
-                    }
-                    buffer[bufferIndex++] = c;
-                    break;
-                default:
-                    if (c < ' ') {
-                        switch (c) {
-                            case '\b':
-                                buffer[bufferIndex++] = '\\';
-                                buffer[bufferIndex++] = 'b';
-                                break;
-                            case '\t':
-                                buffer[bufferIndex++] = '\\';
-                                buffer[bufferIndex++] = 't';
-                                break;
-                            case '\n':
-                                buffer[bufferIndex++] = '\\';
-                                buffer[bufferIndex++] = 'n';
-                                break;
-                            case '\f':
-                                buffer[bufferIndex++] = '\\';
-                                buffer[bufferIndex++] = 'f';
-                                break;
-                            case '\r':
-                                buffer[bufferIndex++] = '\\';
-                                buffer[bufferIndex++] = 'r';
-                                break;
-                            default:
-                                t = "000" + Integer.toHexString(c);
-                                int tLength = t.length();
-                                buffer[bufferIndex++] = '\\';
-                                buffer[bufferIndex++] = 'u';
-                                buffer[bufferIndex++] = t.charAt(tLength - 4);
-                                buffer[bufferIndex++] = t.charAt(tLength - 3);
-                                buffer[bufferIndex++] = t.charAt(tLength - 2);
-                                buffer[bufferIndex++] = t.charAt(tLength - 1);
-                        }
-                    } else {
-                        buffer[bufferIndex++] = c;
+    /**
+     * Writes a string in double quotes, escaped as {@link #quote(String)} does.
+     * The characters that need no escape are written in runs, straight from
+     * the string.
+     *
+     * @param string A String, null is written as an empty string
+     * @param writer the Writer to write to
+     */
+    public static void quote(String string, Writer writer) throws IOException {
+        writer.write('"');
+        if (string != null) {
+            int len = string.length();
+            int start = 0;
+            char b;
+            char c = 0;
+            for (int i = 0; i < len; i++) {
+                b = c;
+                c = string.charAt(i);
+                if (c == '\\' || c == '"' || c < ' ' || (c == '/' && b == '<')) {
+                    writer.write(string, start, i - start);
+                    start = i + 1;
+                    writer.write('\\');
+                    switch (c) {
+                        case '\b':
+                            writer.write('b');
+                            break;
+                        case '\t':
+                            writer.write('t');
+                            break;
+                        case '\n':
+                            writer.write('n');
+                            break;
+                        case '\f':
+                            writer.write('f');
+                            break;
+                        case '\r':
+                            writer.write('r');
+                            break;
+                        default:
+                            if (c < ' ') {
+                                writeUnicodeEscape(c, writer);
+                            } else {
+                                writer.write(c);
+                            }
                     }
+                }
             }
+            writer.write(string, start, len - start);
         }
-        sb.append(buffer, 0, bufferIndex);
-        sb.append('"');
-        return sb.toString();
+        writer.write('"');
+    }
+
+    /**
+     * Writes the four hex digits that follow a backslash and 'u'.
+     */
+    private static void writeUnicodeEscape(char c, Writer writer) throws IOException {
+        writer.write('u');
+        writer.write(HEX_DIGITS[(c >> 12) & 0xF]);
+        writer.write(HEX_DIGITS[(c >> 8) & 0xF]);
+        writer.write(HEX_DIGITS[(c >> 4) & 0xF]);
+        writer.write(HEX_DIGITS[c & 0xF]);
     }
 
     /**
@@ -495,30 +525,43 @@ public final class JSONUtils {
         if (s == null || s.length() == 0) {
             return "\"\"";
         }
+        StringBuilderWriter writer = new StringBuilderWriter(s.length() + 4);
+        try {
+            quoteCanonical(s, writer);
+        } catch (IOException ioe) {
+            throw new JSONException(ioe);
+        }
+        return writer.toString();
+    }
 
-        int len = s.length();
-        StringBuilder sb = new StringBuilder(len + 4);
-
-        sb.append('"');
-        for (int i = 0; i < len; i += 1) {
-            char c = s.charAt(i);
-            switch (c) {
-                case '\\':
-                case '"':
-                    sb.append('\\');
-                    sb.append(c);
-                    break;
-                default:
+    /**
+     * Writes a string in double quotes, in the minimal escape form of
+     * {@link #quoteCanonical(String)}.
+     *
+     * @param s A String, null is written as an empty string
+     * @param writer the Writer to write to
+     */
+    public static void quoteCanonical(String s, Writer writer) throws IOException {
+        writer.write('"');
+        if (s != null) {
+            int len = s.length();
+            int start = 0;
+            for (int i = 0; i < len; i++) {
+                char c = s.charAt(i);
+                if (c == '\\' || c == '"' || c < ' ') {
+                    writer.write(s, start, i - start);
+                    start = i + 1;
+                    writer.write('\\');
                     if (c < ' ') {
-                        String t = "000" + Integer.toHexString(c);
-                        sb.append("\\u").append(t.substring(t.length() - 4));
+                        writeUnicodeEscape(c, writer);
                     } else {
-                        sb.append(c);
+                        writer.write(c);
                     }
+                }
             }
+            writer.write(s, start, len - start);
         }
-        sb.append('"');
-        return sb.toString();
+        writer.write('"');
     }
 
     /**
@@ -649,6 +692,55 @@ public final class JSONUtils {
         return quoteCanonical(value.toString());
     }
 
+    /**
+     * Writes the JSON text of an Object value, the text
+     * {@link #valueToString(Object)} makes, without building it first. Nested
+     * JSONObjects and JSONArrays are written through their write() method.
+     *
+     * @param value The value to be serialized.
+     * @param writer the Writer to write to
+     * @throws JSONException If the value is or contains an invalid number.
+     */
+    public static void writeValue(Object value, Writer writer) throws IOException {
+        if (value == null || isNull(value)) {
+            writer.write("null");
+        } else if (value instanceof JSONObject || value instanceof JSONArray) {
+            ((JSON) value).write(writer);
+        } else if (value instanceof JSONString) {
+            writer.write(((JSONString) value).toJSONString());
+        } else if (value instanceof Number) {
+            writeNumber((Number) value, writer);
+        } else if (value instanceof Boolean) {
+            writer.write(value.toString());
+        } else {
+            quote(value.toString(), writer);
+        }
+    }
+
+    /**
+     * Writes the text {@link #valueToCanonicalString(Object)} makes, without
+     * building it first.
+     *
+     * @param value The value to be serialized.
+     * @param writer the Writer to write to
+     * @throws JSONException If the value is or contains an invalid number.
+     */
+    public static void writeCanonicalValue(Object value, Writer writer) throws IOException {
+        if (value == null || isNull(value)) {
+            writer.write("null");
+        } else if (value instanceof JSONObject || value instanceof JSONArray) {
+            ((JSON) value).write(writer);
+        } else if (value instanceof JSONString) {
+            writer.write(((JSONString) value).toJSONString());
+        } else if (value instanceof Number) {
+            writer.write(numberToString((Number) value).toLowerCase());
+        } else if (value instanceof Boolean) {
+            writer.write(value.toString());
+        } else {
+            quoteCanonical(value.toString(), writer);
+        }
+    }
+
     /**
      * Make a prettyprinted JSON text of an object value.
      * <p>
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json.util;
+
+import java.util.NoSuchElementException;
+import net.sf.json.JSON;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
+import net.sf.json.JsonConfig;
+
+/**
+ * A pull parser that reads a JSON text as a sequence of events instead of
+ * building a JSONObject or JSONArray tree.<br>
+ * It accepts the same grammar as <code>JSONTokener.nextValue()</code>,
+ * including the lenient forms (single quoted and unquoted strings,
+ * <code>=</code> and {@code =>} after keys, <code>;</code> between values and
+ * comments).
+ *
+ * <pre>
+ * JsonParser parser = new JsonParser(new JSONTokener(text));
+ * while (parser.hasNext()) {
+ *     if (parser.next() == JsonParser.Event.KEY &amp;&amp; "name".equals(parser.getString())) {
+ *         parser.next();
+ *         name = parser.getString();
+ *     }
+ * }</pre>
+ *
+ * @author JSON.org
+ */
+public class JsonParser {
+    /**
+     * The events reported by a JsonParser.
+     */
+    public enum Event {
+        START_OBJECT,
+        END_OBJECT,
+        START_ARRAY,
+        END_ARRAY,
+        KEY,
+        VALUE_STRING,
+        VALUE_NUMBER,
+        VALUE_TRUE,
+        VALUE_FALSE,
+        VALUE_NULL
+    }
+
+    private static final byte IN_ARRAY = 2;
+    private static final byte IN_OBJECT = 1;
+
+    private boolean afterKey;
+    private Event current;
+    private int depth;
+    private boolean finished;
+    private final JsonConfig jsonConfig;
+    private boolean needsSeparator;
+    private byte[] stack = new byte[16];
+    private final JSONTokener tokener;
+    private Object value;
+
+    /**
+     * Creates a JsonParser with a default configuration.
+     *
+     * @param tokener the source of the JSON text
+     */
+    public JsonParser(JSONTokener tokener) {
+        this(tokener, new JsonConfig());
+    }
+
+    /**
+     * Creates a JsonParser.
+     *
+     * @param tokener the source of the JSON text
+     * @param jsonConfig additional configuration, used when parsing unquoted
+     *        values and when building trees with {@link #getJSON()}; its
+     *        limits on strings, numbers and the length of the text are applied
+     *        to the tokener
+     */
+    public JsonParser(JSONTokener tokener, JsonConfig jsonConfig) {
+        if (tokener == null) {
+            throw new IllegalArgumentException("tokener is null");
+        }
+        this.tokener = tokener;
+        this.jsonConfig = jsonConfig != null ? jsonConfig : new JsonConfig();
+        tokener.applyLimits(this.jsonConfig);
+    }
+
+    /**
+     * Returns the last reported event, or null if next() has not been called
+     * yet.
+     */
+    public Event getCurrentEvent() {
+        return current;
+    }
+
+    /**
+     * Returns the number of objects and arrays enclosing the current
+     * position.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Builds the JSONObject or JSONArray opened by the current START_OBJECT or
+     * START_ARRAY event, consuming the source up to its matching end. The next
+     * event reported is the one that follows the end of that value.
+     *
+     * @throws JSONException if the current event does not start an object or
+     *         an array
+     */
+    public JSON getJSON() {
+        if (current != Event.START_OBJECT && current != Event.START_ARRAY) {
+            throw new JSONException("getJSON() is only allowed on START_OBJECT or START_ARRAY, current event is "
+                    + current);
+        }
+        tokener.back();
+        JSON json;
+        if (current == Event.START_OBJECT) {
+            json = JSONObject.fromObject(tokener, jsonConfig);
+            current = Event.END_OBJECT;
+        } else {
+            json = JSONArray.fromObject(tokener, jsonConfig);
+            current = Event.END_ARRAY;
+        }
+        value = null;
+        pop();
+        return json;
+    }
+
+    /**
+     * Returns the value of the current VALUE_NUMBER event.
+     *
+     * @throws JSONException if the current event is not VALUE_NUMBER
+     */
+    public Number getNumber() {
+        if (current != Event.VALUE_NUMBER) {
+            throw new JSONException("getNumber() is only allowed on VALUE_NUMBER, current event is " + current);
+        }
+        return (Number) value;
+    }
+
+    /**
+     * Returns the key name of a KEY event, or the text of a VALUE_STRING or
+     * VALUE_NUMBER event.
+     *
+     * @throws JSONException if the current event has no text
+     */
+    public String getString() {
+        if (current != Event.KEY && current != Event.VALUE_STRING && current != Event.VALUE_NUMBER) {
+            throw new JSONException("getString() is only allowed on KEY, VALUE_STRING or VALUE_NUMBER, current event is "
+                    + current);
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Returns the value of the current event as <code>JSONTokener.nextValue()</code>
+     * would produce it: a String, Number, Boolean or JSONNull for value events,
+     * the key name for KEY events and null for structural events.
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Returns true if there are more events to read.
+     */
+    public boolean hasNext() {
+        return !finished && (depth > 0 || tokener.more());
+    }
+
+    /**
+     * Advances to the next event.
+     *
+     * @throws NoSuchElementException if there are no more events
+     * @throws JSONException if the source is not valid JSON
+     */
+    public Event next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        value = null;
+        if (depth == 0) {
+            return current = nextValue();
+        }
+        if (stack[depth - 1] == IN_OBJECT) {
+            return current = nextInObject();
+        }
+        return current = nextInArray();
+    }
+
+    /**
+     * Skips the rest of the object or array opened by the current START_OBJECT
+     * or START_ARRAY event, so that the next event is the one that follows
+     * its END_OBJECT or END_ARRAY. Does nothing on other events.
+     */
+    public void skipChildren() {
+        if (current != Event.START_OBJECT && current != Event.START_ARRAY) {
+            return;
+        }
+        tokener.back();
+        tokener.skipValue();
+        current = current == Event.START_OBJECT ? Event.END_OBJECT : Event.END_ARRAY;
+        value = null;
+        pop();
+    }
+
+    private Event nextInArray() {
+        char c;
+        if (needsSeparator) {
+            switch (tokener.nextClean()) {
+                case ';':
+                case ',':
+                    if (tokener.nextClean() == ']') {
+                        return pop(Event.END_ARRAY);
+                    }
+                    tokener.back();
+                    break;
+                case ']':
+                    return pop(Event.END_ARRAY);
+                default:
+                    throw tokener.syntaxError("Expected a ',' or ']'");
+            }
+        } else {
+            if (tokener.nextClean() == ']') {
+                return pop(Event.END_ARRAY);
+            }
+            tokener.back();
+        }
+        c = tokener.nextClean();
+        tokener.back();
+        if (c == ',') {
+            needsSeparator = true;
+            value = JSONNull.getInstance();
+            return Event.VALUE_NULL;
+        }
+        return nextValue();
+    }
+
+    private Event nextInObject() {
+        char c;
+        if (afterKey) {
+            /*
+             * The key is followed by ':'. We will also tolerate '=' or '=>'.
+             */
+            afterKey = false;
+            c = tokener.nextClean();
+            if (c == '=') {
+                if (tokener.next() != '>') {
+                    tokener.back();
+                }
+            } else if (c != ':') {
+                throw tokener.syntaxError("Expected a ':' after a key");
+            }
+            return nextValue();
+        }
+        if (needsSeparator) {
+            /*
+             * Pairs are separated by ','. We will also tolerate ';'.
+             */
+            switch (tokener.nextClean()) {
+                case ';':
+                case ',':
+                    if (tokener.nextClean() == '}') {
+                        return pop(Event.END_OBJECT);
+                    }
+                    tokener.back();
+                    break;
+                case '}':
+                    return pop(Event.END_OBJECT);
+                default:
+                    throw tokener.syntaxError("Expected a ',' or '}'");
+            }
+        }
+        c = tokener.nextClean();
+        switch (c) {
+            case 0:
+                throw tokener.syntaxError("A JSONObject text must end with '}'");
+            case '}':
+                return pop(Event.END_OBJECT);
+            default:
+                tokener.back();
+                String key = tokener.nextValue(jsonConfig).toString();
+                KeyCache keyCache = jsonConfig.getKeyCache();
+                value = keyCache != null ? keyCache.canonicalize(key) : key;
+                afterKey = true;
+                needsSeparator = false;
+                return Event.KEY;
+        }
+    }
+
+    private Event nextValue() {
+        char c = tokener.nextClean();
+        switch (c) {
+            case '"':
+            case '\'':
+                value = tokener.nextString(c);
+                valueRead();
+                return Event.VALUE_STRING;
+            case '{':
+                push(IN_OBJECT);
+                return Event.START_OBJECT;
+            case '[':
+                push(IN_ARRAY);
+                return Event.START_ARRAY;
+            default:
+                value = tokener.nextUnquotedValue(c, jsonConfig);
+                valueRead();
+                if (value instanceof Number) {
+                    return Event.VALUE_NUMBER;
+                } else if (Boolean.TRUE.equals(value)) {
+                    return Event.VALUE_TRUE;
+                } else if (Boolean.FALSE.equals(value)) {
+                    return Event.VALUE_FALSE;
+                } else if (value instanceof JSONNull) {
+                    return Event.VALUE_NULL;
+                }
+                return Event.VALUE_STRING;
+        }
+    }
+
+    private void pop() {
+        depth--;
+        valueRead();
+    }
+
+    private Event pop(Event event) {
+        pop();
+        return event;
+    }
+
+    private void push(byte context) {
+        if (depth == jsonConfig.getMaxNestingDepth()) {
+            throw tokener.syntaxError("Nesting depth exceeds the maximum of " + jsonConfig.getMaxNestingDepth());
+        }
+        if (depth == stack.length) {
+            byte[] newStack = new byte[stack.length * 2];
+            System.arraycopy(stack, 0, newStack, 0, depth);
+            stack = newStack;
+        }
+        stack[depth++] = context;
+        needsSeparator = false;
+        afterKey = false;
+    }
+
+    private void valueRead() {
+        if (depth == 0) {
+            finished = true;
+        }
+        needsSeparator = true;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json.util;
+
+import java.util.Arrays;
+
+/**
+ * A bounded cache that canonicalizes the keys of parsed JSONObjects, so that
+ * repeated keys (as in an array of similar objects) share a single String
+ * instance with an already computed hash code.<br>
+ * The cache is a fixed size table where a new key replaces the one stored in
+ * its slot, so its memory use never grows. It is safe to share between
+ * threads; concurrent updates may only cause a missed canonicalization.
+ *
+ * <pre>
+ * JsonConfig jsonConfig = new JsonConfig();
+ * jsonConfig.setKeyCache(new KeyCache());
+ * JSONArray records = JSONArray.fromObject(text, jsonConfig);</pre>
+ *
+ * @author JSON.org
+ */
+public final class KeyCache {
+    /**
+     * Default number of slots.
+     */
+    public static final int DEFAULT_SIZE = 1024;
+
+    /**
+     * Default maximum length of the keys that are cached.
+     */
+    public static final int DEFAULT_MAX_KEY_LENGTH = 64;
+
+    private final String[] keys;
+    private final int mask;
+    private final int maxKeyLength;
+
+    /**
+     * Creates a KeyCache with {@link #DEFAULT_SIZE} slots for keys of up to
+     * {@link #DEFAULT_MAX_KEY_LENGTH} characters.
+     */
+    public KeyCache() {
+        this(DEFAULT_SIZE, DEFAULT_MAX_KEY_LENGTH);
+    }
+
+    /**
+     * Creates a KeyCache.
+     *
+     * @param size the number of slots, rounded up to a power of two
+     * @param maxKeyLength longer keys are returned as they are
+     */
+    public KeyCache(int size, int maxKeyLength) {
+        if (size <= 0 || size > 1 << 30) {
+            throw new IllegalArgumentException("size must be between 1 and 2^30");
+        }
+        if (maxKeyLength < 0) {
+            throw new IllegalArgumentException("maxKeyLength is negative");
+        }
+        int capacity = Integer.highestOneBit(size);
+        if (capacity < size) {
+            capacity <<= 1;
+        }
+        this.keys = new String[capacity];
+        this.mask = capacity - 1;
+        this.maxKeyLength = maxKeyLength;
+    }
+
+    /**
+     * Returns the cached instance equal to key, caching key if there is none.
+     *
+     * @param key the key just read from the source, may be null
+     * @return an equal String, the same instance for every equal key while it
+     *         stays in the cache
+     */
+    public String canonicalize(String key) {
+        if (key == null || key.length() > maxKeyLength) {
+            return key;
+        }
+        int h = key.hashCode();
+        int index = (h ^ (h >>> 16)) & mask;
+        String cached = keys[index];
+        if (cached != null && cached.equals(key)) {
+            return cached;
+        }
+        keys[index] = key;
+        return key;
+    }
+
+    /**
+     * Removes all the cached keys.
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json.util;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.beanutils.PropertyUtils;
+
+/**
+ * Reads and writes a property or a public field of a bean class through
+ * MethodHandles that are looked up once, instead of finding the property by
+ * name and calling it through reflection on every access.<br>
+ * Accessors are cached per class. They behave as PropertyUtils and Field do:
+ * an exception thrown by a getter or setter is wrapped in an
+ * InvocationTargetException, and a value that needs a widening conversion,
+ * or does not fit the property, is passed through reflection so that it is
+ * converted or rejected the same way. Members that MethodHandles can not reach,
+ * such as public methods declared by a class that is not public, are
+ * accessed through PropertyUtils and Field.
+ *
+ * <pre>
+ * PropertyAccessor accessor = PropertyAccessor.forProperty(Person.class, "name");
+ * accessor.set(person, "Ada");
+ * Object name = accessor.get(person);</pre>
+ *
+ * @author JSON.org
+ */
+public final class PropertyAccessor {
+    private static final ClassValue<Members> MEMBERS = new ClassValue<Members>() {
+        @Override
+        protected Members computeValue(Class<?> type) {
+            return new Members(type);
+        }
+    };
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final PropertyAccessor NONE = new PropertyAccessor(null, null, null, null, null, null, null);
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * Returns the accessor of a public field, or null if beanClass has no
+     * public field with that name.
+     */
+    public static PropertyAccessor forField(Class<?> beanClass, String name) {
+        return MEMBERS.get(beanClass).field(name);
+    }
+
+    /**
+     * Returns the accessor of a property, or null if beanClass has no property
+     * with that name.
+     */
+    public static PropertyAccessor forProperty(Class<?> beanClass, String name) {
+        return MEMBERS.get(beanClass).property(name);
+    }
+
+    private static MethodHandle getter(Method method, Field field) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            MethodHandle handle = method != null ? lookup.unreflect(method) : lookup.unreflectGetter(field);
+            return handle.asType(GETTER);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle setter(Method method, Field field) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            MethodHandle handle = method != null ? lookup.unreflect(method) : lookup.unreflectSetter(field);
+            return handle.asType(SETTER);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private final Field field;
+    private final MethodHandle getter;
+    private final String name;
+    private final MethodHandle setter;
+    private final Class<?> type;
+    /** the type of the values the setter takes as they are, boxed */
+    private final Class<?> valueType;
+    private final Method writeMethod;
+
+    private PropertyAccessor(
+            String name,
+            Class<?> type,
+            Field field,
+            Method writeMethod,
+            MethodHandle getter,
+            MethodHandle setter,
+            Class<?> valueType) {
+        this.name = name;
+        this.type = type;
+        this.field = field;
+        this.writeMethod = writeMethod;
+        this.getter = getter;
+        this.setter = setter;
+        this.valueType = valueType;
+    }
+
+    /**
+     * Returns the value of the property or field of a bean.
+     *
+     * @throws InvocationTargetException if the getter throws an exception
+     * @throws NoSuchMethodException if the property has no getter
+     */
+    public Object get(Object bean) throws IllegalAccessException, InvocationTargetException, NoSuchMethodException {
+        if (getter == null) {
+            return field != null ? field.get(bean) : PropertyUtils.getProperty(bean, name);
+        }
+        try {
+            return (Object) getter.invokeExact(bean);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Returns the name of the property or field.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the type of the property or field.
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Returns true if the property has a setter, or the field is not final.
+     */
+    public boolean isWritable() {
+        return field != null ? !Modifier.isFinal(field.getModifiers()) : writeMethod != null;
+    }
+
+    /**
+     * Sets the property or field of a bean.
+     *
+     * @throws IllegalArgumentException if the value does not fit the property
+     * @throws InvocationTargetException if the setter throws an exception
+     * @throws NoSuchMethodException if the property has no setter
+     */
+    public void set(Object bean, Object value)
+            throws IllegalAccessException, InvocationTargetException, NoSuchMethodException {
+        if (setter == null || (value == null ? type.isPrimitive() : !valueType.isInstance(value))) {
+            if (field != null) {
+                field.set(bean, value);
+            } else {
+                PropertyUtils.setSimpleProperty(bean, name, value);
+            }
+            return;
+        }
+        try {
+            setter.invokeExact(bean, value);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * The accessors of a class, created as they are asked for.
+     */
+    private static final class Members {
+        private final Class<?> beanClass;
+        private final Map<String, PropertyAccessor> fields = new ConcurrentHashMap<>();
+        private final Map<String, PropertyAccessor> properties = new ConcurrentHashMap<>();
+        private final Map<String, PropertyDescriptor> propertyDescriptors = new HashMap<>();
+
+        Members(Class<?> beanClass) {
+            this.beanClass = beanClass;
+            for (PropertyDescriptor pd : PropertyUtils.getPropertyDescriptors(beanClass)) {
+                propertyDescriptors.put(pd.getName(), pd);
+            }
+        }
+
+        PropertyAccessor field(String name) {
+            PropertyAccessor accessor = fields.get(name);
+            if (accessor == null) {
+                accessor = NONE;
+                try {
+                    Field field = beanClass.getField(name);
+                    Class<?> type = field.getType();
+                    // static fields get no handles, they are accessed through reflection
+                    accessor = new PropertyAccessor(name, type, field, null, getter(null, field),
+                            setter(null, field), MethodType.methodType(type).wrap().returnType());
+                } catch (NoSuchFieldException | SecurityException e) {
+                    // no such public field
+                }
+                fields.put(name, accessor);
+            }
+            return accessor == NONE ? null : accessor;
+        }
+
+        PropertyAccessor property(String name) {
+            PropertyAccessor accessor = properties.get(name);
+            if (accessor == null) {
+                accessor = NONE;
+                PropertyDescriptor pd = propertyDescriptors.get(name);
+                if (pd != null) {
+                    Class<?> type = pd.getPropertyType();
+                    Method readMethod;
+                    try {
+                        readMethod = pd.getReadMethod();
+                    } catch (RuntimeException e) {
+                        readMethod = null;
+                    }
+                    Method writeMethod = pd.getWriteMethod();
+                    Class<?> valueType = type != null ? MethodType.methodType(type).wrap().returnType() : null;
+                    accessor = new PropertyAccessor(name, type, null, writeMethod,
+                            readMethod != null ? getter(readMethod, null) : null,
+                            writeMethod != null && type != null ? setter(writeMethod, null) : null,
+                            valueType);
+                }
+                properties.put(name, accessor);
+            }
+            return accessor == NONE ? null : accessor;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json.util;
+
+/**
+ * A PropertyFilter that decides on the name of the property alone.<br>
+ * When used as the json property filter, the values of rejected keys are
+ * skipped by the parser instead of being built and then discarded.
+ */
+public interface PropertyNameFilter extends PropertyFilter {
+    /**
+     * @param name the name of the property
+     * @return true if the property will be filtered out, false otherwise
+     */
+    boolean apply(String name);
+
+    @Override
+    default boolean apply(Object source, String name, Object value) {
+        return apply(name);
+    }
+}
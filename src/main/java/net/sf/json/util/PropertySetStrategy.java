@@ -16,10 +16,10 @@
 
 package net.sf.json.util;
 
-import java.lang.reflect.Field;
 import java.util.Map;
 import net.sf.json.JSONException;
 import net.sf.json.JsonConfig;
+import org.apache.commons.beanutils.DynaBean;
 import org.apache.commons.beanutils.PropertyUtils;
 
 /**
@@ -51,7 +51,7 @@ public abstract class PropertySetStrategy {
             } else {
                 if (!jsonConfig.isIgnorePublicFields()) {
                     try {
-                        Field field = bean.getClass().getField(key);
+                        PropertyAccessor field = PropertyAccessor.forField(bean.getClass(), key);
                         if (field != null) {
                             field.set(bean, value);
                             return;
@@ -62,7 +62,14 @@ public abstract class PropertySetStrategy {
                 }
 
                 try {
-                    PropertyUtils.setSimpleProperty(bean, key, value);
+                    PropertyAccessor property = bean instanceof DynaBean
+                            ? null
+                            : PropertyAccessor.forProperty(bean.getClass(), key);
+                    if (property != null && property.isWritable()) {
+                        property.set(bean, value);
+                    } else {
+                        PropertyUtils.setSimpleProperty(bean, key, value);
+                    }
                 } catch (NoSuchMethodException e) {
                     if (jsonConfig.isIgnoreUnreadableProperty()) {
                         // ignore missing properties
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json.util;
+
+import java.io.Writer;
+
+/**
+ * A Writer that appends to a StringBuilder.<br>
+ * Unlike StringWriter it takes no lock on every write, and its builder is
+ * available to writers of numbers that can append them without creating a
+ * String first. It never throws IOException.
+ *
+ * @author JSON.org
+ */
+public final class StringBuilderWriter extends Writer {
+    private final StringBuilder builder;
+
+    public StringBuilderWriter() {
+        this(16);
+    }
+
+    /**
+     * @param capacity the initial capacity of the builder
+     */
+    public StringBuilderWriter(int capacity) {
+        this.builder = new StringBuilder(capacity);
+    }
+
+    @Override
+    public Writer append(char c) {
+        builder.append(c);
+        return this;
+    }
+
+    @Override
+    public Writer append(CharSequence csq) {
+        builder.append(csq);
+        return this;
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) {
+        builder.append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public void flush() {}
+
+    /**
+     * Returns the builder the text is appended to.
+     */
+    public StringBuilder getBuilder() {
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        return builder.toString();
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        builder.append(cbuf, off, len);
+    }
+
+    @Override
+    public void write(int c) {
+        builder.append((char) c);
+    }
+
+    @Override
+    public void write(String str) {
+        builder.append(str);
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        builder.append(str, off, off + len);
+    }
+}
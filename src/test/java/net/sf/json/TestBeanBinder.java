@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import net.sf.json.sample.BeanA;
+import net.sf.json.util.JavaIdentifierTransformer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestBeanBinder {
+    private JsonConfig jsonConfig;
+
+    @Test
+    void testBind_cached() {
+        BeanBinder binder = jsonConfig.getBeanBinder(BeanA.class);
+        assertSame(binder, jsonConfig.getBeanBinder(BeanA.class));
+        BeanBinder.Binding binding = binder.bind("string", jsonConfig);
+        assertSame(binding, binder.bind("string", jsonConfig));
+        assertEquals("string", binding.key);
+        assertEquals(String.class, binding.property.getPropertyType());
+        assertNull(binder.bind("missing", jsonConfig).property);
+    }
+
+    @Test
+    void testBind_droppedOnChange() {
+        BeanBinder binder = jsonConfig.getBeanBinder(BeanA.class);
+        jsonConfig.registerJavaPropertyNameProcessor(BeanA.class, (beanClass, name) -> name.substring(2));
+        assertNotSame(binder, jsonConfig.getBeanBinder(BeanA.class));
+        assertEquals("string", jsonConfig.getBeanBinder(BeanA.class).bind("x_string", jsonConfig).key);
+
+        jsonConfig.setRootClass(BeanA.class);
+        BeanA bean = (BeanA) JSONObject.toBean(
+                JSONObject.fromObject("{\"x_bool\":false,\"x_integer\":7,\"x_string\":\"s\"}"), jsonConfig);
+        assertEquals(new BeanA(false, 7, "s"), bean);
+
+        jsonConfig.setJavaIdentifierTransformer(JavaIdentifierTransformer.CAMEL_CASE);
+        jsonConfig.unregisterJavaPropertyNameProcessor(BeanA.class);
+        bean = (BeanA) JSONObject.toBean(JSONObject.fromObject("{\"integer \":8}"), jsonConfig);
+        assertEquals(8, bean.getInteger());
+    }
+
+    @Test
+    void testBind_bounded() {
+        BeanBinder binder = jsonConfig.getBeanBinder(HashMap.class);
+        for (int i = 0; i <= BeanBinder.MAX_BINDINGS; i++) {
+            binder.bind("key" + i, jsonConfig);
+        }
+        String last = "key" + BeanBinder.MAX_BINDINGS;
+        assertNotSame(binder.bind(last, jsonConfig), binder.bind(last, jsonConfig));
+        assertSame(binder.bind("key0", jsonConfig), binder.bind("key0", jsonConfig));
+
+        jsonConfig.setRootClass(HashMap.class);
+        Map map = (Map) JSONObject.toBean(JSONObject.fromObject("{\"key0\":1,\"other\":\"a\"}"), jsonConfig);
+        assertEquals(1, map.get("key0"));
+        assertEquals("a", map.get("other"));
+    }
+
+    @BeforeEach
+    void setUp() {
+        jsonConfig = new JsonConfig();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.sf.json.processors.JsonValueProcessor;
+import net.sf.json.sample.BeanA;
+import net.sf.json.sample.FieldBean;
+import net.sf.json.sample.TransientBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestBeanPlan {
+    private JsonConfig jsonConfig;
+
+    @Test
+    void testGetBeanPlan_cached() {
+        BeanPlan plan = jsonConfig.getBeanPlan(BeanA.class);
+        assertSame(plan, jsonConfig.getBeanPlan(BeanA.class));
+        assertEquals("[bool, integer, string]", keys(plan.properties).toString());
+        assertEquals(0, plan.fields.length);
+        assertFalse(plan.duplicateKeys);
+        assertNotSame(plan, jsonConfig.copy().getBeanPlan(BeanA.class));
+    }
+
+    @Test
+    void testGetBeanPlan_droppedOnChange() {
+        BeanPlan plan = jsonConfig.getBeanPlan(BeanA.class);
+        jsonConfig.setExcludes(new String[] {"integer"});
+        BeanPlan excluded = jsonConfig.getBeanPlan(BeanA.class);
+        assertEquals("[bool, string]", keys(excluded.properties).toString());
+
+        jsonConfig.registerJsonValueProcessor(BeanA.class, "string", new UpperCaseProcessor());
+        jsonConfig.registerJsonPropertyNameProcessor(BeanA.class, new PrefixerPropertyNameProcessor("x_"));
+        BeanPlan processed = jsonConfig.getBeanPlan(BeanA.class);
+        assertEquals("[x_bool, x_string]", keys(processed.properties).toString());
+        assertNull(property(processed.properties, "x_bool").processor);
+        assertTrue(property(processed.properties, "x_string").processor instanceof UpperCaseProcessor);
+        assertEquals(
+                JSONObject.fromObject("{\"x_bool\":true,\"x_string\":\"JSON\"}"),
+                JSONObject.fromObject(new BeanA(), jsonConfig));
+
+        jsonConfig.reset();
+        assertEquals("[bool, integer, string]", keys(jsonConfig.getBeanPlan(BeanA.class).properties).toString());
+        assertNotSame(plan, jsonConfig.getBeanPlan(BeanA.class));
+    }
+
+    @Test
+    void testGetBeanPlan_fieldsAndTransients() {
+        assertEquals("[string]", keys(jsonConfig.getBeanPlan(FieldBean.class).fields).toString());
+        jsonConfig.registerJsonPropertyNameProcessor(FieldBean.class, (beanClass, name) -> "key");
+        assertTrue(jsonConfig.getBeanPlan(FieldBean.class).duplicateKeys);
+        jsonConfig.setIgnorePublicFields(true);
+        assertEquals(0, jsonConfig.getBeanPlan(FieldBean.class).fields.length);
+
+        assertEquals("[transientValue, value]", keys(jsonConfig.getBeanPlan(TransientBean.class).properties).toString());
+        jsonConfig.setIgnoreTransientFields(true);
+        assertEquals("[value]", keys(jsonConfig.getBeanPlan(TransientBean.class).properties).toString());
+    }
+
+    /**
+     * Returns the keys of the properties sorted, as the order of the properties
+     * is the order of the PropertyDescriptors, which is unspecified.
+     */
+    private static List<String> keys(BeanPlan.Property[] properties) {
+        List<String> keys = new ArrayList<>();
+        for (BeanPlan.Property property : properties) {
+            keys.add(property.key);
+        }
+        Collections.sort(keys);
+        return keys;
+    }
+
+    private static BeanPlan.Property property(BeanPlan.Property[] properties, String key) {
+        for (BeanPlan.Property property : properties) {
+            if (property.key.equals(key)) {
+                return property;
+            }
+        }
+        throw new AssertionError("no property " + key);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jsonConfig = new JsonConfig();
+    }
+
+    private static class UpperCaseProcessor implements JsonValueProcessor {
+        @Override
+        public Object processArrayValue(Object value, JsonConfig jsonConfig) {
+            return value;
+        }
+
+        @Override
+        public Object processObjectValue(String key, Object value, JsonConfig jsonConfig) {
+            return String.valueOf(value).toUpperCase();
+        }
+    }
+}
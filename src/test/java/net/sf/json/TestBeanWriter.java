@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.sf.json.processors.JsonValueProcessor;
+import net.sf.json.sample.BeanA;
+import net.sf.json.sample.FieldBean;
+import net.sf.json.sample.JsonEnum;
+import net.sf.json.sample.NodeBean;
+import net.sf.json.sample.ObjectBean;
+import net.sf.json.sample.TransientBean;
+import net.sf.json.util.CycleDetectionStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestBeanWriter {
+    private JsonConfig jsonConfig;
+
+    @Test
+    void testWrite_bean() throws IOException {
+        assertSameText(newObjectBean());
+        assertSameText(new BeanA());
+        assertSameText(new Object[] {newObjectBean(), null, "[1]", JsonEnum.OBJECT, 2.5f, new int[] {1, 2}});
+    }
+
+    @Test
+    void testWrite_map() throws IOException {
+        Map map = new LinkedHashMap();
+        map.put("bean", new BeanA());
+        map.put("null", null);
+        map.put("list", Arrays.asList(1, "two", null, new HashMap()));
+        map.put("char", 'c');
+        map.put("json", JSONObject.fromObject("{\"a\":[1]}"));
+        map.put("text", "{\"a\":1}");
+        map.remove("null");
+        map.put("empty", null);
+        assertSameText(map);
+
+        Map invalid = new HashMap();
+        invalid.put(1, "one");
+        assertThrows(JSONException.class, () -> write(invalid));
+        jsonConfig.setAllowNonStringKeys(true);
+        assertSameText(invalid);
+    }
+
+    @Test
+    void testWrite_excludesAndFilters() throws IOException {
+        jsonConfig.setExcludes(new String[] {"pexcluded", "bool"});
+        jsonConfig.setJsonPropertyFilter((source, name, value) -> "pint".equals(name) || "missing".equals(name));
+        assertSameText(newObjectBean());
+
+        TransientBean transientBean = new TransientBean();
+        transientBean.setTransientValue(2);
+        assertSameText(transientBean);
+        jsonConfig.setIgnoreTransientFields(true);
+        assertSameText(transientBean);
+    }
+
+    @Test
+    void testWrite_processors() throws IOException {
+        jsonConfig.registerJsonValueProcessor(Integer.class, new PlusOneProcessor());
+        jsonConfig.registerJsonValueProcessor(BeanA.class, "string", new PlusOneProcessor());
+        jsonConfig.registerJsonPropertyNameProcessor(BeanA.class, new PrefixerPropertyNameProcessor("x_"));
+        jsonConfig.registerJsonBeanProcessor(
+                NodeBean.class, (bean, config) -> new JSONObject().element("node", ((NodeBean) bean).getName()));
+        assertSameText(new Object[] {newObjectBean(), 1, Arrays.asList(new BeanA(), 2), new NodeBean("a")});
+    }
+
+    @Test
+    void testWrite_publicFields() throws IOException {
+        FieldBean fieldBean = new FieldBean();
+        fieldBean.setValue(2);
+        fieldBean.string = "field";
+        assertSameText(fieldBean);
+        jsonConfig.registerJsonPropertyNameProcessor(FieldBean.class, (beanClass, name) -> "key");
+        assertSameText(fieldBean);
+    }
+
+    @Test
+    void testWrite_cycles() throws IOException {
+        NodeBean a = new NodeBean("a");
+        NodeBean b = new NodeBean("b");
+        a.setNext(b);
+        b.setNext(a);
+        a.getChildren().add(b);
+        b.getChildren().add(a);
+        List list = Arrays.asList(a, b, a);
+
+        assertThrows(JSONException.class, () -> write(a));
+        jsonConfig.setCycleDetectionStrategy(CycleDetectionStrategy.LENIENT);
+        assertSameText(a);
+        assertSameText(list);
+        jsonConfig.setCycleDetectionStrategy(CycleDetectionStrategy.NOPROP);
+        assertSameText(a);
+        assertSameText(list);
+    }
+
+    @Test
+    void testWrite_outputStream() throws IOException {
+        Map map = new LinkedHashMap();
+        map.put("name", "café 😀");
+        map.put("bean", new BeanA());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONSerializer.write(map, out, jsonConfig);
+        assertEquals(JSONSerializer.toJSON(map, jsonConfig).toString(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testWrite_notWalked() throws IOException {
+        assertEquals("null", write(null));
+        assertEquals("[\"a\"]", write("[\"a\"]"));
+        assertEquals("[1,2]", write(new int[] {1, 2}));
+        jsonConfig.enableEventTriggering();
+        assertSameText(newObjectBean());
+    }
+
+    private void assertSameText(Object object) throws IOException {
+        assertEquals(JSONSerializer.toJSON(object, jsonConfig).toString(), write(object));
+    }
+
+    private ObjectBean newObjectBean() {
+        ObjectBean bean = new ObjectBean();
+        bean.setPbean(new BeanA());
+        bean.setPboolean(Boolean.TRUE);
+        bean.setPbyte(Byte.valueOf((byte) 1));
+        bean.setPchar(' ');
+        bean.setPclass(Object.class);
+        bean.setPdouble(1.5d);
+        bean.setPexcluded("excluded");
+        bean.setPfloat(2.5f);
+        bean.setPint(3);
+        bean.setPlist(Arrays.asList("a", JsonEnum.ARRAY, null));
+        bean.setPlong(4L);
+        Map map = new LinkedHashMap();
+        map.put("k\"", "v\n");
+        bean.setPmap(map);
+        bean.setParray(new String[] {"x", null});
+        bean.setPshort(Short.valueOf((short) 5));
+        bean.setPstring("\"text\"");
+        return bean;
+    }
+
+    private String write(Object object) throws IOException {
+        return JSONSerializer.write(object, new StringWriter(), jsonConfig).toString();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jsonConfig = new JsonConfig();
+    }
+
+    private static class PlusOneProcessor implements JsonValueProcessor {
+        @Override
+        public Object processArrayValue(Object value, JsonConfig jsonConfig) {
+            return value instanceof Integer ? (Integer) value + 1 : value;
+        }
+
+        @Override
+        public Object processObjectValue(String key, Object value, JsonConfig jsonConfig) {
+            return String.valueOf(value) + "+1";
+        }
+    }
+}
@@ -19,6 +19,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -36,6 +37,7 @@ import net.sf.ezmorph.bean.MorphDynaClass;
 import net.sf.json.sample.ArrayJSONStringBean;
 import net.sf.json.sample.BeanA;
 import net.sf.json.util.JSONTokener;
+import net.sf.json.util.PropertySetStrategy;
 import org.apache.commons.beanutils.DynaBean;
 import org.junit.jupiter.api.Test;
 
@@ -913,6 +915,33 @@ class TestJSONArray {
         Assertions.assertEquals(expected, actual);
     }
 
+    @Test
+    void testToArray_bean_elements_sameJsonConfig() {
+        BeanA[] expected = new BeanA[] {new BeanA(), new BeanA(false, 7, "s")};
+        JsonConfig jsonConfig = new JsonConfig();
+        jsonConfig.setRootClass(BeanA.class);
+        List<JsonConfig> configs = new ArrayList<>();
+        jsonConfig.setPropertySetStrategy(new PropertySetStrategy() {
+            @Override
+            public void setProperty(Object bean, String key, Object value) {
+                PropertySetStrategy.DEFAULT.setProperty(bean, key, value);
+            }
+
+            @Override
+            public void setProperty(Object bean, String key, Object value, JsonConfig jsc) {
+                configs.add(jsc);
+                PropertySetStrategy.DEFAULT.setProperty(bean, key, value, jsc);
+            }
+        });
+        Object actual = JSONArray.toArray(JSONArray.fromObject(expected), jsonConfig);
+        Assertions.assertEquals(expected, actual);
+        assertEquals(List.of(new BeanA(), new BeanA(false, 7, "s")),
+                JSONArray.toCollection(JSONArray.fromObject(expected), jsonConfig));
+        // elements are bound with the caller's configuration, not a copy of it
+        assertEquals(12, configs.size());
+        configs.forEach(jsc -> assertSame(jsonConfig, jsc));
+    }
+
     @Test
     void testToArray_BigDecimal() {
         BigDecimal[] expected = new BigDecimal[] {MorphUtils.BIGDECIMAL_ZERO, MorphUtils.BIGDECIMAL_ONE};
@@ -1414,6 +1443,17 @@ class TestJSONArray {
         assertEquals("[[],{},1,true,\"json\"]", sw.toString());
     }
 
+    @Test
+    void testWrite_indentFactor() throws IOException {
+        JSONArray jsonArray = JSONArray.fromObject("[[1,2],{\"a\":1,\"b\":[]},[{\"c\":null}]]");
+        String expected = "[\n    [\n    1,\n    2\n  ],\n    {\n    \"a\": 1,\n    \"b\": []\n  },\n  [{\"c\": null}]\n]";
+        StringWriter sw = new StringWriter();
+        jsonArray.write(sw, 2);
+        assertEquals(expected, sw.toString());
+        assertEquals(expected, jsonArray.toString(2));
+        assertEquals(jsonArray.toString(), jsonArray.write(new StringWriter(), 0).toString());
+    }
+
     private MorphDynaBean createDynaBean() throws Exception {
         Map<String, Class<?>> properties = new HashMap<>();
         properties.put("name", String.class);
@@ -1607,6 +1607,33 @@ class TestJSONObject {
         assertEquals("value", bean.getAttributes().get("key"));
     }
 
+    @Test
+    void testToBean_nested_rootClassOfCaller() {
+        JSONObject json = JSONObject.fromObject("{\"beanA\":{\"bool\":false,\"integer\":7,\"string\":\"s\"}}");
+        JsonConfig jsonConfig = new JsonConfig();
+        jsonConfig.setRootClass(BeanC.class);
+        List<Class> beanClasses = new ArrayList<>();
+        List<Class> rootClasses = new ArrayList<>();
+        jsonConfig.setPropertySetStrategy(new PropertySetStrategy() {
+            @Override
+            public void setProperty(Object bean, String key, Object value) {
+                PropertySetStrategy.DEFAULT.setProperty(bean, key, value);
+            }
+
+            @Override
+            public void setProperty(Object bean, String key, Object value, JsonConfig jsc) {
+                beanClasses.add(bean.getClass());
+                rootClasses.add(jsc.getRootClass());
+                PropertySetStrategy.DEFAULT.setProperty(bean, key, value, jsc);
+            }
+        });
+        BeanC bean = (BeanC) JSONObject.toBean(json, jsonConfig);
+        assertEquals(7, bean.getBeanA().getInteger());
+        // nested beans are set with the caller's configuration, whose root class is still BeanC
+        assertTrue(beanClasses.contains(BeanA.class));
+        assertEquals(Collections.nCopies(beanClasses.size(), BeanC.class), rootClasses);
+    }
+
     @Test
     void testToBeanWithJavaPropertyNameProcessor() {
         String json = "{bool:false}";
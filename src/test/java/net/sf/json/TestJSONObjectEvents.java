@@ -26,6 +26,7 @@ import net.sf.ezmorph.bean.MorphDynaClass;
 import net.sf.json.sample.BeanA;
 import net.sf.json.sample.JsonEventAdpater;
 import net.sf.json.sample.PropertyBean;
+import net.sf.json.util.PropertyNameFilter;
 import org.apache.commons.beanutils.DynaBean;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -100,6 +101,22 @@ class TestJSONObjectEvents {
         assertEvents();
     }
 
+    @Test
+    void testFromObject_string_excludedSubtree() {
+        jsonConfig.setExcludes(new String[] {"log"});
+        JSONObject.fromObject("{name:'json',log:{lines:[{a:1},{b:2}]},int:1,bool:true}", jsonConfig);
+        assertEvents();
+    }
+
+    @Test
+    void testFromObject_string_nameFilteredSubtree() {
+        jsonConfig.setJsonPropertyFilter((PropertyNameFilter) name -> name.equals("artifacts"));
+        JSONObject jsonObject =
+                JSONObject.fromObject("{name:'json',artifacts:[{a:1},'x'],int:1,bool:true}", jsonConfig);
+        assertEvents();
+        assertEquals(3, jsonObject.size());
+    }
+
     @BeforeEach
     void setUp() {
         jsonEventAdpater = new JsonEventAdpater();
@@ -23,6 +23,10 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -259,6 +263,25 @@ class TestJSONSerializer {
         Assertions.assertEquals(JSONObject.fromObject("{\"name\":\"json\"}"), (JSONObject) json);
     }
 
+    @Test
+    void testToJSON_Path() throws IOException {
+        String text = "\ufeff  {\"name\":\"café 😀\",'list':[1,2.5,{\"a\":null}]} \n";
+        Path file = Files.createTempFile("json", ".json");
+        // a mapped file can not be deleted on every platform while the mapping is reachable
+        file.toFile().deleteOnExit();
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        JSON json = JSONSerializer.toJSON(file);
+        assertEquals(JSONObject.fromObject(text.substring(1)), json);
+        assertEquals(json, JSONObject.fromFile(file));
+
+        Path arrayFile = Files.createTempFile("json", ".json");
+        arrayFile.toFile().deleteOnExit();
+        Files.write(arrayFile, "[{'a':1},[],\"é\"]".getBytes(StandardCharsets.UTF_8));
+        assertEquals(JSONArray.fromObject("[{'a':1},[],\"é\"]"), JSONArray.fromFile(arrayFile, jsonConfig));
+        assertThrows(JSONException.class, () -> JSONObject.fromFile(arrayFile));
+        assertThrows(JSONException.class, () -> JSONSerializer.toJSON(file.resolveSibling(file.getFileName() + ".missing")));
+    }
+
     @BeforeEach
     void setUp() {
         jsonConfig = new JsonConfig();
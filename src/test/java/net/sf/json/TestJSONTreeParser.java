@@ -0,0 +1,235 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import net.sf.json.sample.JsonEventAdpater;
+import net.sf.json.util.JSONStreamTokener;
+import net.sf.json.util.JSONTokener;
+import net.sf.json.util.JsonParser;
+import org.junit.jupiter.api.Test;
+
+class TestJSONTreeParser {
+    @Test
+    void testParse_nested() {
+        JSONObject jsonObject = JSONObject.fromObject(
+                "{\"a\":[1,,{\"b\":[[],{}]},'x'],\"c\":{\"d\":{\"e\":null}},\"a\":true; \"f\"=>[2;3,]}");
+        JSONArray a = jsonObject.getJSONArray("a");
+        assertEquals(5, a.size());
+        assertEquals(1, a.getInt(0));
+        assertTrue(JSONNull.getInstance().equals(a.get(1)));
+        assertEquals(JSONArray.fromObject("[[],{}]"), a.getJSONObject(2).getJSONArray("b"));
+        assertEquals("x", a.getString(3));
+        assertTrue(a.getBoolean(4));
+        assertTrue(jsonObject.getJSONObject("c").getJSONObject("d").getJSONObject("e").isNullObject());
+        assertEquals(JSONArray.fromObject("[2,3]"), jsonObject.getJSONArray("f"));
+    }
+
+    @Test
+    void testParse_deeplyNested() {
+        int depth = 100000;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            sb.append("{\"a\":[");
+        }
+        for (int i = 0; i < depth; i++) {
+            sb.append("]}");
+        }
+        JsonConfig jsonConfig = new JsonConfig();
+        jsonConfig.setMaxNestingDepth(2 * depth);
+        JSONObject jsonObject = JSONObject.fromObject(sb.toString(), jsonConfig);
+        assertEquals(1, jsonObject.getJSONArray("a").size());
+    }
+
+    @Test
+    void testParse_maxNestingDepth() {
+        JsonConfig jsonConfig = new JsonConfig();
+        jsonConfig.setMaxNestingDepth(3);
+        assertEquals(JSONArray.fromObject("[[[1]]]"), JSONArray.fromObject("[[[1]]]", jsonConfig));
+        JSONException e =
+                assertThrows(JSONException.class, () -> JSONObject.fromObject("{\"a\":[{\"b\":[]}]}", jsonConfig));
+        assertTrue(e.getMessage().startsWith("Nesting depth exceeds the maximum of 3"), e.getMessage());
+
+        JsonParser parser = new JsonParser(new JSONTokener("[[[[]]]]"), jsonConfig);
+        assertThrows(JSONException.class, () -> {
+            while (parser.hasNext()) {
+                parser.next();
+            }
+        });
+        assertThrows(IllegalArgumentException.class, () -> jsonConfig.setMaxNestingDepth(0));
+    }
+
+    @Test
+    void testParse_limits() {
+        JsonConfig jsonConfig = new JsonConfig();
+        jsonConfig.setMaxObjectMembers(2);
+        jsonConfig.setMaxArrayElements(3);
+        jsonConfig.setMaxStringLength(5);
+        jsonConfig.setMaxNumberLength(4);
+        assertEquals(2, JSONObject.fromObject("{\"a\":[1,2,3],b:'12345',\"a\":1234}", jsonConfig).size());
+        assertLimitExceeded("JSONObject exceeds the maximum of 2 members", "{a:1,b:2,c:3}", jsonConfig);
+        assertLimitExceeded("JSONArray exceeds the maximum of 3 elements", "{a:[1,[1,2,3,4]]}", jsonConfig);
+        assertLimitExceeded("String exceeds the maximum length of 5", "{a:'123456'}", jsonConfig);
+        assertLimitExceeded("String exceeds the maximum length of 5", "{a:'12\\n3456'}", jsonConfig);
+        assertLimitExceeded("String exceeds the maximum length of 5", "{abcdef:1}", jsonConfig);
+        assertLimitExceeded("Number exceeds the maximum length of 4", "{a:12345}", jsonConfig);
+
+        jsonConfig.setMaxTextLength(10);
+        assertLimitExceeded("JSON text exceeds the maximum length of 10", "{a:1,b:234}", jsonConfig);
+        JSONException e = assertThrows(
+                JSONException.class,
+                () -> JSONObject.fromObject(
+                        new JSONStreamTokener(new StringReader("{a:1,b:2,c:[" + "1,".repeat(100000) + "1]}"), 4),
+                        jsonConfig));
+        assertEquals("JSON text exceeds the maximum length of 10", e.getMessage());
+    }
+
+    @Test
+    void testParse_events() {
+        JsonConfig jsonConfig = new JsonConfig();
+        JsonEventAdpater jsonEventAdpater = new JsonEventAdpater();
+        jsonConfig.addJsonEventListener(jsonEventAdpater);
+        jsonConfig.enableEventTriggering();
+        JSONObject.fromObject("{\"a\":[{\"b\":1},[]],\"c\":{}}", jsonConfig);
+        assertEquals(3, jsonEventAdpater.getObjectStart());
+        assertEquals(3, jsonEventAdpater.getObjectEnd());
+        assertEquals(2, jsonEventAdpater.getArrayStart());
+        assertEquals(2, jsonEventAdpater.getArrayEnd());
+        assertEquals(2, jsonEventAdpater.getElementAdded());
+        assertEquals(3, jsonEventAdpater.getPropertySet());
+    }
+
+    @Test
+    void testParse_errorEvents() {
+        JsonConfig jsonConfig = new JsonConfig();
+        JsonEventAdpater jsonEventAdpater = new JsonEventAdpater();
+        jsonConfig.addJsonEventListener(jsonEventAdpater);
+        jsonConfig.enableEventTriggering();
+        assertThrows(JSONException.class, () -> JSONObject.fromObject("{\"a\":[{\"b\" 1}]}", jsonConfig));
+        assertEquals(3, jsonEventAdpater.getError());
+        assertEquals(2, jsonEventAdpater.getObjectStart());
+        assertEquals(1, jsonEventAdpater.getArrayStart());
+    }
+
+    @Test
+    void testParse_structuralIndex() {
+        String[] texts = {
+            "{\"a\":[1,,{\"b\":[[],{}]},'x'],\"c\":{\"d\":{\"e\":null}},\"a\":true; \"f\":[2;3,]}",
+            "{\"s\":\"a,b:}]\\\"[{\",'t':'don\\'t', u: don't ; \"n\":[-1.5e3,0x1F,007,1e400,true,FALSE]}",
+            "[,]",
+            "[1,,2,]",
+            "[ { } , [ ] , \"\\u0041\" ]",
+            "{\"a\":1,}",
+            "{\"a\" => 1}",
+            "{\"a\":1 /* comment */}",
+            "{\"a\":\"unterminated}",
+            "{\"a\":[1}",
+            "{\"a\" 1}",
+            "{:1}",
+            "{\"a\":}",
+            "[1 2]",
+            "[\"a\"\"b\"]",
+            "{\"a\":{}\"b\":1}",
+            "{\"a\":\"\\u12\"}",
+        };
+        JsonConfig indexed = new JsonConfig();
+        indexed.setStructuralIndexParsing(true);
+        for (String text : texts) {
+            Object expected;
+            try {
+                expected = JSONSerializer.toJSON(text);
+            } catch (RuntimeException e) {
+                expected = e.getClass();
+            }
+            Object actual;
+            try {
+                actual = JSONSerializer.toJSON(text, indexed);
+            } catch (RuntimeException e) {
+                actual = e.getClass();
+            }
+            assertEquals(expected, actual, text);
+        }
+    }
+
+    @Test
+    void testParse_structuralIndex_errors() {
+        JsonConfig jsonConfig = new JsonConfig();
+        JsonEventAdpater jsonEventAdpater = new JsonEventAdpater();
+        jsonConfig.addJsonEventListener(jsonEventAdpater);
+        jsonConfig.enableEventTriggering();
+        jsonConfig.setStructuralIndexParsing(true);
+        jsonConfig.setMaxObjectMembers(1);
+        // an error in a text the index describes is not read again by the regular parser
+        assertThrows(JSONException.class, () -> JSONObject.fromObject("{\"a\":{\"b\":1,\"c\":2}}", jsonConfig));
+        assertEquals(2, jsonEventAdpater.getObjectStart());
+        assertEquals(2, jsonEventAdpater.getError());
+    }
+
+    @Test
+    void testParse_structuralIndex_filters() {
+        JsonConfig jsonConfig = new JsonConfig();
+        jsonConfig.setStructuralIndexParsing(true);
+        jsonConfig.setExcludes(new String[] {"skip"});
+        jsonConfig.setMaxNestingDepth(3);
+        JSONObject jsonObject = JSONObject.fromObject(
+                "{\"skip\":[[[[[{\"deep\":1}]]]]],\"keep\":[1,{\"skip\":2,\"x\":3}],\"skip\":4}", jsonConfig);
+        assertEquals(JSONObject.fromObject("{\"keep\":[1,{\"x\":3}]}"), jsonObject);
+        assertThrows(JSONException.class, () -> JSONObject.fromObject("{\"a\":[[[1]]]}", jsonConfig));
+
+        jsonConfig.setMaxNestingDepth(JsonConfig.DEFAULT_MAX_NESTING_DEPTH);
+        jsonConfig.setMaxArrayElements(2);
+        assertLimitExceeded("JSONArray exceeds the maximum of 2 elements", "{\"a\":[1,2,3]}", jsonConfig);
+    }
+
+    @Test
+    void testParse_parallel() {
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < 20000; i++) {
+            if (i % 4 == 0) {
+                text.append("{\"id\":").append(i).append(", \"tags\":[\"a\",'b']}");
+            } else if (i % 4 == 1) {
+                text.append('[').append(i).append(']');
+            } else if (i % 4 == 2) {
+                text.append("\"s").append(i).append('"');
+            }
+            text.append(i < 19999 ? ",\n" : "]");
+        }
+        String source = text.toString();
+        JsonConfig jsonConfig = new JsonConfig();
+        JSONArray expected = JSONArray.fromObject(source, jsonConfig);
+
+        jsonConfig.setParallelParsing(true);
+        assertEquals(expected, JSONArray.fromObject(source, jsonConfig));
+        jsonConfig.setLazyParsing(true);
+        assertEquals(expected, JSONArray.fromObject(source, jsonConfig));
+
+        jsonConfig.setMaxArrayElements(19998);
+        JSONException e = assertThrows(JSONException.class, () -> JSONArray.fromObject(source, jsonConfig));
+        assertEquals("JSONArray exceeds the maximum of 19998 elements", e.getMessage());
+        jsonConfig.setMaxArrayElements(Integer.MAX_VALUE);
+        assertThrows(JSONException.class, () -> JSONArray.fromObject(source.replace("s19998", "s19998\":"), jsonConfig));
+    }
+
+    private static void assertLimitExceeded(String message, String json, JsonConfig jsonConfig) {
+        JSONException e = assertThrows(JSONException.class, () -> JSONObject.fromObject(json, jsonConfig));
+        assertTrue(e.getMessage().startsWith(message), e.getMessage());
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import net.sf.json.processors.JsonValueProcessor;
+import net.sf.json.sample.BeanA;
+import net.sf.json.sample.BeanB;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestJsonConfig {
+    private JsonConfig jsonConfig;
+
+    @Test
+    void testFreeze() {
+        jsonConfig.setExcludes(new String[] {"integer", " "});
+        JsonConfig frozen = jsonConfig.freeze();
+        assertNotSame(jsonConfig, frozen);
+        assertSame(frozen, frozen.freeze());
+        assertTrue(frozen.isFrozen());
+        assertFalse(jsonConfig.isFrozen());
+        assertNull(frozen.getClassMap());
+
+        // the frozen copy does not follow later changes
+        jsonConfig.setExcludes(new String[] {"bool"});
+        assertEquals(
+                JSONObject.fromObject("{\"bool\":true,\"string\":\"json\"}"),
+                JSONObject.fromObject(new BeanA(), frozen));
+        assertEquals(
+                JSONObject.fromObject("{\"integer\":42,\"string\":\"json\"}"),
+                JSONObject.fromObject(new BeanA(), jsonConfig));
+
+        JsonConfig copy = frozen.copy();
+        assertFalse(copy.isFrozen());
+        copy.setExcludes(new String[0]);
+        assertEquals(3, JSONObject.fromObject(new BeanA(), copy).size());
+    }
+
+    @Test
+    void testFreeze_immutable() {
+        jsonConfig.setExcludes(new String[] {"integer"});
+        jsonConfig.setClassMap(new HashMap<>());
+        JsonConfig frozen = jsonConfig.freeze();
+        assertThrows(UnsupportedOperationException.class, () -> frozen.setRootClass(BeanA.class));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.setExcludes(new String[0]));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.registerPropertyExclusion(BeanA.class, "bool"));
+        assertThrows(UnsupportedOperationException.class, frozen::reset);
+        assertThrows(UnsupportedOperationException.class, () -> frozen.getJsonEventListeners().add(null));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.getClassMap().put("key", BeanA.class));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.getMergedExcludes().add("bool"));
+
+        frozen.getExcludes()[0] = "bool";
+        assertEquals("integer", frozen.getExcludes()[0]);
+    }
+
+    @Test
+    void testFreeze_lookups() {
+        JsonValueProcessor processor = new JsonValueProcessor() {
+            @Override
+            public Object processArrayValue(Object value, JsonConfig jsonConfig) {
+                return value;
+            }
+
+            @Override
+            public Object processObjectValue(String key, Object value, JsonConfig jsonConfig) {
+                return "processed";
+            }
+        };
+        jsonConfig.registerJsonValueProcessor(String.class, processor);
+        jsonConfig.registerPropertyExclusion(BeanB.class, "intarray");
+        JsonConfig frozen = jsonConfig.freeze();
+
+        assertSame(frozen.getMergedExcludes(), frozen.getMergedExcludes());
+        assertEquals(sorted(jsonConfig.getMergedExcludes()), sorted(frozen.getMergedExcludes()));
+        assertSame(frozen.getMergedExcludes(BeanB.class), frozen.getMergedExcludes(BeanB.class));
+        assertEquals(sorted(jsonConfig.getMergedExcludes(BeanB.class)), sorted(frozen.getMergedExcludes(BeanB.class)));
+        assertTrue(frozen.getMergedExcludes(BeanB.class).contains("intarray"));
+
+        assertSame(processor, frozen.findJsonValueProcessor(String.class));
+        assertSame(processor, frozen.findJsonValueProcessor(BeanA.class, String.class, "string"));
+        assertNull(frozen.findJsonValueProcessor(Integer.class));
+        assertNull(frozen.findJsonValueProcessor(Integer.class));
+        assertNull(frozen.findJsonBeanProcessor(BeanA.class));
+        assertSame(jsonConfig.findDefaultValueProcessor(BeanA.class), frozen.findDefaultValueProcessor(BeanA.class));
+        assertEquals("processed", JSONObject.fromObject(new BeanA(), frozen).getString("string"));
+    }
+
+    @Test
+    void testFreeze_sharedByThreads() {
+        jsonConfig.setExcludes(new String[] {"integer"});
+        JsonConfig frozen = jsonConfig.freeze();
+        frozen.getMergedExcludes(BeanA.class);
+        Set<JSONObject> json = IntStream.range(0, 64)
+                .parallel()
+                .mapToObj(i -> JSONObject.fromObject(new BeanA(i % 2 == 0, i, "s"), frozen))
+                .collect(Collectors.toSet());
+        assertEquals(
+                new HashSet<>(Arrays.asList(
+                        JSONObject.fromObject("{\"bool\":false,\"string\":\"s\"}"),
+                        JSONObject.fromObject("{\"bool\":true,\"string\":\"s\"}"))),
+                json);
+    }
+
+    private static List<Object> sorted(Collection values) {
+        List<Object> list = new ArrayList<>(values);
+        list.sort(null);
+        return list;
+    }
+
+    @BeforeEach
+    void setUp() {
+        jsonConfig = new JsonConfig();
+    }
+}
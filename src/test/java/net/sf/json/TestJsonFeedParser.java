@@ -0,0 +1,196 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import net.sf.json.sample.JsonEventAdpater;
+import org.junit.jupiter.api.Test;
+
+class TestJsonFeedParser {
+    private static final String FIRST = "{\"s\":\"a}]\\\"[{\",'t':'x\\'}', /* } */ n:1.5, # ]\n \"e\":\"café 😀\"}";
+    private static final String SECOND = "[1,{\"a\":[true,null]}, // ]\n 'b']";
+
+    @Test
+    void testFeed_wholeText() {
+        JsonFeedParser parser = new JsonFeedParser();
+        parser.feed(ByteBuffer.wrap(bytes(FIRST + "\n" + SECOND + "\n")));
+        parser.endOfInput();
+        assertEquals(List.of(JSONObject.fromObject(FIRST), JSONArray.fromObject(SECOND)), drain(parser));
+    }
+
+    @Test
+    void testFeed_chunkBoundaries() {
+        byte[] bytes = bytes(" /* lead */ " + FIRST + "\r\n" + SECOND);
+        List<JSON> expected = List.of(JSONObject.fromObject(FIRST), JSONArray.fromObject(SECOND));
+        for (int size = 1; size <= 7; size++) {
+            JsonFeedParser parser = new JsonFeedParser();
+            List<JSON> values = new ArrayList<>();
+            for (int i = 0; i < bytes.length; i += size) {
+                parser.feed(bytes, i, Math.min(size, bytes.length - i));
+                values.addAll(drain(parser));
+            }
+            parser.endOfInput();
+            assertEquals(expected, values);
+        }
+    }
+
+    @Test
+    void testFeed_valueAvailableWhenComplete() {
+        JsonFeedParser parser = new JsonFeedParser();
+        parser.feed(ByteBuffer.wrap(bytes("{\"a\":[1,")));
+        assertFalse(parser.hasNext());
+        parser.feed(ByteBuffer.wrap(bytes("2]}{")));
+        assertTrue(parser.hasNext());
+        assertEquals(JSONObject.fromObject("{\"a\":[1,2]}"), parser.next());
+        assertFalse(parser.hasNext());
+        assertThrows(NoSuchElementException.class, parser::next);
+    }
+
+    @Test
+    void testFeed_syntaxErrors() {
+        assertThrows(JSONException.class, () -> new JsonFeedParser().feed(ByteBuffer.wrap(bytes("{} 1"))));
+        assertThrows(JSONException.class, () -> new JsonFeedParser().feed(ByteBuffer.wrap(bytes("]"))));
+        assertThrows(JSONException.class, () -> new JsonFeedParser().feed(ByteBuffer.wrap(bytes("{\"a\" 1}"))));
+    }
+
+    @Test
+    void testEndOfInput_incomplete() {
+        for (String text : new String[] {"{\"a\":1", "[\"]", "/* x", "/"}) {
+            JsonFeedParser parser = new JsonFeedParser();
+            parser.feed(ByteBuffer.wrap(bytes(text)));
+            assertThrows(JSONException.class, parser::endOfInput, text);
+        }
+        JsonFeedParser parser = new JsonFeedParser();
+        parser.feed(ByteBuffer.wrap(bytes("[] // trailing")));
+        parser.endOfInput();
+        assertEquals(List.of(new JSONArray()), drain(parser));
+        assertThrows(IllegalStateException.class, () -> parser.feed(ByteBuffer.wrap(bytes("[]"))));
+    }
+
+    @Test
+    void testLimits() {
+        JsonConfig jsonConfig = new JsonConfig();
+        jsonConfig.setMaxNestingDepth(2);
+        JsonFeedParser parser = new JsonFeedParser(jsonConfig);
+        parser.feed(ByteBuffer.wrap(bytes("[[")));
+        JSONException jsone = assertThrows(JSONException.class, () -> parser.feed(ByteBuffer.wrap(bytes("["))));
+        assertTrue(jsone.getMessage().startsWith("Nesting depth exceeds the maximum of 2"), jsone.getMessage());
+
+        jsonConfig = new JsonConfig();
+        jsonConfig.setMaxTextLength(8);
+        JsonFeedParser lengthParser = new JsonFeedParser(jsonConfig);
+        lengthParser.feed(ByteBuffer.wrap(bytes("[1,2,3] [1,2,")));
+        assertEquals(List.of(JSONArray.fromObject("[1,2,3]")), drain(lengthParser));
+        assertThrows(JSONException.class, () -> lengthParser.feed(ByteBuffer.wrap(bytes("3,4,5"))));
+
+        jsonConfig = new JsonConfig();
+        jsonConfig.setMaxArrayElements(2);
+        JsonFeedParser elementsParser = new JsonFeedParser(jsonConfig);
+        elementsParser.feed(ByteBuffer.wrap(bytes("[1,2,")));
+        jsone = assertThrows(JSONException.class, () -> elementsParser.feed(ByteBuffer.wrap(bytes("3]"))));
+        assertEquals("JSONArray exceeds the maximum of 2 elements at byte 6", jsone.getMessage());
+
+        jsonConfig = new JsonConfig();
+        jsonConfig.setMaxStringLength(4);
+        JsonFeedParser stringParser = new JsonFeedParser(jsonConfig);
+        jsone = assertThrows(JSONException.class, () -> stringParser.feed(ByteBuffer.wrap(bytes("[\"abcde\"]"))));
+        assertTrue(jsone.getMessage().startsWith("String exceeds the maximum length of 4"), jsone.getMessage());
+    }
+
+    @Test
+    void testFeed_buildsAsTokensArrive() {
+        JsonConfig jsonConfig = new JsonConfig();
+        JsonEventAdpater jsonEventAdpater = new JsonEventAdpater();
+        jsonConfig.addJsonEventListener(jsonEventAdpater);
+        jsonConfig.enableEventTriggering();
+        JsonFeedParser parser = new JsonFeedParser(jsonConfig);
+        parser.feed(ByteBuffer.wrap(bytes("{\"a\":[1,{\"b\":tr")));
+        assertEquals(2, jsonEventAdpater.getObjectStart());
+        assertEquals(1, jsonEventAdpater.getArrayStart());
+        assertEquals(1, jsonEventAdpater.getElementAdded());
+        assertEquals(0, jsonEventAdpater.getPropertySet());
+        parser.feed(ByteBuffer.wrap(bytes("ue}")));
+        assertEquals(1, jsonEventAdpater.getPropertySet());
+        assertEquals(1, jsonEventAdpater.getObjectEnd());
+        assertFalse(parser.hasNext());
+        parser.feed(ByteBuffer.wrap(bytes("]}")));
+        assertEquals(JSONObject.fromObject("{\"a\":[1,{\"b\":true}]}"), parser.next());
+    }
+
+    @Test
+    void testFeed_lenientGrammar() {
+        String[] texts = {
+            "{a:b c;'d'=>1,e=x\n,}",
+            "[1,,2;'x',]",
+            "[,]",
+            "{\"k\":01,\"h\":0x1F,\"n\":null,\"u\":\"\\u0041\\n\"}",
+            "{\"a\":1,\"a\":2}"
+        };
+        for (String text : texts) {
+            byte[] bytes = bytes(text);
+            JsonFeedParser parser = new JsonFeedParser();
+            for (int i = 0; i < bytes.length; i++) {
+                parser.feed(bytes, i, 1);
+            }
+            parser.endOfInput();
+            assertEquals(JSONSerializer.toJSON(text), parser.next(), text);
+        }
+    }
+
+    @Test
+    void testFeed_excludedKeys() {
+        JsonConfig jsonConfig = new JsonConfig();
+        jsonConfig.setExcludes(new String[] {"skip"});
+        String text = "{\"skip\":{\"a\":[1,{\"b\":\"}\"}],\"skip\":2},\"keep\":1,\"skip\":\"x\",\"last\":[]}";
+        JsonFeedParser parser = new JsonFeedParser(jsonConfig);
+        parser.feed(ByteBuffer.wrap(bytes(text)));
+        assertEquals(JSONObject.fromObject(text, jsonConfig), parser.next());
+        assertEquals(JSONObject.fromObject("{\"keep\":1,\"last\":[]}"), JSONObject.fromObject(text, jsonConfig));
+    }
+
+    @Test
+    void testFeed_tokenErrors() {
+        JsonFeedParser parser = new JsonFeedParser();
+        JSONException jsone = assertThrows(JSONException.class,
+                () -> parser.feed(ByteBuffer.wrap(bytes("[1, abc]"))));
+        assertEquals("Unquotted string 'abc'", jsone.getMessage());
+
+        jsone = assertThrows(JSONException.class, () -> new JsonFeedParser().feed(ByteBuffer.wrap(bytes("[1,;]"))));
+        assertEquals("Missing value. at byte 3", jsone.getMessage());
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<JSON> drain(JsonFeedParser parser) {
+        List<JSON> values = new ArrayList<>();
+        while (parser.hasNext()) {
+            values.add(parser.next());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.StringWriter;
+import java.util.Iterator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestLazyJSON {
+    private static final String TEXT =
+            "{\"a\":{ \"b\" : [1, {\"c\":'x'}] ,\"d\":null}, \"e\":[ [ ], {} ,3],\"f\":\"g\",\"h\":[{\"i\":1}]}";
+
+    private JsonConfig jsonConfig;
+
+    @Test
+    void testToString_untouchedRangesVerbatim() {
+        String eager = JSONObject.fromObject(TEXT).toString();
+        JSONObject jsonObject = JSONObject.fromObject(TEXT, jsonConfig);
+        assertEquals(eager, jsonObject.toString());
+
+        JSONObject a = jsonObject.getJSONObject("a");
+        assertEquals("{\"b\":[1,{\"c\":\"x\"}],\"d\":null}", a.toString());
+        assertEquals(eager, jsonObject.toString());
+    }
+
+    @Test
+    void testToString_lenientRangesParsed() {
+        String text = "{\"a\":{'b':0x1F, c : 1.0, \"d\":\"\\u0041\"},\"e\":[1.50, 012, \"<\\/\", \"null\", 1e2]}";
+        JSONObject jsonObject = JSONObject.fromObject(text, jsonConfig);
+        assertEquals(
+                "{\"a\":{\"b\":31,\"c\":1,\"d\":\"A\"},\"e\":[1.5,10,\"<\\/\",\"null\",100]}",
+                jsonObject.toString());
+        assertEquals(JSONObject.fromObject(text).toString(), jsonObject.toString());
+    }
+
+    @Test
+    void testToString_sameWithIndent() {
+        jsonConfig.setJavascriptCompliant(true);
+        JSONObject jsonObject = JSONObject.fromObject("{\"a\":[1.50, 012, undefined]}", jsonConfig);
+        assertEquals("{\"a\":[1.5,10,null]}", jsonObject.toString());
+        assertEquals("{\"a\": [\n 1.5,\n 10,\n null\n]}", jsonObject.toString(1));
+
+        JSONObject strict = JSONObject.fromObject("{\"a\":[1.5, -2, {\"b\":[true,false,null,\"c\"]}]}", jsonConfig);
+        assertEquals("{\"a\":[1.5,-2,{\"b\":[true,false,null,\"c\"]}]}", strict.toString());
+        assertEquals(JSONObject.fromObject(strict.toString()).toString(1), strict.toString(1));
+    }
+
+    @Test
+    void testEquals_eagerTree() {
+        JSONObject jsonObject = JSONObject.fromObject(TEXT, jsonConfig);
+        assertEquals(JSONObject.fromObject(TEXT), jsonObject);
+        assertEquals(JSONObject.fromObject(TEXT).hashCode(), JSONObject.fromObject(TEXT, jsonConfig).hashCode());
+        assertEquals(JSONArray.fromObject("[[],{},3]"), JSONObject.fromObject(TEXT, jsonConfig).get("e"));
+    }
+
+    @Test
+    void testArray() {
+        JSONArray jsonArray = JSONArray.fromObject("[{\"a\":1}, [2 ,3],4]", jsonConfig);
+        assertEquals("[{\"a\":1},[2,3],4]", jsonArray.toString());
+        Iterator i = jsonArray.iterator();
+        assertInstanceOf(JSONObject.class, i.next());
+        assertInstanceOf(JSONArray.class, i.next());
+        assertEquals(JSONArray.fromObject("[2,3]"), jsonArray.toArray()[1]);
+        assertEquals(JSONArray.fromObject("[2,3]"), JSONArray.fromObject("[{}, [2,3]]", jsonConfig).remove(1));
+    }
+
+    @Test
+    void testErrorsReportedUpFront() {
+        assertThrows(JSONException.class, () -> JSONObject.fromObject("{\"a\":{\"b\":},\"c\":1}", jsonConfig));
+    }
+
+    @Test
+    void testWriteCanonical() throws IOException {
+        JSONObject jsonObject = JSONObject.fromObject("{\"z\":{\"y\":1, \"x\":[2]}}", jsonConfig);
+        StringWriter writer = new StringWriter();
+        jsonObject.writeCanonical(writer);
+        assertEquals("{\"z\":{\"x\":[2],\"y\":1}}", writer.toString());
+        assertEquals("{\"z\":{\"y\":1,\"x\":[2]}}", jsonObject.toString());
+    }
+
+    @Test
+    void testFallbacks() {
+        JsonConfig filtered = jsonConfig.copy();
+        filtered.setExcludes(new String[] {"b"});
+        JSONObject jsonObject = JSONObject.fromObject("{\"a\":{\"b\":1,\"c\":2},\"b\":[]}", filtered);
+        assertEquals("{\"a\":{\"c\":2}}", jsonObject.toString());
+        assertEquals("{\"a\":{}}", JSONObject.fromObject("{\"a\":{\"class\":1}}", filtered).toString());
+
+        // comments can not be indexed, so the text is parsed up front
+        assertEquals("{\"a\":{\"b\":1}}", JSONObject.fromObject("{\"a\":{ \"b\":1 /* one */ }}", jsonConfig).toString());
+
+        JSONObject duplicated = JSONObject.fromObject("{\"a\":{\"b\":1},\"a\":[2]}", jsonConfig);
+        assertEquals(JSONObject.fromObject("{\"a\":{\"b\":1},\"a\":[2]}"), duplicated);
+        assertEquals(
+                "{\"a\":{\"b\":[1,2]}}",
+                JSONObject.fromObject("{\"a\":{\"b\":1,\"b\":2}}", jsonConfig).toString());
+    }
+
+    @Test
+    void testExcludes_matchKeys() {
+        String text = "{\"_class\":\"hudson.model.Job\",\"builds\":[{\"_class\":\"hudson.model.Run\",\"number\":1}]}";
+        JSONObject jsonObject = JSONObject.fromObject(text, jsonConfig);
+        assertEquals(text, jsonObject.toString());
+        assertEquals("hudson.model.Run", jsonObject.getJSONArray("builds").getJSONObject(0).getString("_class"));
+    }
+
+    @Test
+    void testConfigChangedAfterParsing() {
+        JSONObject jsonObject = JSONObject.fromObject("{\"a\":{\"b\":1,\"c\":{\"b\":2}}}", jsonConfig);
+        jsonConfig.setExcludes(new String[] {"b"});
+        JSONObject a = jsonObject.getJSONObject("a");
+        assertEquals(1, a.getInt("b"));
+        assertEquals(2, a.getJSONObject("c").getInt("b"));
+    }
+
+    @Test
+    void testSerializable() throws IOException {
+        JSONObject jsonObject = JSONObject.fromObject(TEXT, jsonConfig);
+        try (ObjectOutputStream out = new ObjectOutputStream(new ByteArrayOutputStream())) {
+            out.writeObject(jsonObject);
+        }
+        assertEquals(JSONObject.fromObject(TEXT).toString(), jsonObject.toString());
+    }
+
+    @BeforeEach
+    void setUp() {
+        jsonConfig = new JsonConfig();
+        jsonConfig.setLazyParsing(true);
+    }
+}
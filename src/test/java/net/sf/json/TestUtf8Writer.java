@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class TestUtf8Writer {
+    private static final String TEXT = "{\"ascii\":\"x\",\"latin\":\"é\",\"cjk\":\"漢字\",\"emoji\":\"😀\","
+            + "\"lone\":\"\uD83D\",\"escaped\":\"a\\n\\u0001\",\"n\":[1,2.5,-3]}";
+
+    @Test
+    void testWrite_outputStream() throws IOException {
+        JSONObject jsonObject = JSONObject.fromObject(TEXT);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertSame(out, jsonObject.write(out));
+        assertArrayEquals(jsonObject.toString().getBytes(StandardCharsets.UTF_8), out.toByteArray());
+
+        StringBuilder large = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            large.append(i == 0 ? "" : ",").append("\"é😀").append(i).append('"');
+        }
+        JSONArray jsonArray = JSONArray.fromObject(large.append(']').toString());
+        out.reset();
+        jsonArray.write(out);
+        assertArrayEquals(jsonArray.toString().getBytes(StandardCharsets.UTF_8), out.toByteArray());
+
+        out.reset();
+        JSONNull.getInstance().write(out);
+        assertEquals("null", out.toString("UTF-8"));
+    }
+
+    @Test
+    void testWriteTo_byteBuffer() {
+        JSONObject jsonObject = JSONObject.fromObject(TEXT);
+        byte[] expected = jsonObject.toString().getBytes(StandardCharsets.UTF_8);
+        for (ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.allocate(256), ByteBuffer.allocateDirect(256)}) {
+            buffer.put((byte) '>');
+            jsonObject.writeTo(buffer);
+            assertEquals(1 + expected.length, buffer.position());
+            byte[] actual = new byte[expected.length];
+            buffer.flip().position(1);
+            buffer.get(actual);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void testWriteTo_overflow() {
+        JSONObject jsonObject = JSONObject.fromObject(TEXT);
+        int length = jsonObject.toString().getBytes(StandardCharsets.UTF_8).length;
+        for (ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.allocate(length), ByteBuffer.allocateDirect(length)}) {
+            buffer.put((byte) 0);
+            assertThrows(BufferOverflowException.class, () -> jsonObject.writeTo(buffer));
+            assertEquals(1, buffer.position());
+        }
+    }
+
+    @Test
+    void testWrite_defaultMethods() throws IOException {
+        JSON json = new Text("[\"é😀\"]");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertSame(out, json.write(out));
+        assertEquals("[\"é😀\"]", out.toString("UTF-8"));
+
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        json.writeTo(buffer);
+        assertEquals(out.size(), buffer.position());
+        assertThrows(BufferOverflowException.class, () -> json.writeTo(buffer));
+        assertEquals(out.size(), buffer.position());
+    }
+
+    /**
+     * A JSON implemented outside of this library, with none of the methods
+     * that have a default.
+     */
+    private static final class Text implements JSON {
+        private static final long serialVersionUID = 1L;
+
+        private final String text;
+
+        Text(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public boolean isArray() {
+            return true;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return 1;
+        }
+
+        @Override
+        public String toString(int indentFactor) {
+            return text;
+        }
+
+        @Override
+        public String toString(int indentFactor, int indent) {
+            return text;
+        }
+
+        @Override
+        public Writer write(Writer writer) throws IOException {
+            writer.write(text);
+            return writer;
+        }
+
+        @Override
+        public Writer writeCanonical(Writer w) throws IOException {
+            return write(w);
+        }
+    }
+}
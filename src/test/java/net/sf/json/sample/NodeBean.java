@@ -0,0 +1,57 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json.sample;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A node of a graph that may have cycles; equality is identity.
+ *
+ * @author JSON.org
+ */
+public class NodeBean {
+    private final List<NodeBean> children = new ArrayList<>();
+    private String name;
+    private NodeBean next;
+
+    public NodeBean() {}
+
+    public NodeBean(String name) {
+        this.name = name;
+    }
+
+    public List<NodeBean> getChildren() {
+        return children;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public NodeBean getNext() {
+        return next;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setNext(NodeBean next) {
+        this.next = next;
+    }
+}
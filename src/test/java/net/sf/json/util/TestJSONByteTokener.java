@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import net.sf.json.JSONSerializer;
+import org.junit.jupiter.api.Test;
+
+class TestJSONByteTokener {
+    private static final String SOURCE = "{\"string\":\"café € 😀\",\"int\":1,\"array\":[1,2.5,true,null],"
+            + "\"nested\":{'key':'value'}, /* comment */ unquoted: été; \"escaped\":\"a\\\"b\\u0041é\"}";
+
+    @Test
+    void testFromObject() {
+        JSONObject expected = JSONObject.fromObject(SOURCE);
+        assertEquals(expected, JSONObject.fromObject(new JSONByteTokener(bytes(SOURCE))));
+        assertEquals("café € 😀", expected.getString("string"));
+        assertEquals("été", expected.getString("unquoted"));
+    }
+
+    @Test
+    void testFromObject_byteBuffer() {
+        byte[] bytes = bytes("xx ﻿[1,'é',{\"a\":[]}]  yy");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        buffer.position(3).limit(bytes.length - 2);
+        assertEquals(JSONArray.fromObject("[1,'é',{\"a\":[]}]"), JSONSerializer.toJSON(new JSONByteTokener(buffer)));
+        assertEquals(3, buffer.position());
+
+        assertEquals(
+                JSONArray.fromObject("[2]"), JSONArray.fromObject(new JSONByteTokener(bytes("[1][2][3]"), 3, 3)));
+    }
+
+    @Test
+    void testByteOrderMark() {
+        // skipped, where a String source is rejected
+        String text = "\uFEFF{\"a\":1}";
+        assertEquals(JSONObject.fromObject("{\"a\":1}"), JSONObject.fromObject(new JSONByteTokener(bytes(text))));
+        assertThrows(JSONException.class, () -> JSONSerializer.toJSON(text));
+    }
+
+    @Test
+    void testNextAndBack_supplementary() {
+        JSONTokener tok = new JSONByteTokener(bytes("a😀é"));
+        assertEquals('a', tok.next());
+        assertEquals('\ud83d', tok.next());
+        tok.back();
+        assertEquals('\ud83d', tok.next());
+        assertEquals('\ude00', tok.next());
+        tok.back();
+        assertEquals('\ude00', tok.peek());
+        tok.back();
+        tok.back();
+        assertEquals('a', tok.next());
+        assertTrue(tok.startsWith("😀é"));
+        assertEquals("😀", tok.next(2));
+        assertEquals('é', tok.next());
+        assertFalse(tok.more());
+        assertEquals(0, tok.next());
+    }
+
+    @Test
+    void testMalformed() {
+        JSONTokener tok = new JSONByteTokener(new byte[] {'"', (byte) 0xC3, '"', (byte) 0x80, 'a'});
+        tok.next();
+        assertEquals("�", tok.nextString('"'));
+        assertEquals('�', tok.next());
+        assertEquals('a', tok.next());
+    }
+
+    @Test
+    void testSkipToAndSkipPast() {
+        JSONTokener tok = new JSONByteTokener(bytes("éabc€def"));
+        assertEquals(0, tok.skipTo('z'));
+        assertEquals('é', tok.next());
+        assertEquals('€', tok.skipTo('€'));
+        tok.skipPast("€d");
+        assertEquals('e', tok.next());
+    }
+
+    @Test
+    void testSyntaxError() {
+        JSONException e = assertThrows(
+                JSONException.class,
+                () -> JSONObject.fromObject(new JSONByteTokener(bytes("{\"é\":1,\n\"b\" 2}"))));
+        assertTrue(e.getMessage().contains("at character 13 (line 2, column 6) near '{\"é\":1, \"b\" 2}'"),
+                e.getMessage());
+        assertThrows(JSONException.class, () -> new JSONByteTokener(bytes("{\"a\":1")));
+        assertThrows(JSONException.class, () -> JSONObject.fromObject(new JSONByteTokener(bytes("{\"a\":\"1}"))));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
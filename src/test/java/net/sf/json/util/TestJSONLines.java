@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import net.sf.json.JSON;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
+import net.sf.json.JsonConfig;
+import org.junit.jupiter.api.Test;
+
+class TestJSONLines {
+    @Test
+    void testIterator() {
+        Iterator<JSON> values = JSONLines.iterator(new StringReader("{\"a\":1}\r\n\n  [1,2]  \nnull\n{}"));
+        assertEquals(JSONObject.fromObject("{\"a\":1}"), values.next());
+        assertEquals(JSONArray.fromObject("[1,2]"), values.next());
+        assertEquals(JSONNull.getInstance(), values.next());
+        assertTrue(values.hasNext());
+        assertEquals(new JSONObject(), values.next());
+        assertFalse(values.hasNext());
+        assertThrows(NoSuchElementException.class, values::next);
+    }
+
+    @Test
+    void testIterator_errorNamesLine() {
+        Iterator<JSON> values = JSONLines.iterator(new StringReader("{}\n\n{\"a\":}\n[]"));
+        values.next();
+        JSONException jsone = assertThrows(JSONException.class, values::next);
+        assertTrue(jsone.getMessage().startsWith("Line 3: "), jsone.getMessage());
+        assertEquals(new JSONArray(), values.next());
+    }
+
+    @Test
+    void testStream_sharesConfig() {
+        JsonConfig jsonConfig = new JsonConfig();
+        jsonConfig.setExcludes(new String[] {"b"});
+        List<String> values;
+        try (Stream<JSON> stream = JSONLines.stream(new StringReader("{\"a\":1,\"b\":2}\n{\"b\":3}"), jsonConfig)) {
+            values = stream.map(JSON::toString).collect(Collectors.toList());
+        }
+        assertEquals(Arrays.asList("{\"a\":1}", "{}"), values);
+    }
+
+    @Test
+    void testParallelStream() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append("{\"n\":").append(i).append("}\n");
+        }
+        List<Integer> values;
+        try (Stream<JSON> stream = JSONLines.parallelStream(new StringReader(text.toString()))) {
+            values = stream.map(json -> ((JSONObject) json).getInt("n")).collect(Collectors.toList());
+        }
+        assertEquals(10000, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i, values.get(i));
+        }
+
+        text.append("[\n");
+        JSONException jsone = assertThrows(
+                JSONException.class,
+                () -> JSONLines.parallelStream(new StringReader(text.toString())).unordered().count());
+        assertTrue(jsone.getMessage().contains("Line 10001: "), jsone.getMessage());
+    }
+
+    @Test
+    void testWrite() throws IOException {
+        StringWriter writer = new StringWriter();
+        JSONLines.write(writer, JSONObject.fromObject("{\"a\": \"x\\ny\"}"));
+        JSONLines.write(writer, Arrays.asList(JSONArray.fromObject("[1, 2]"), JSONNull.getInstance()));
+        assertEquals("{\"a\":\"x\\ny\"}\n[1,2]\nnull\n", writer.toString());
+
+        Iterator<JSON> values = JSONLines.iterator(new StringReader(writer.toString()));
+        assertEquals("x\ny", ((JSONObject) values.next()).getString("a"));
+    }
+}
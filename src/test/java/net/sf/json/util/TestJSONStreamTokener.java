@@ -0,0 +1,181 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import net.sf.json.JSON;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import net.sf.json.JSONSerializer;
+import org.junit.jupiter.api.Test;
+
+class TestJSONStreamTokener {
+    private static final String SOURCE =
+            "{\"string\":\"json\",\"int\":1,\"array\":[1,2.5,true,null],\"nested\":{'key':'value'}, /* comment */"
+                    + " \"escaped\":\"a\\\"b\\u0041\"}";
+
+    @Test
+    void testFromObject_smallBuffer() {
+        JSONObject expected = JSONObject.fromObject(SOURCE);
+        JSONObject actual = JSONObject.fromObject(new JSONStreamTokener(new StringReader(SOURCE), 3));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testFromObject_InputStream() {
+        String json = "  {\"name\":\"café €\"}  ";
+        JSONObject actual = JSONObject.fromObject(
+                new JSONStreamTokener(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+        assertEquals("café €", actual.getString("name"));
+    }
+
+    @Test
+    void testFromObject_null() {
+        JSONObject actual = JSONObject.fromObject(new JSONStreamTokener(new StringReader("  null")));
+        assertTrue(actual.isNullObject());
+    }
+
+    @Test
+    void testFromArray_smallBuffer() {
+        String json = "[1,,'two',[3,4],{\"five\":5}]";
+        JSONArray expected = JSONArray.fromObject(json);
+        JSONArray actual = JSONArray.fromObject(new JSONStreamTokener(new StringReader(json), 4));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testDifferencesWithStringSource() {
+        // a byte order mark is skipped, where a String source is rejected
+        String bom = "\uFEFF {\"a\":1}";
+        assertEquals(JSONObject.fromObject("{\"a\":1}"),
+                JSONObject.fromObject(new JSONStreamTokener(new StringReader(bom))));
+        assertThrows(JSONException.class, () -> JSONSerializer.toJSON(bom));
+
+        // the end of the source is not checked, what follows the value is left unread
+        String trailing = "[1,2] x";
+        assertEquals(JSONArray.fromObject("[1,2]"),
+                JSONArray.fromObject(new JSONStreamTokener(new StringReader(trailing))));
+        assertThrows(JSONException.class, () -> JSONArray.fromObject(trailing));
+    }
+
+    @Test
+    void testToJSON() {
+        JSON array = JSONSerializer.toJSON(new JSONStreamTokener(new StringReader(" [1,2]")));
+        assertEquals(JSONArray.fromObject("[1,2]"), array);
+        JSON object = JSONSerializer.toJSON(new JSONStreamTokener(new StringReader(SOURCE)));
+        assertEquals(JSONObject.fromObject(SOURCE), object);
+    }
+
+    @Test
+    void testNextString_acrossRefill() {
+        JSONTokener tok = new JSONStreamTokener(new StringReader("\"a long string\" 'with \\'escape\\'' \"end"), 4);
+        tok.next();
+        assertEquals("a long string", tok.nextString('"'));
+        tok.nextClean();
+        assertEquals("with 'escape'", tok.nextString('\''));
+        tok.nextClean();
+        assertThrows(JSONException.class, () -> tok.nextString('"'));
+    }
+
+    @Test
+    void testBackAcrossRefill() {
+        JSONTokener tok = new JSONStreamTokener(new StringReader("abcdefgh"), 3);
+        assertEquals('a', tok.next());
+        assertEquals('b', tok.next());
+        assertEquals('c', tok.next());
+        assertEquals('d', tok.next());
+        tok.back();
+        assertEquals('d', tok.next());
+        assertEquals('e', tok.next());
+        tok.back();
+        tok.back();
+        assertEquals('d', tok.next());
+    }
+
+    @Test
+    void testStartsWith() {
+        JSONTokener tok = new JSONStreamTokener(new StringReader("xxnulll"), 3);
+        tok.next();
+        tok.next();
+        assertTrue(tok.startsWith("null"));
+        assertFalse(tok.startsWith("nullll"));
+        assertEquals('n', tok.next());
+    }
+
+    @Test
+    void testNextN() {
+        JSONTokener tok = new JSONStreamTokener(new StringReader("abcdef"), 3);
+        tok.next();
+        assertEquals("bcde", tok.next(4));
+        assertThrows(JSONException.class, () -> tok.next(1));
+    }
+
+    @Test
+    void testSkipTo() {
+        JSONTokener tok = new JSONStreamTokener(new StringReader("abcdefghij"), 3);
+        assertEquals(0, tok.skipTo('z'));
+        assertEquals('a', tok.next());
+        assertEquals('h', tok.skipTo('h'));
+        assertEquals('h', tok.next());
+    }
+
+    @Test
+    void testSkipPast() {
+        JSONTokener tok = new JSONStreamTokener(new StringReader("abcdefghij"), 3);
+        tok.skipPast("def");
+        assertEquals('g', tok.next());
+    }
+
+    @Test
+    void testReset() {
+        JSONTokener tok = new JSONStreamTokener(new StringReader("abc"));
+        tok.next();
+        tok.next();
+        assertEquals('c', tok.next());
+        tok.reset();
+        assertEquals('a', tok.next());
+
+        JSONTokener small = new JSONStreamTokener(new StringReader("abcdefghij"), 3);
+        small.skipPast("hij");
+        assertThrows(JSONException.class, small::reset);
+    }
+
+    @Test
+    void testSyntaxError() {
+        JSONException e = assertThrows(
+                JSONException.class,
+                () -> JSONObject.fromObject(new JSONStreamTokener(new StringReader("{\"a\" 1}"))));
+        assertTrue(e.getMessage().contains("at character 6"), e.getMessage());
+    }
+
+    @Test
+    void testSyntaxError_lineAndColumn() {
+        String json = "{\n  \"a\": 1,\n  \"b\": [1, 2,\n  3 }\n}";
+        JSONException e = assertThrows(
+                JSONException.class, () -> JSONObject.fromObject(new JSONStreamTokener(new StringReader(json), 4)));
+        assertTrue(e.getMessage().contains("at character 31 (line 4, column 6)"), e.getMessage());
+        assertTrue(e.getMessage().contains(" near '"), e.getMessage());
+    }
+}
@@ -22,6 +22,9 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import net.sf.json.JSONException;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
+import net.sf.json.JsonConfig;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -84,6 +87,122 @@ class TestJSONTokener {
         assertFalse(new JSONTokener("nnulll").startsWith("null"));
     }
 
+    @Test
+    void testNextString() {
+        JSONTokener tok = new JSONTokener("'plain' \"with \\\"escape\\u0041\" 'a\"b'");
+        tok.next();
+        assertEquals("plain", tok.nextString('\''));
+        tok.nextClean();
+        assertEquals("with \"escapeA", tok.nextString('"'));
+        tok.nextClean();
+        assertEquals("a\"b", tok.nextString('\''));
+        assertThrows(JSONException.class, () -> new JSONTokener("abc").nextString('"'));
+        assertThrows(JSONException.class, () -> new JSONTokener("ab\nc\"").nextString('"'));
+    }
+
+    @Test
+    void testSkipValue() {
+        JSONTokener tok = new JSONTokener("12.5 , {'a':[1,{\"b\":\"}]\\\"\"}],/* ] */ c:x}, 'str\\'', true;");
+        tok.skipValue();
+        assertEquals(',', tok.nextClean());
+        tok.skipValue();
+        assertEquals(',', tok.nextClean());
+        tok.skipValue();
+        assertEquals(',', tok.nextClean());
+        tok.skipValue();
+        assertEquals(';', tok.nextClean());
+    }
+
+    @Test
+    void testSkipValue_errors() {
+        assertThrows(JSONException.class, () -> new JSONTokener("[1,{]}]").skipValue());
+        assertThrows(JSONException.class, () -> new JSONTokener("'abc").skipValue());
+        assertThrows(JSONException.class, () -> new JSONTokener(",1").skipValue());
+        assertThrows(JSONException.class, () -> new JSONTokener("").skipValue());
+    }
+
+    @Test
+    void testSkipValue_deeplyNested() {
+        String open = "[{".repeat(50);
+        String close = "}]".repeat(50);
+        JSONTokener tok = new JSONTokener(open + "\"a\":1" + close);
+        tok.skipValue();
+        assertEquals(0, tok.nextClean());
+
+        // the brackets are mismatched below a depth of 64
+        String mismatched = open + "[]]" + close.substring(1);
+        assertThrows(JSONException.class, () -> new JSONTokener(mismatched).skipValue());
+    }
+
+    @Test
+    void testNextValue_numbers() {
+        assertEquals(Integer.valueOf(12), nextValue("12"));
+        assertEquals(Integer.valueOf(-2147483648), nextValue("-2147483648"));
+        assertEquals(Long.valueOf(2147483648L), nextValue("2147483648"));
+        assertEquals(Long.valueOf(Long.MIN_VALUE), nextValue("-9223372036854775808"));
+        // out of the range of long, kept as text
+        assertEquals("9223372036854775808", nextValue("9223372036854775808"));
+        assertEquals(Integer.valueOf(31), nextValue("0x1F"));
+        assertEquals(Integer.valueOf(-31), nextValue("0x-1f"));
+        assertEquals(Integer.valueOf(8), nextValue("010"));
+        assertEquals(Integer.valueOf(8), nextValue("08"));
+        assertEquals(Integer.valueOf(0), nextValue("0"));
+        assertEquals(Double.valueOf(2.5d), nextValue("2.5"));
+        assertEquals(Double.valueOf(-0.0d), nextValue("-0.0"));
+        assertEquals(Double.valueOf(0.1d), nextValue(".1"));
+        assertEquals(Double.valueOf(1.5e-7d), nextValue("1.5E-7"));
+        assertEquals(Double.valueOf(1.5d), nextValue("1.5f"));
+        assertEquals(Double.valueOf(123456789.123456789d), nextValue("123456789.123456789"));
+        assertEquals(Double.valueOf(9.999999999999999999e300d), nextValue("9.999999999999999999e300"));
+        assertEquals(Double.valueOf(4.9e-324d), nextValue("4.9e-324"));
+        assertEquals(Double.valueOf(Double.POSITIVE_INFINITY), nextValue("1e400"));
+    }
+
+    @Test
+    void testNextValue_outOfRangeNumbers() {
+        assertEquals(
+                "{\"a\":\"12345678901234567890\"}",
+                JSONObject.fromObject("{\"a\":12345678901234567890}").toString());
+        JSONException e = assertThrows(JSONException.class, () -> JSONObject.fromObject("{\"a\":1e400}"));
+        assertTrue(e.getMessage().contains("non-finite"), e.getMessage());
+    }
+
+    @Test
+    void testNextValue_notNumbers() {
+        assertEquals("1.2.3", nextValue("1.2.3"));
+        assertEquals("12ab", nextValue("12ab"));
+        assertEquals("1e", nextValue("1e"));
+        assertEquals("-", nextValue("-"));
+        assertEquals(".", nextValue("."));
+        assertEquals("a b", nextValue("a b  "));
+        assertEquals(Boolean.TRUE, nextValue("TRUE"));
+        assertEquals(Boolean.FALSE, nextValue("false"));
+        assertEquals(JSONNull.getInstance(), nextValue("null"));
+        assertEquals("Null", nextValue("Null"));
+    }
+
+    @Test
+    void testSyntaxError_boundedContext() {
+        StringBuilder sb = new StringBuilder("{\"a\":1,\n\"b\" 2,");
+        for (int i = 0; i < 1000; i++) {
+            sb.append("\"k").append(i).append("\":").append(i).append(',');
+        }
+        String source = sb.append("\"z\":0}").toString();
+        JSONException e = assertThrows(JSONException.class, () -> JSONObject.fromObject(source));
+        assertEquals(
+                "Expected a ':' after a key at character 13 (line 2, column 6) near '{\"a\":1, \"b\" 2,\"k0\":0,\"k1\":1,\"k2\":...'",
+                e.getMessage());
+    }
+
+    @Test
+    void testSyntaxError_fullSource() {
+        JsonConfig jsonConfig = new JsonConfig();
+        jsonConfig.setFullSourceInSyntaxErrors(true);
+        JSONException e = assertThrows(JSONException.class, () -> JSONObject.fromObject("{\"a\" 1}", jsonConfig));
+        assertEquals("Expected a ':' after a key at character 6 (line 1, column 7) near '{\"a\" 1}' of {\"a\" 1}",
+                e.getMessage());
+    }
+
     @Test
     void testReset() {
         JSONTokener tok = new JSONTokener("abc");
@@ -93,4 +212,8 @@ class TestJSONTokener {
         tok.reset();
         assertEquals('a', tok.next());
     }
+
+    private static Object nextValue(String source) {
+        return new JSONTokener(source).nextValue(new JsonConfig());
+    }
 }
@@ -20,9 +20,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
 import java.util.Collections;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -90,6 +94,30 @@ public class TestJSONUtils {
         assertEquals("\"\\b\\t\\n\\r\\f\"", JSONUtils.quote("\b\t\n\r\f"));
     }
 
+    @Test
+    void testQuote_writer() throws IOException {
+        StringWriter writer = new StringWriter();
+        JSONUtils.quote("a\"b\\c</d/\u0001e\u001fé", writer);
+        assertEquals("\"a\\\"b\\\\c<\\/d/\\u0001e\\u001fé\"", writer.toString());
+        assertEquals(writer.toString(), JSONUtils.quote("a\"b\\c</d/\u0001e\u001fé"));
+
+        writer = new StringWriter();
+        JSONUtils.quoteCanonical("a\"</\n", writer);
+        assertEquals("\"a\\\"</\\u000a\"", writer.toString());
+    }
+
+    @Test
+    void testWriteValue() throws IOException {
+        StringBuilderWriter writer = new StringBuilderWriter();
+        JSONObject jsonObject = JSONObject.fromObject("{\"a\":[1,2.50,\"x\\ny\"],\"b\":null,\"c\":true}");
+        for (Object value : new Object[] {jsonObject, 12L, 1.0d, new BigDecimal("3.1400"), "s", null, Boolean.FALSE}) {
+            JSONUtils.writeValue(value, writer);
+            writer.write(' ');
+        }
+        assertEquals(jsonObject + " 12 1 3.14 \"s\" null false ", writer.toString());
+        assertThrows(JSONException.class, () -> JSONUtils.writeValue(Double.NaN, new StringWriter()));
+    }
+
     @Test
     void testQuote_nullString() {
         assertEquals("\"\"", JSONUtils.quote(null));
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import net.sf.json.util.JsonParser.Event;
+import org.junit.jupiter.api.Test;
+
+class TestJsonParser {
+    @Test
+    void testEvents() {
+        JsonParser parser = new JsonParser(new JSONTokener(
+                "{\"a\":1, 'b' => [true,false,null,'x',2.5], c = {} ; # comment\n \"d\":[]}"));
+        List<Event> events = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        while (parser.hasNext()) {
+            events.add(parser.next());
+            values.add(parser.getValue());
+        }
+        assertEquals(
+                List.of(
+                        Event.START_OBJECT,
+                        Event.KEY,
+                        Event.VALUE_NUMBER,
+                        Event.KEY,
+                        Event.START_ARRAY,
+                        Event.VALUE_TRUE,
+                        Event.VALUE_FALSE,
+                        Event.VALUE_NULL,
+                        Event.VALUE_STRING,
+                        Event.VALUE_NUMBER,
+                        Event.END_ARRAY,
+                        Event.KEY,
+                        Event.START_OBJECT,
+                        Event.END_OBJECT,
+                        Event.KEY,
+                        Event.START_ARRAY,
+                        Event.END_ARRAY,
+                        Event.END_OBJECT),
+                events);
+        assertEquals("a", values.get(1));
+        assertEquals(1, ((Number) values.get(2)).intValue());
+        assertEquals("b", values.get(3));
+        assertEquals("x", values.get(8));
+        assertEquals(2.5d, values.get(9));
+        assertEquals("c", values.get(11));
+        assertEquals("d", values.get(14));
+        assertThrows(NoSuchElementException.class, parser::next);
+    }
+
+    @Test
+    void testArrayWithEmptyElements() {
+        JsonParser parser = new JsonParser(new JSONTokener("[,,]"));
+        assertEquals(Event.START_ARRAY, parser.next());
+        assertEquals(Event.VALUE_NULL, parser.next());
+        assertEquals(Event.VALUE_NULL, parser.next());
+        assertEquals(Event.END_ARRAY, parser.next());
+        assertFalse(parser.hasNext());
+    }
+
+    @Test
+    void testScalar() {
+        JsonParser parser = new JsonParser(new JSONTokener("0x1F"));
+        assertEquals(Event.VALUE_NUMBER, parser.next());
+        assertEquals(31, parser.getNumber());
+        assertEquals("31", parser.getString());
+        assertFalse(parser.hasNext());
+    }
+
+    @Test
+    void testGetJSON() {
+        JsonParser parser = new JsonParser(
+                new JSONStreamTokener(new StringReader("{\"skip\":{\"x\":[1,2]},\"keep\":{\"y\":[3]},\"z\":1}")));
+        assertEquals(Event.START_OBJECT, parser.next());
+        assertEquals(Event.KEY, parser.next());
+        assertEquals(Event.START_OBJECT, parser.next());
+        parser.skipChildren();
+        assertEquals(Event.KEY, parser.next());
+        assertEquals("keep", parser.getString());
+        assertEquals(Event.START_OBJECT, parser.next());
+        assertEquals(JSONObject.fromObject("{\"y\":[3]}"), parser.getJSON());
+        assertEquals(1, parser.getDepth());
+        assertEquals(Event.KEY, parser.next());
+        assertEquals("z", parser.getString());
+        assertEquals(Event.VALUE_NUMBER, parser.next());
+        assertEquals(Event.END_OBJECT, parser.next());
+        assertFalse(parser.hasNext());
+    }
+
+    @Test
+    void testGetJSON_topLevelArray() {
+        JsonParser parser = new JsonParser(new JSONTokener("[1,[2]]"));
+        assertEquals(Event.START_ARRAY, parser.next());
+        assertEquals(JSONArray.fromObject("[1,[2]]"), parser.getJSON());
+        assertFalse(parser.hasNext());
+        assertThrows(JSONException.class, parser::getJSON);
+    }
+
+    @Test
+    void testSyntaxErrors() {
+        assertSyntaxError("{\"a\" 1}");
+        assertSyntaxError("{\"a\":1 \"b\":2}");
+        assertSyntaxError("[1 {}]");
+        assertSyntaxError("{\"a\":1");
+    }
+
+    @Test
+    void testGetString_wrongEvent() {
+        JsonParser parser = new JsonParser(new JSONTokener("[true]"));
+        parser.next();
+        assertThrows(JSONException.class, parser::getString);
+        parser.next();
+        assertThrows(JSONException.class, parser::getNumber);
+        assertTrue(parser.hasNext());
+    }
+
+    private void assertSyntaxError(String json) {
+        JsonParser parser = new JsonParser(new JSONStreamTokener(new StringReader(json)));
+        assertThrows(JSONException.class, () -> {
+            while (parser.hasNext()) {
+                parser.next();
+            }
+        });
+    }
+}
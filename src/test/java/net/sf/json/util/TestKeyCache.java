@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sf.json.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Iterator;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import net.sf.json.JsonConfig;
+import org.junit.jupiter.api.Test;
+
+class TestKeyCache {
+    @Test
+    void testCanonicalize() {
+        KeyCache cache = new KeyCache();
+        String key = new String("name");
+        assertSame(key, cache.canonicalize(key));
+        assertSame(key, cache.canonicalize(new String("name")));
+        assertNull(cache.canonicalize(null));
+        cache.clear();
+        assertNotSame(key, cache.canonicalize(new String("name")));
+    }
+
+    @Test
+    void testCanonicalize_longKeys() {
+        KeyCache cache = new KeyCache(16, 3);
+        String key = new String("long");
+        cache.canonicalize(key);
+        assertNotSame(key, cache.canonicalize(new String("long")));
+    }
+
+    @Test
+    void testConstructor_invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new KeyCache(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new KeyCache(10, -1));
+    }
+
+    @Test
+    void testFromObject_sharesKeys() {
+        JsonConfig jsonConfig = new JsonConfig();
+        jsonConfig.setKeyCache(new KeyCache());
+        JSONArray array = JSONArray.fromObject("[{\"id\":1,\"name\":\"a\"},{\"id\":2,\"name\":\"b\"}]", jsonConfig);
+        Iterator first = array.getJSONObject(0).keys();
+        Iterator second = array.getJSONObject(1).keys();
+        assertSame(first.next(), second.next());
+        assertSame(first.next(), second.next());
+        assertEquals(JSONObject.fromObject("{\"id\":2,\"name\":\"b\"}"), array.getJSONObject(1));
+    }
+
+    @Test
+    void testJsonParser_sharesKeys() {
+        JsonConfig jsonConfig = new JsonConfig();
+        jsonConfig.setKeyCache(new KeyCache());
+        JsonParser parser = new JsonParser(new JSONTokener("[{\"id\":1},{\"id\":2}]"), jsonConfig);
+        parser.next();
+        parser.next();
+        parser.next();
+        String first = parser.getString();
+        parser.next();
+        parser.next();
+        parser.next();
+        parser.next();
+        assertSame(first, parser.getString());
+    }
+
+    @Test
+    void testCopy_keepsCache() {
+        JsonConfig jsonConfig = new JsonConfig();
+        KeyCache cache = new KeyCache();
+        jsonConfig.setKeyCache(cache);
+        assertSame(cache, jsonConfig.copy().getKeyCache());
+        jsonConfig.reset();
+        assertNull(jsonConfig.getKeyCache());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.sf.json.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import net.sf.json.JSONObject;
+import net.sf.json.JsonConfig;
+import net.sf.json.sample.BeanA;
+import net.sf.json.sample.FieldBean;
+import net.sf.json.sample.PrimitiveBean;
+import org.junit.jupiter.api.Test;
+
+class TestPropertyAccessor {
+    @Test
+    void testProperty() throws Exception {
+        PropertyAccessor accessor = PropertyAccessor.forProperty(BeanA.class, "string");
+        assertSame(accessor, PropertyAccessor.forProperty(BeanA.class, "string"));
+        assertEquals("string", accessor.getName());
+        assertEquals(String.class, accessor.getType());
+        assertTrue(accessor.isWritable());
+
+        BeanA bean = new BeanA();
+        assertEquals("json", accessor.get(bean));
+        accessor.set(bean, "value");
+        assertEquals("value", bean.getString());
+        assertEquals(42, PropertyAccessor.forProperty(BeanA.class, "integer").get(bean));
+        assertNull(PropertyAccessor.forProperty(BeanA.class, "missing"));
+    }
+
+    @Test
+    void testProperty_conversions() throws Exception {
+        PrimitiveBean bean = new PrimitiveBean();
+        PropertyAccessor accessor = PropertyAccessor.forProperty(PrimitiveBean.class, "plong");
+        accessor.set(bean, 2L);
+        assertEquals(2L, bean.getPlong());
+        // widened as reflection does
+        accessor.set(bean, 3);
+        assertEquals(3L, bean.getPlong());
+        assertThrows(IllegalArgumentException.class, () -> accessor.set(bean, null));
+        assertThrows(IllegalArgumentException.class, () -> accessor.set(bean, "4"));
+    }
+
+    @Test
+    void testProperty_exceptions() {
+        PropertyAccessor getter = PropertyAccessor.forProperty(FailingBean.class, "value");
+        InvocationTargetException e = assertThrows(InvocationTargetException.class, () -> getter.get(new FailingBean()));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertThrows(InvocationTargetException.class, () -> getter.set(new FailingBean(), "x"));
+    }
+
+    @Test
+    void testField() throws Exception {
+        FieldBean bean = new FieldBean();
+        PropertyAccessor accessor = PropertyAccessor.forField(FieldBean.class, "string");
+        accessor.set(bean, "field");
+        assertEquals("field", bean.string);
+        assertEquals("field", accessor.get(bean));
+        assertNull(PropertyAccessor.forField(FieldBean.class, "value"));
+    }
+
+    @Test
+    void testToBean() {
+        JsonConfig jsonConfig = new JsonConfig();
+        jsonConfig.setRootClass(BeanA.class);
+        BeanA bean = (BeanA) JSONObject.toBean(
+                JSONObject.fromObject("{\"bool\":false,\"integer\":7,\"string\":\"s\"}"), jsonConfig);
+        assertEquals(new BeanA(false, 7, "s"), bean);
+        jsonConfig.setPropertySetStrategy(PropertySetStrategy.DEFAULT);
+        assertEquals(bean, JSONObject.toBean(JSONObject.fromObject(bean), jsonConfig));
+    }
+
+    public static class FailingBean {
+        public String getValue() {
+            throw new IllegalStateException();
+        }
+
+        public void setValue(String value) {
+            throw new IllegalStateException();
+        }
+    }
+}